@@ -0,0 +1,89 @@
+package NG.Benchmarks;
+
+import NG.Content.Scenario.Scenario;
+import NG.Core.Game;
+import NG.Core.HeadlessGame;
+import NG.Network.NetworkNode;
+import NG.Network.RailNode;
+import NG.Tools.TestNetworks;
+import NG.Tools.TestTracksMod;
+import NG.Tracks.RailTools;
+import NG.Tracks.TrackPiece;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds games and track networks for benchmarking, without a window or GL context.
+ */
+public final class BenchmarkNetworks {
+    public static final int TPS = 20;
+    private static final float TRACK_HEIGHT = TestNetworks.TRACK_HEIGHT;
+
+    private BenchmarkNetworks() {
+    }
+
+    /** @return a started headless game with an empty map, where {@link TestTracksMod#TEST_TRACK} is the only track type */
+    public static HeadlessGame createGame() {
+        HeadlessGame game = new HeadlessGame(List.of(new TestTracksMod()), TPS);
+        game.apply(new Scenario.Empty(game));
+        return game;
+    }
+
+    /**
+     * creates a chain of diamonds along the x-axis as {@link TestNetworks#createDiamondChain(Game, int)}, where each
+     * junction has a signal.
+     * @param game         the game to add the tracks to
+     * @param nrOfDiamonds the number of diamonds
+     * @return the junctions of the chain, in order
+     */
+    public static List<RailNode> createDiamondChain(Game game, int nrOfDiamonds) {
+        List<RailNode> junctions = TestNetworks.createDiamondChain(game, nrOfDiamonds);
+
+        for (RailNode junction : junctions) {
+            junction.addSignal(game, true);
+        }
+
+        return junctions;
+    }
+
+    /**
+     * creates a closed loop of two straight sections joined by half circles, with a signal on either straight
+     * @param game   the game to add the tracks to
+     * @param length the length of each straight section
+     * @param radius the radius of the half circles
+     * @return a track piece of the loop
+     */
+    public static TrackPiece createLoop(Game game, float length, float radius) {
+        List<TrackPiece> tracks = new ArrayList<>(RailTools.createNew(
+                game, TestTracksMod.TEST_TRACK, new Vector3f(0, 0, TRACK_HEIGHT), new Vector3f(length, 0, TRACK_HEIGHT),
+                Float.POSITIVE_INFINITY
+        ));
+        RailNode start = tracks.get(0).getStartNode();
+
+        RailNode end = extend(game, tracks, new Vector3f(length + radius, radius, TRACK_HEIGHT));
+        end = extend(game, tracks, new Vector3f(length, 2 * radius, TRACK_HEIGHT));
+        RailNode opposite = extend(game, tracks, new Vector3f(0, 2 * radius, TRACK_HEIGHT));
+        end = extend(game, tracks, new Vector3f(-radius, radius, TRACK_HEIGHT));
+        tracks.addAll(RailTools.createConnection(game, end, start, Float.POSITIVE_INFINITY));
+
+        for (TrackPiece track : tracks) {
+            NetworkNode.addConnection(track);
+            game.state().addEntity(track);
+        }
+
+        start.addSignal(game, true);
+        opposite.addSignal(game, true);
+
+        return tracks.get(0);
+    }
+
+    private static RailNode extend(Game game, List<TrackPiece> tracks, Vector3fc newPosition) {
+        RailNode last = tracks.get(tracks.size() - 1).getEndNode();
+        List<TrackPiece> newTracks = RailTools.createNew(game, last, newPosition, Float.POSITIVE_INFINITY);
+        tracks.addAll(newTracks);
+        return newTracks.get(newTracks.size() - 1).getEndNode();
+    }
+}
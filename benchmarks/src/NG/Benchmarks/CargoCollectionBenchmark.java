@@ -0,0 +1,55 @@
+package NG.Benchmarks;
+
+import NG.DataStructures.CargoCollection;
+import NG.Freight.Cargo;
+import NG.Mods.CargoType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Taking cargo of one type from a station-sized collection of mixed cargo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CargoCollectionBenchmark {
+    private static final int NR_OF_TYPES = 8;
+    private static final int ELEMENT_QUANTITY = 10;
+
+    /** the number of cargo elements in the collection */
+    @Param({"10", "100", "1000"})
+    public int collectionSize;
+
+    private CargoCollection collection;
+    private CargoType targetType;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CargoType[] types = new CargoType[NR_OF_TYPES];
+        for (int i = 0; i < NR_OF_TYPES; i++) {
+            types[i] = new CargoType("Cargo " + i, 10, 0.01f);
+        }
+        targetType = types[NR_OF_TYPES - 1];
+
+        collection = new CargoCollection();
+        for (int i = 0; i < collectionSize; i++) {
+            collection.add(new Cargo(types[i % NR_OF_TYPES], ELEMENT_QUANTITY, i, null));
+        }
+    }
+
+    @Benchmark
+    public Collection<Cargo> take() {
+        // take three and a half elements, such that one element is split
+        int amount = Math.min(ELEMENT_QUANTITY * 7 / 2, collection.getAmountOf(targetType));
+        Collection<Cargo> taken = collection.take(targetType, amount);
+
+        // put it back, such that the next invocation finds a collection of the same size
+        collection.addAll(taken);
+        return taken;
+    }
+}
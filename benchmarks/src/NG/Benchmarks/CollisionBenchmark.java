@@ -0,0 +1,58 @@
+package NG.Benchmarks;
+
+import NG.DataStructures.Collision.GilbertJohnsonKeerthiCollision;
+import NG.Rendering.Shapes.GenericShapes;
+import NG.Rendering.Shapes.Shape;
+import NG.Tools.Vectors;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GJK collision test between two rotated cubes, for both a colliding and a separated pair.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollisionBenchmark {
+    private Shape cube;
+    private Matrix4f aTransform;
+    private Matrix4f aInverse;
+    private Matrix4f collidingTransform;
+    private Matrix4f collidingInverse;
+    private Matrix4f separateTransform;
+    private Matrix4f separateInverse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cube = GenericShapes.CUBE;
+
+        aTransform = new Matrix4f().rotateZ(0.3f).scale(2, 1, 1);
+        aInverse = new Matrix4f(aTransform).invert();
+        collidingTransform = new Matrix4f().translate(1.5f, 1, 0.5f).rotateXYZ(0.5f, 0.2f, 0.9f);
+        collidingInverse = new Matrix4f(collidingTransform).invert();
+        separateTransform = new Matrix4f().translate(4, 3, 1).rotateXYZ(0.5f, 0.2f, 0.9f);
+        separateInverse = new Matrix4f(separateTransform).invert();
+
+        if (!colliding()) throw new IllegalStateException("colliding shapes do not collide");
+        if (separate()) throw new IllegalStateException("separate shapes collide");
+    }
+
+    @Benchmark
+    public boolean colliding() {
+        return GilbertJohnsonKeerthiCollision.gjk(
+                cube, aTransform, aInverse, cube, collidingTransform, collidingInverse, Vectors.Z
+        );
+    }
+
+    @Benchmark
+    public boolean separate() {
+        return GilbertJohnsonKeerthiCollision.gjk(
+                cube, aTransform, aInverse, cube, separateTransform, separateInverse, Vectors.Z
+        );
+    }
+}
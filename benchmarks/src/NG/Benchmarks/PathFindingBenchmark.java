@@ -0,0 +1,95 @@
+package NG.Benchmarks;
+
+import NG.Core.HeadlessGame;
+import NG.Network.NetworkGraph;
+import NG.Network.NetworkNode;
+import NG.Network.NetworkPosition;
+import NG.Network.RailNode;
+import NG.Network.ReservationTable;
+import NG.Network.Signal;
+import NG.Tools.NetworkPathFinder;
+import NG.Tools.TestNetworks;
+import NG.Tracks.TrackPiece;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path finding over a chain of diamonds, from the start of the chain to its end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathFindingBenchmark {
+    /** the number of diamonds in the chain, each adding two network nodes and three connections */
+    @Param({"10", "100", "1000"})
+    public int networkSize;
+
+    @Param({"NONE", "EUCLIDEAN", "LANDMARKS"})
+    public NetworkGraph.Heuristic heuristic;
+
+    private HeadlessGame game;
+    private NetworkNode startNode;
+    private Signal startSignal;
+    private NetworkPosition target;
+    private NetworkGraph graph;
+    private int startPort;
+    private Set<NetworkNode> targetNodes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        game = BenchmarkNetworks.createGame();
+        List<RailNode> junctions = BenchmarkNetworks.createDiamondChain(game, networkSize);
+        game.tick();
+
+        RailNode first = junctions.get(1);
+        startNode = first.getNetworkNode();
+        startSignal = first.getSignal();
+        target = new TestNetworks.NodeTarget(junctions.get(junctions.size() - 1));
+
+        graph = NetworkGraph.of(startNode);
+        startPort = graph.getPort(startNode, junctions.get(0).getNetworkNode());
+        targetNodes = Set.of(junctions.get(junctions.size() - 1).getNetworkNode());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        game.stopGame();
+    }
+
+    /** usually answered by the route cache */
+    @Benchmark
+    public NetworkPathFinder.Path networkPathFinder() {
+        return new NetworkPathFinder(startNode, true, target).call();
+    }
+
+    /** the search on the compiled network, as executed upon a miss of the route cache */
+    @Benchmark
+    public NetworkPathFinder.Path graphSearch() {
+        return graph.findPath(startPort, targetNodes, heuristic);
+    }
+
+    /** the same search, crossing regions of 64 nodes in single steps */
+    @Benchmark
+    public NetworkPathFinder.Path regionSearch() {
+        return graph.findPath(startPort, targetNodes, heuristic, 64);
+    }
+
+    @Benchmark
+    public Deque<TrackPiece> reservePath() {
+        ReservationTable reservations = game.state().reservations();
+        Deque<TrackPiece> path = startSignal.reservePath(
+                Signal.Direction.IN_DIRECTION, depth -> target, game.state().pathFinding(), reservations, this
+        );
+
+        // release the path, such that the next invocation finds the same state
+        reservations.release(this, path);
+        return path;
+    }
+}
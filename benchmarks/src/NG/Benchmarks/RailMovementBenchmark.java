@@ -0,0 +1,93 @@
+package NG.Benchmarks;
+
+import NG.Core.HeadlessGame;
+import NG.Entities.Train;
+import NG.Tools.TestTracksMod;
+import NG.Tracks.RailMovement;
+import NG.Tracks.RailTools;
+import NG.Tracks.TrackPiece;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The movement of a single train on a closed loop, driving without a schedule.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RailMovementBenchmark {
+    private static final double TICK_DURATION = 1.0 / BenchmarkNetworks.TPS;
+    /** the length of the sampled train, which must fit on the first track of the loop */
+    private static final float TRAIN_LENGTH = 15f;
+    /** the number of elements of the sampled train, as drawn each frame */
+    private static final int NR_OF_ELEMENTS = 10;
+
+    private HeadlessGame game;
+    private RailMovement movement;
+    private double time;
+    private float displacement;
+    private final float[] displacements = new float[NR_OF_ELEMENTS];
+    private final float[] poses = new float[NR_OF_ELEMENTS * RailMovement.POSE_SIZE];
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        game = BenchmarkNetworks.createGame();
+        TrackPiece loop = BenchmarkNetworks.createLoop(game, 200, 20);
+
+        // the train only acts as a controller without schedule, place it on a separate track
+        List<TrackPiece> siding = RailTools.createNew(
+                game, TestTracksMod.TEST_TRACK, new Vector3f(0, -50, 1), new Vector3f(20, -50, 1), Float.POSITIVE_INFINITY
+        );
+        Train controller = new Train(game, 0, 0, siding.get(0));
+
+        movement = new RailMovement(game, controller, 0, loop, true);
+        movement.setProperties(500, 100, 0.5f, 0.01f, 5, TRAIN_LENGTH, 20);
+        movement.start();
+        game.tick();
+
+        // get up to speed
+        time = 0;
+        for (int i = 0; i < 60 * BenchmarkNetworks.TPS; i++) {
+            time += TICK_DURATION;
+            movement.update(time);
+        }
+
+        if (movement.getSpeed() == 0) throw new IllegalStateException("Train does not move");
+
+        for (int i = 0; i < NR_OF_ELEMENTS; i++) {
+            displacements[i] = (i + 0.5f) * TRAIN_LENGTH / NR_OF_ELEMENTS;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        game.stopGame();
+    }
+
+    @Benchmark
+    public float update() {
+        time += TICK_DURATION;
+        movement.update(time);
+        return movement.getSpeed();
+    }
+
+    @Benchmark
+    public Vector3f getPosition() {
+        // sample the positions of the elements of the train, at a time that has already been simulated
+        displacement = (displacement + 1) % TRAIN_LENGTH;
+        return movement.getPosition(time - TICK_DURATION / 2, -displacement);
+    }
+
+    @Benchmark
+    public float[] getPoses() {
+        // sample the poses of all elements of the train at once, as done when drawing
+        movement.getPoses(time - TICK_DURATION / 2, displacements, NR_OF_ELEMENTS, poses);
+        return poses;
+    }
+}
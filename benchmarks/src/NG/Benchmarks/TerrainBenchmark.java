@@ -0,0 +1,90 @@
+package NG.Benchmarks;
+
+import NG.AssetHandling.Asset;
+import NG.Core.HeadlessGame;
+import NG.GameMap.GameMap;
+import NG.Rendering.MeshLoading.FlatMesh;
+import NG.Rendering.MeshLoading.Mesh;
+import NG.Tools.OpenSimplexNoise;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Terrain operations: ray intersection with the map, generation of terrain meshes and noise evaluation. Meshes are
+ * only generated on the CPU, and never loaded to the GPU.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TerrainBenchmark {
+    private static final int CHUNK_SIZE = 32;
+    private static final int NR_OF_RAYS = 64;
+
+    private HeadlessGame game;
+    private GameMap map;
+    private float[][] heightmap;
+    private OpenSimplexNoise noise;
+    private Vector3fc[] rayOrigins;
+    private Vector3fc[] rayDirections;
+    private int rayIndex = 0;
+    private double noiseCoordinate = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = BenchmarkNetworks.createGame();
+        map = game.map();
+        noise = new OpenSimplexNoise(42);
+
+        heightmap = new float[CHUNK_SIZE + 1][CHUNK_SIZE + 1];
+        for (int x = 0; x <= CHUNK_SIZE; x++) {
+            for (int y = 0; y <= CHUNK_SIZE; y++) {
+                heightmap[x][y] = (float) noise.eval(x * 0.1, y * 0.1) * 5;
+            }
+        }
+
+        // rays from above, in various directions toward the map
+        rayOrigins = new Vector3fc[NR_OF_RAYS];
+        rayDirections = new Vector3fc[NR_OF_RAYS];
+        for (int i = 0; i < NR_OF_RAYS; i++) {
+            double angle = i * 2 * Math.PI / NR_OF_RAYS;
+            rayOrigins[i] = new Vector3f(50 + (float) Math.cos(angle) * 40, 50 + (float) Math.sin(angle) * 40, 50);
+            rayDirections[i] = new Vector3f((float) -Math.cos(angle), (float) -Math.sin(angle), -1).normalize();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        game.stopGame();
+    }
+
+    @Benchmark
+    public Float gridMapIntersection() {
+        int i = rayIndex;
+        rayIndex = (rayIndex + 1) % NR_OF_RAYS;
+        return map.gridMapIntersection(rayOrigins[i], rayDirections[i]);
+    }
+
+    @Benchmark
+    public Asset<Mesh> meshFromHeightmap() {
+        // the vertices and faces are generated eagerly, only the upload to the GPU is deferred
+        return FlatMesh.meshFromHeightmap(heightmap, 0, CHUNK_SIZE, 0, CHUNK_SIZE, 1f);
+    }
+
+    @Benchmark
+    public double noise2D() {
+        noiseCoordinate += 0.37;
+        return noise.eval(noiseCoordinate, noiseCoordinate * 0.5);
+    }
+
+    @Benchmark
+    public double noise3D() {
+        noiseCoordinate += 0.37;
+        return noise.eval(noiseCoordinate, noiseCoordinate * 0.5, noiseCoordinate * 0.25);
+    }
+}
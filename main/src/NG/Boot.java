@@ -1,6 +1,8 @@
 package NG;
 
+import NG.Content.Scenario.TriangleStationsSc;
 import NG.Core.FreightGame;
+import NG.Core.HeadlessGame;
 import NG.Tools.Logger;
 import org.lwjgl.system.Configuration;
 
@@ -30,6 +32,29 @@ public class Boot {
             Configuration.DEBUG.set(true);
         }
 
+        int headlessIndex = args.indexOf("-headless");
+        if (headlessIndex >= 0) {
+            // simulated seconds may follow the flag
+            boolean hasDuration = args.size() > headlessIndex + 1 && args.get(headlessIndex + 1).matches("\\d+");
+            int seconds = hasDuration ? Integer.parseInt(args.get(headlessIndex + 1)) : 600;
+            runHeadless(seconds);
+            return;
+        }
+
         new FreightGame().root();
     }
+
+    private static void runHeadless(int seconds) throws Exception {
+        HeadlessGame game = new HeadlessGame();
+        game.apply(new TriangleStationsSc(game));
+
+        long startNanos = System.nanoTime();
+        game.runFor(seconds);
+        double realSeconds = (System.nanoTime() - startNanos) * 1e-9;
+
+        Logger.INFO.printf("Simulated %d seconds (%d ticks) in %1.03f seconds: %1.01f ticks per second",
+                seconds, game.getNrOfTicks(), realSeconds, game.getNrOfTicks() / realSeconds
+        );
+        game.stopGame();
+    }
 }
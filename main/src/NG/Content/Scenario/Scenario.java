@@ -121,8 +121,8 @@ public abstract class Scenario {
         GameState gameState = game.state();
         List<TrackPiece> connection = RailTools.createConnection(game, aNode, bNode, signalSpacing);
 
+        NetworkNode.addConnections(connection);
         for (TrackPiece trackPiece : connection) {
-            NetworkNode.addConnection(trackPiece);
             gameState.addEntity(trackPiece);
         }
     }
@@ -130,7 +130,19 @@ public abstract class AbstractGameLoop extends Thread {
         Logger.DEBUG.print(this + " is stopped");
     }
 
-    private void runPostLoopActions() {
+    /**
+     * executes one iteration of this loop on the calling thread, including the deferred actions, without any pacing.
+     * This may only be used when this loop is not started as a thread.
+     * @param deltaTime the simulated time since the previous iteration
+     * @throws Exception if {@link #update(float)} throws an exception
+     */
+    public void step(float deltaTime) throws Exception {
+        update(deltaTime);
+        runPostLoopActions();
+    }
+
+    /** executes all actions that are {@link #defer(Runnable) deferred} until now */
+    protected void runPostLoopActions() {
         while (!postLoopActions.isEmpty() && !Thread.interrupted()) {
             try {
                 postLoopActions.remove().run();
@@ -18,6 +18,7 @@ import NG.Mods.InitialisationMod;
 import NG.Mods.Mod;
 import NG.Mods.SoftMod;
 import NG.Mods.TypeCollection;
+import NG.Network.ReservationTable;
 import NG.Particles.GameParticles;
 import NG.Particles.ParticleShader;
 import NG.Rendering.GLFWWindow;
@@ -27,8 +28,11 @@ import NG.Rendering.RenderLoop;
 import NG.Rendering.Shaders.BlinnPhongShader;
 import NG.AssetHandling.Asset;
 import NG.Settings.Settings;
+import NG.Tools.DistanceFields;
 import NG.Tools.Directory;
 import NG.Tools.Logger;
+import NG.Tools.NetworkPathFinder;
+import NG.Tools.RouteCache;
 import org.joml.Vector3f;
 
 import java.io.*;
@@ -156,6 +160,16 @@ public class FreightGame implements Game, ModLoader {
         gameState.start();
 
         Logger.printOnline(() -> String.format("%4d resources active", Asset.getNrOfActiveResources()));
+        RouteCache routeCache = NetworkPathFinder.getRouteCache();
+        Logger.printOnline(() -> String.format(
+                "Route cache: %d hits, %d misses", routeCache.getNrOfHits(), routeCache.getNrOfMisses()
+        ));
+        DistanceFields distanceFields = gameState.pathFinding().getDistanceFields();
+        Logger.printOnline(() -> String.format(
+                "Distance fields: %d hits, %d misses", distanceFields.getNrOfHits(), distanceFields.getNrOfMisses()
+        ));
+        ReservationTable reservations = gameState.reservations();
+        Logger.printOnline(() -> String.format("Reservation conflicts: %d", reservations.getNrOfConflicts()));
 
         Logger.INFO.print("Finished initialisation\n");
     }
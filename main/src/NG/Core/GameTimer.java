@@ -8,6 +8,10 @@ import java.io.Serializable;
  * A combination of a gameloop timer and a render timer. The timers are updated on calls to {@link #updateGameTime()}
  * and {@link #updateRenderTime()}
  * <p>
+ * The game time advances in fixed steps of one tick, following a clock that runs at {@link #setTimeScale(double) a
+ * multiple} of the system time. The game loop executes {@link #getNrOfPendingTicks()} ticks to catch up with this clock.
+ * The render time follows the clock, but never passes the game time.
+ * <p>
  * In contrary of what you may think, a float is only accurate up to 2^24 = 16 777 216 integer values. This means that
  * using a float will only have sub-millisecond precision for 4.6 hours. using a double for timestamp gives us 2^53
  * seconds = 9.00719925 * 10^15 values, which gives sub-millisecond precision for 285 616 years.
@@ -29,27 +33,80 @@ public class GameTimer implements Serializable {
     protected final TrackedObject<Long> renderTime;
     protected boolean isPaused = false;
     protected final long renderDelay;
+    /** game time of one tick */
+    protected final long tickDuration;
+    /** multiplication factor of system time to game time */
+    protected double timeScale = 1;
 
-    public GameTimer(float renderDelay) {
-        this(0f, renderDelay);
+    public GameTimer(float renderDelay, float tickDuration) {
+        this(0f, renderDelay, tickDuration);
     }
 
-    public GameTimer(double startTime, float renderDelay) {
+    public GameTimer(double startTime, float renderDelay, float tickDuration) {
         this.currentInternalTime = (long) (RESOLUTION * startTime);
         this.gameTime = new TrackedObject<>(((long) (startTime * RESOLUTION)));
         this.renderDelay = (long) (RESOLUTION * renderDelay);
+        this.tickDuration = Math.max((long) (RESOLUTION * tickDuration), 1);
         this.renderTime = new TrackedObject<>(((long) ((startTime - renderDelay) * RESOLUTION)));
         this.lastSystemNanos = System.nanoTime();
     }
 
+    /** advances the game time by one tick */
     public void updateGameTime() {
+        gameTime.update(gameTime.current() + tickDuration);
+    }
+
+    public synchronized void updateRenderTime() {
         updateTimer();
-        gameTime.update(currentInternalTime);
+        long target = Math.min(currentInternalTime - renderDelay, gameTime.current());
+        // dropping a backlog may move the clock back
+        renderTime.update(Math.max(target, renderTime.current()));
+    }
+
+    /**
+     * @return the number of ticks the game time is behind on the clock, or {@link Integer#MAX_VALUE} if the time scale
+     * is infinite.
+     */
+    public synchronized int getNrOfPendingTicks() {
+        if (timeScale == Double.POSITIVE_INFINITY) return isPaused ? 0 : Integer.MAX_VALUE;
+
+        updateTimer();
+        long pending = (currentInternalTime - gameTime.current()) / tickDuration;
+        return (int) Math.min(Math.max(pending, 0), Integer.MAX_VALUE);
     }
 
-    public void updateRenderTime() {
+    /**
+     * moves the clock back to the game time, such that the ticks that could not be executed in time are skipped
+     * instead of executed later.
+     */
+    public synchronized void dropBacklog() {
         updateTimer();
-        renderTime.update(currentInternalTime - renderDelay);
+        currentInternalTime = Math.min(currentInternalTime, gameTime.current());
+    }
+
+    /**
+     * sets the speed of the game time relative to the system time
+     * @param timeScale a positive multiplication factor, or {@link Double#POSITIVE_INFINITY} to run as many ticks as
+     *                  possible
+     */
+    public synchronized void setTimeScale(double timeScale) {
+        if (!(timeScale > 0)) throw new IllegalArgumentException("Time scale must be positive, but was " + timeScale);
+
+        updateTimer();
+        if (this.timeScale == Double.POSITIVE_INFINITY) {
+            // the clock has not been tracking the game time
+            currentInternalTime = gameTime.current();
+        }
+        this.timeScale = timeScale;
+    }
+
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    /** @return the duration of one tick in seconds of game time */
+    public double getTickDuration() {
+        return tickDuration * RESOLUTION_TO_SECONDS;
     }
 
     public double getGameTime() {
@@ -68,23 +125,31 @@ public class GameTimer implements Serializable {
         return (renderTime.current() - renderTime.previous()) * RESOLUTION_TO_SECONDS;
     }
 
-    /** may be called anytime */
-    protected void updateTimer() {
+    /** may be called anytime, from any thread */
+    protected synchronized void updateTimer() {
         long currentNanos = System.nanoTime();
-        long deltaTime = (long) ((currentNanos - lastSystemNanos) * SYSTEM_TO_RESOLUTION);
+        long deltaTime = (long) ((currentNanos - lastSystemNanos) * SYSTEM_TO_RESOLUTION * timeScale);
         lastSystemNanos = currentNanos;
 
-        if (!isPaused) currentInternalTime += deltaTime;
+        if (isPaused) return;
+
+        if (timeScale == Double.POSITIVE_INFINITY) {
+            // the clock follows the game time
+            currentInternalTime = Math.max(currentInternalTime, gameTime.current());
+
+        } else {
+            currentInternalTime += deltaTime;
+        }
     }
 
     /** stops the in-game time */
-    public void pause() {
+    public synchronized void pause() {
         updateTimer();
         isPaused = true;
     }
 
     /** lets the in-game time proceed, without jumping */
-    public void unPause() {
+    public synchronized void unPause() {
         updateTimer();
         isPaused = false;
     }
@@ -97,17 +162,18 @@ public class GameTimer implements Serializable {
     }
 
     /** sets the ingame time to the given time */
-    public void set(double time) {
+    public synchronized void set(double time) {
         updateTimer();
         currentInternalTime = (long) (time * RESOLUTION);
 
-        updateGameTime();
-        updateRenderTime();
+        gameTime.update(currentInternalTime);
+        renderTime.update(currentInternalTime - renderDelay);
     }
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + " @" + (double) currentInternalTime / RESOLUTION + (isPaused ? "(paused)" : "");
+        return getClass().getSimpleName() + " @" + (double) currentInternalTime / RESOLUTION +
+                (timeScale != 1 ? " (x" + timeScale + ")" : "") + (isPaused ? "(paused)" : "");
     }
 
     public boolean isPaused() {
@@ -117,6 +183,6 @@ public class GameTimer implements Serializable {
     public static GameTimer create(float fps, float tps) {
         float tickDuration = (1f / tps);
         float frameDuration = (1f / fps);
-        return new GameTimer(tickDuration + frameDuration);
+        return new GameTimer(tickDuration + frameDuration, tickDuration);
     }
 }
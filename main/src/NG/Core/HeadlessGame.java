@@ -0,0 +1,352 @@
+package NG.Core;
+
+import NG.Camera.Camera;
+import NG.Camera.StaticCamera;
+import NG.Content.Scenario.Scenario;
+import NG.DataStructures.Generic.Color4f;
+import NG.GUIMenu.Components.SFrame;
+import NG.GUIMenu.FrameManagers.FrameManagerImpl;
+import NG.GUIMenu.FrameManagers.UIFrameManager;
+import NG.GameMap.GameMap;
+import NG.GameMap.HeightMap;
+import NG.GameState.GameLoop;
+import NG.GameState.GameState;
+import NG.InputHandling.KeyControl;
+import NG.InputHandling.MouseTool.MouseToolCallbacks;
+import NG.Mods.InitialisationMod;
+import NG.Mods.Mod;
+import NG.Mods.SoftMod;
+import NG.Mods.TypeCollection;
+import NG.Particles.GameParticles;
+import NG.Rendering.GLFWWindow;
+import NG.Rendering.Lights.GameLights;
+import NG.Rendering.Lights.PointLight;
+import NG.Rendering.MatrixStack.SGL;
+import NG.Settings.Settings;
+import NG.Tools.Directory;
+import NG.Tools.FixedTimer;
+import NG.Tools.Logger;
+import NG.Tools.Vectors;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A game without window, renderer or input handling. The game loop is not started as a thread; instead the simulation
+ * is advanced on the calling thread by {@link #runFor(double)}, as fast as possible, with a fixed time step of
+ * {@code 1 / tps} seconds. Actions that must be executed on the render thread are dropped, as there is no OpenGL
+ * context to execute them in.
+ */
+public class HeadlessGame implements Game, ModLoader {
+    private static final Version GAME_VERSION = new Version(0, 0);
+
+    private final Settings settings;
+    private final FixedTimer time;
+    private final int targetTps;
+    private final GameLoop gameState;
+    private final GameMap gameMap;
+    private final Camera gameCamera;
+    private final GameLights gameLights;
+    private final GameParticles gameParticles;
+    private final UIFrameManager frameManager;
+    private final KeyControl keyControl;
+    private final PlayerStatus progress;
+
+    private TypeCollection typeCollection = new TypeCollection();
+    private final List<Mod> allMods;
+    private List<Mod> activeMods = Collections.emptyList();
+    private long nrOfTicks = 0;
+
+    /**
+     * creates a headless game with the mods of the mod directories, running at {@link Settings#TARGET_TPS}
+     * @throws IOException if the mods could not be read
+     */
+    public HeadlessGame() throws IOException {
+        this(loadMods(), new Settings().TARGET_TPS);
+    }
+
+    /**
+     * creates a headless game with the given mods
+     * @param mods      all mods available to this game. Initialisation mods are initialized immediately.
+     * @param targetTps the number of simulation ticks per simulated second
+     */
+    public HeadlessGame(List<Mod> mods, int targetTps) {
+        this.targetTps = targetTps;
+        this.settings = new Settings();
+        this.time = new FixedTimer(0, targetTps);
+        // searches run on the game loop, such that a simulation does not depend on the speed of worker threads
+        this.gameState = new GameLoop(targetTps, null, Runnable::run);
+        this.gameMap = new HeightMap();
+        this.gameCamera = new StaticCamera(new Vector3f(-20, -20, 20), Vectors.O, Vectors.Z);
+        this.gameLights = new HeadlessLights();
+        this.gameParticles = new GameParticles();
+        this.frameManager = new HeadlessFrameManager();
+        this.keyControl = new KeyControl();
+        this.progress = new PlayerStatus();
+        this.allMods = new ArrayList<>(mods);
+
+        try {
+            gameCamera.init(this);
+            gameState.init(this);
+            gameParticles.init(this);
+            progress.init(this);
+
+        } catch (Exception ex) {
+            // none of the headless aspects require external resources
+            throw new IllegalStateException(ex);
+        }
+
+        JarModReader.filterInitialisationMods(allMods, this);
+    }
+
+    /**
+     * applies the given scenario to this game
+     * @param scenario a scenario using this game as mod loader
+     */
+    public void apply(Scenario scenario) {
+        scenario.apply(this);
+    }
+
+    /**
+     * runs the simulation for the given amount of in-game time, as fast as possible.
+     * @param seconds the number of seconds of in-game time to simulate
+     * @throws Exception if any update of the game loop throws an exception
+     */
+    public void runFor(double seconds) throws Exception {
+        long ticks = (long) (seconds * targetTps);
+        for (long i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * executes one tick of the game loop, including deferred actions
+     * @throws Exception if the update of the game loop throws an exception
+     */
+    public void tick() throws Exception {
+        gameState.step(1f / targetTps);
+        time.updateRenderTime();
+        nrOfTicks++;
+    }
+
+    /** @return the number of ticks executed since creating this game */
+    public long getNrOfTicks() {
+        return nrOfTicks;
+    }
+
+    @Override
+    public void startGame() {
+        time.updateRenderTime();
+        Logger.DEBUG.print("Started headless game with " + activeMods.size() + " mods");
+    }
+
+    @Override
+    public void stopGame() {
+        gameState.cleanup();
+        gameMap.cleanup();
+        progress.trains.clear();
+        progress.stations.clear();
+        cleanMods();
+    }
+
+    @Override
+    public void saveGame(File file) {
+        Logger.WARN.print("Saving is not supported by " + this);
+    }
+
+    @Override
+    public void loadGame(File file) {
+        Logger.WARN.print("Loading is not supported by " + this);
+    }
+
+    @Override
+    public void initMods(List<Mod> mods) {
+        assert activeMods.isEmpty() : "Already mods loaded";
+        activeMods = new ArrayList<>(mods);
+        typeCollection = new TypeCollection();
+
+        for (Mod mod : activeMods) {
+            assert !(mod instanceof InitialisationMod) : "Init mods should not be loaded here";
+
+            try {
+                mod.init(this);
+
+            } catch (Exception ex) {
+                Logger.ERROR.print("Error while loading " + mod.getModName(), ex);
+                mods.remove(mod);
+            }
+        }
+    }
+
+    @Override
+    public void cleanMods() {
+        activeMods.forEach(Mod::cleanup);
+        activeMods.clear();
+        typeCollection = new TypeCollection();
+    }
+
+    @Override
+    public List<Mod> allMods() {
+        return Collections.unmodifiableList(allMods);
+    }
+
+    @Override
+    public Mod getModByName(String name) {
+        for (Mod mod : allMods) {
+            if (mod.getModName().equals(name)) {
+                return mod;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public GameTimer timer() {
+        return time;
+    }
+
+    @Override
+    public Camera camera() {
+        return gameCamera;
+    }
+
+    @Override
+    public GameState state() {
+        return gameState;
+    }
+
+    @Override
+    public PlayerStatus playerStatus() {
+        return progress;
+    }
+
+    @Override
+    public GameMap map() {
+        return gameMap;
+    }
+
+    @Override
+    public GameLights lights() {
+        return gameLights;
+    }
+
+    @Override
+    public GameParticles particles() {
+        return gameParticles;
+    }
+
+    @Override
+    public Settings settings() {
+        return settings;
+    }
+
+    @Override
+    public GLFWWindow window() {
+        return null;
+    }
+
+    @Override
+    public MouseToolCallbacks inputHandling() {
+        return null;
+    }
+
+    @Override
+    public UIFrameManager gui() {
+        return frameManager;
+    }
+
+    @Override
+    public KeyControl keyControl() {
+        return keyControl;
+    }
+
+    @Override
+    public Version getVersionNumber() {
+        return GAME_VERSION;
+    }
+
+    @Override
+    public TypeCollection objectTypes() {
+        return typeCollection;
+    }
+
+    @Override
+    public void executeOnRenderThread(Runnable action) {
+        // there is no render thread
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " @" + time;
+    }
+
+    private static List<Mod> loadMods() throws IOException {
+        List<Mod> mods = JarModReader.loadMods(Directory.hardMods);
+        for (File file : Directory.softMods.getFiles()) {
+            try {
+                mods.add(new SoftMod(file.toPath()));
+
+            } catch (IOException ex) {
+                Logger.WARN.print("Error loading soft mod " + file);
+                Logger.ERROR.print(ex);
+            }
+        }
+        return mods;
+    }
+
+    /** lights without any effect, as nothing is rendered */
+    private static class HeadlessLights implements GameLights {
+        private final Matrix4f lightMatrix = new Matrix4f();
+
+        @Override
+        public void init(Game game) {
+        }
+
+        @Override
+        public void addPointLight(PointLight light) {
+        }
+
+        @Override
+        public void draw(SGL gl) {
+        }
+
+        @Override
+        public void addDirectionalLight(Vector3fc origin, Color4f color, float intensity) {
+        }
+
+        @Override
+        public void update() {
+        }
+
+        @Override
+        public void dumpShadowMap(Directory dir) {
+        }
+
+        @Override
+        public Matrix4fc getLightMatrix() {
+            return lightMatrix;
+        }
+
+        @Override
+        public void cleanup() {
+        }
+    }
+
+    /** a frame manager that never shows its frames, as the layout of frames requires a font renderer */
+    private static class HeadlessFrameManager extends FrameManagerImpl {
+        @Override
+        public void addFrame(SFrame frame) {
+        }
+
+        @Override
+        public void addFrame(SFrame frame, int x, int y) {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package NG.DataStructures.Collision;
+
+import org.joml.AABBf;
+
+import java.util.*;
+
+/**
+ * A uniform grid over the horizontal plane, where each entity is registered in every cell that its hitbox overlaps.
+ * Querying a box only considers entities in the cells that the box overlaps. As hitboxes of colliders do not change over
+ * time, entities only need to be added and removed. All methods are thread-safe.
+ */
+public class BroadphaseGrid {
+    private final float cellSize;
+    private final Map<Long, List<ColliderEntity>> cells = new HashMap<>();
+    /** for each entity, the cell range {xMin, yMin, xMax, yMax} it was registered in */
+    private final Map<ColliderEntity, int[]> ranges = new IdentityHashMap<>();
+
+    /**
+     * @param cellSize the width and depth of one cell, preferably in the order of magnitude of a typical hitbox
+     */
+    public BroadphaseGrid(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * registers the entity in all cells overlapped by its hitbox. Adding an entity that is already present has no
+     * effect.
+     * @param entity the entity to add
+     */
+    public synchronized void add(ColliderEntity entity) {
+        if (ranges.containsKey(entity)) return;
+
+        int[] range = getRange(entity.getHitbox());
+        ranges.put(entity, range);
+
+        for (int x = range[0]; x <= range[2]; x++) {
+            for (int y = range[1]; y <= range[3]; y++) {
+                cells.computeIfAbsent(key(x, y), k -> new ArrayList<>(4)).add(entity);
+            }
+        }
+    }
+
+    /**
+     * @param entity the entity to remove
+     * @return true iff the entity was present
+     */
+    public synchronized boolean remove(ColliderEntity entity) {
+        int[] range = ranges.remove(entity);
+        if (range == null) return false;
+
+        for (int x = range[0]; x <= range[2]; x++) {
+            for (int y = range[1]; y <= range[3]; y++) {
+                long key = key(x, y);
+                List<ColliderEntity> cell = cells.get(key);
+                cell.remove(entity);
+                if (cell.isEmpty()) cells.remove(key);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param box an axis-aligned box in world space
+     * @return all entities of which the hitbox intersects the given box
+     */
+    public synchronized List<ColliderEntity> query(AABBf box) {
+        int[] range = getRange(box);
+        Set<ColliderEntity> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ColliderEntity> result = new ArrayList<>();
+
+        for (int x = range[0]; x <= range[2]; x++) {
+            for (int y = range[1]; y <= range[3]; y++) {
+                List<ColliderEntity> cell = cells.get(key(x, y));
+                if (cell == null) continue;
+
+                for (ColliderEntity entity : cell) {
+                    if (seen.add(entity) && box.testAABB(entity.getHitbox())) {
+                        result.add(entity);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public synchronized int size() {
+        return ranges.size();
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+        ranges.clear();
+    }
+
+    private int[] getRange(AABBf box) {
+        return new int[]{
+                (int) Math.floor(box.minX / cellSize),
+                (int) Math.floor(box.minY / cellSize),
+                (int) Math.floor(box.maxX / cellSize),
+                (int) Math.floor(box.maxY / cellSize)
+        };
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
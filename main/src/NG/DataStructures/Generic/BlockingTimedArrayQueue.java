@@ -1,184 +1,104 @@
 package NG.DataStructures.Generic;
 
-import java.io.Serializable;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * A {@link TimedQueue} that uses ArrayDeque for implementation. Includes synchronized adding and deletion. Items added
- * to the queue with a timestamp less than the previous addition will cause the previous value to be removed
+ * A {@link TimedQueue} that uses a ring buffer for implementation. Includes synchronized adding and deletion. Items
+ * added to the queue with a timestamp less than the previous addition will cause the previous value to be removed
  * @author Geert van Ieperen created on 13-12-2017.
  */
-public class BlockingTimedArrayQueue<T> implements TimedQueue<T>, Serializable {
-    protected final Deque<Double> timeStamps;
-    protected final Deque<T> elements;
+public class BlockingTimedArrayQueue<T> extends TimedArrayBuffer implements TimedQueue<T> {
+    private Object[] elements;
 
     /**
      * @param capacity the initial expected maximum number of entries
      */
     public BlockingTimedArrayQueue(int capacity) {
-        timeStamps = new ArrayDeque<>(capacity);
-        elements = new ArrayDeque<>(capacity);
+        super(capacity);
+        elements = new Object[capacity()];
     }
 
     @Override
     public synchronized void add(T element, double timeStamp) {
-        // act as refinement
-        while (!timeStamps.isEmpty() && timeStamps.peekLast() > timeStamp) {
-            timeStamps.removeLast();
-            elements.removeLast();
-        }
-
-        timeStamps.add(timeStamp);
-        elements.add(element);
-
+        int slot = append(timeStamp);
+        elements[slot] = element;
     }
 
     @Override
-    public synchronized T getNext(double timeStamp) {
-        if (timeStamps.isEmpty()) return null;
-
-        Iterator<Double> times = timeStamps.iterator();
-        Iterator<T> things = elements.iterator();
-
-        T element = things.next();
-        double nextElementStart = times.next();
-
-        while (nextElementStart <= timeStamp) {
-            if (!times.hasNext()) return things.next();
-
-            element = things.next();
-            nextElementStart = times.next();
-        }
-
-        return element;
+    protected void resize(int newCapacity) {
+        elements = copyOf(elements, newCapacity);
     }
 
     @Override
-    public synchronized T getPrevious(double timeStamp) {
-        if (timeStamps.isEmpty()) return null;
-
-        Iterator<Double> times = timeStamps.iterator();
-        Iterator<T> things = elements.iterator();
-
-        // there is no action until the first timestamp
-        T element = null;
-        double nextElementStart = times.next();
-
-        while (nextElementStart < timeStamp) {
-            if (!times.hasNext()) return things.next();
-
-            element = things.next();
-            nextElementStart = times.next();
-        }
+    protected void clear(int slot) {
+        elements[slot] = null;
+    }
 
-        return element;
+    /** @return the element with the given index, where 0 is the first element */
+    @SuppressWarnings("unchecked")
+    protected T elementAt(int index) {
+        return (T) elements[slot(index)];
     }
 
     @Override
-    public synchronized double timeOfNext(double timeStamp) {
-        if (timeStamps.isEmpty()) throw new IllegalStateException("empty");
-
-        Iterator<Double> times = timeStamps.iterator();
-        double nextActionStart = times.next();
-
-        while (nextActionStart < timeStamp && times.hasNext()) {
-            nextActionStart = times.next();
-        }
-
-        if (nextActionStart > timeStamp) {
-            return nextActionStart;
-        }
-
-        return Double.POSITIVE_INFINITY;
-
+    public synchronized T getNext(double timeStamp) {
+        int index = countUntil(timeStamp);
+        return index < size ? elementAt(index) : null;
     }
 
     @Override
-    public synchronized double timeOfPrevious(double timeStamp) {
-        if (timeStamps.isEmpty()) throw new IllegalStateException("empty");
-
-        Iterator<Double> times = timeStamps.iterator();
-        double previousActionStart = times.next();
-
-        if (!times.hasNext()) {
-            if (previousActionStart < timeStamp) {
-                return previousActionStart;
-            }
-
-            return Double.NEGATIVE_INFINITY;
-        }
-
-        double next = times.next();
-        while (times.hasNext() && next < timeStamp) {
-            previousActionStart = next;
-            next = times.next();
-        }
-        return previousActionStart;
+    public synchronized T getPrevious(double timeStamp) {
+        int index = countBefore(timeStamp) - 1;
+        return index >= 0 ? elementAt(index) : null;
     }
 
-    @Override
-    public synchronized void removeUntil(double timeStamp) {
-        while ((timeStamps.size() > 1) && (timeStamp > nextTimeStamp())) {
-            progress();
+    /**
+     * looks up {@link #getPrevious(double)} for each of the given timestamps. The timestamps should be sorted, such that
+     * the queue is walked only once.
+     * @param timeStamps the timestamps to consider, sorted in increasing or decreasing order
+     * @param count      the number of timestamps to consider
+     * @param dest       the array to store the results in
+     */
+    public synchronized void getPrevious(double[] timeStamps, int count, T[] dest) {
+        int index = countBefore(timeStamps[0]);
+        for (int i = 0; i < count; i++) {
+            index = countBefore(timeStamps[i], index);
+            dest[i] = index > 0 ? elementAt(index - 1) : null;
         }
     }
 
     @Override
-    public List<T> getRange(double start, double end) {
-        if (timeStamps.isEmpty()) return Collections.emptyList();
-
-        Iterator<Double> times = timeStamps.iterator();
-        Iterator<T> things = elements.iterator();
-
-        double nextElementStart = times.next();
-        T nextElement = null;
-        List<T> elements = new ArrayList<>();
-
-        while (nextElementStart < start && times.hasNext()) {
-            nextElement = things.next();
-            nextElementStart = times.next();
-        }
-
-        if (nextElement != null) {
-            // first element that ends in the range (or the last element)
-            elements.add(nextElement);
-        } // otherwise the first element starts later than 'start'
+    public synchronized List<T> getRange(double start, double end) {
+        if (size == 0) return Collections.emptyList();
 
+        // the element that contains start, or the first element
+        int first = Math.max(countUntil(start) - 1, 0);
+        int last = countUntil(end) - 1;
 
-        // add all elements that start in range (including at end)
-        while (nextElementStart <= end && times.hasNext()) {
-            nextElementStart = times.next();
-            elements.add(things.next());
+        List<T> range = new ArrayList<>(Math.max(last - first + 1, 0));
+        for (int i = first; i <= last; i++) {
+            range.add(elementAt(i));
         }
 
-        return elements;
-    }
-
-    /**
-     * unsafe progression of the queue
-     */
-    protected void progress() {
-        timeStamps.remove();
-        elements.remove();
+        return range;
     }
 
     /** returns the next queued timestamp in seconds or null if there is none */
-    public Double nextTimeStamp() {
-        return timeStamps.peek();
+    public synchronized Double nextTimeStamp() {
+        return size == 0 ? null : timeAt(0);
     }
 
     @Override
-    public String toString() {
-        Iterator<Double> times = timeStamps.iterator();
-        Iterator<T> elts = elements.iterator();
-
+    public synchronized String toString() {
         StringBuilder s = new StringBuilder();
         s.append("TimedArray:");
-        while (times.hasNext()) {
+        for (int i = 0; i < size; i++) {
             s.append("\n");
-            s.append(String.format("%1.04f", times.next()));
+            s.append(String.format("%1.04f", timeAt(i)));
             s.append(" > ");
-            s.append(elts.next());
+            s.append(elementAt(i));
         }
 
         return s.toString();
@@ -0,0 +1,97 @@
+package NG.DataStructures.Generic;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of int elements ordered by float keys, backed by primitive arrays. Elements may be added multiple
+ * times with different keys; it is up to the user to ignore outdated entries when they are removed. This class is not
+ * thread-safe.
+ */
+public class IntMinHeap {
+    private int[] elements;
+    private float[] keys;
+    private int size = 0;
+
+    public IntMinHeap(int initialCapacity) {
+        initialCapacity = Math.max(initialCapacity, 1);
+        this.elements = new int[initialCapacity];
+        this.keys = new float[initialCapacity];
+    }
+
+    /**
+     * adds the given element with the given key
+     * @param element the element to add
+     * @param key     the key to order on
+     */
+    public void add(int element, float key) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+
+        // sift up
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (keys[parent] <= key) break;
+
+            elements[index] = elements[parent];
+            keys[index] = keys[parent];
+            index = parent;
+        }
+
+        elements[index] = element;
+        keys[index] = key;
+    }
+
+    /** @return the key of the element that is returned by the next call to {@link #remove()} */
+    public float peekKey() {
+        if (size == 0) throw new NoSuchElementException();
+        return keys[0];
+    }
+
+    /**
+     * removes the element with the smallest key. Of elements with equal keys, any may be returned.
+     * @return the removed element
+     */
+    public int remove() {
+        if (size == 0) throw new NoSuchElementException();
+        int result = elements[0];
+
+        size--;
+        int element = elements[size];
+        float key = keys[size];
+
+        // sift down
+        int index = 0;
+        int half = size / 2;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && keys[right] < keys[child]) child = right;
+            if (key <= keys[child]) break;
+
+            elements[index] = elements[child];
+            keys[index] = keys[child];
+            index = child;
+        }
+
+        elements[index] = element;
+        keys[index] = key;
+
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
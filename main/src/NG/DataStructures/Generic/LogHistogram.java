@@ -0,0 +1,76 @@
+package NG.DataStructures.Generic;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative long values with buckets of exponentially growing size: bucket 0 contains only the value
+ * 0, and bucket {@code i > 0} contains the values in the range [2^(i-1), 2^i). Adding a value takes constant time and
+ * does not allocate, at the cost of percentiles being accurate up to a factor of 2. This class is not thread-safe.
+ */
+public class LogHistogram {
+    private static final int NR_OF_BUCKETS = Long.SIZE;
+
+    private final long[] buckets = new long[NR_OF_BUCKETS];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * adds the given value to this histogram. Negative values are counted as 0
+     * @param value the value to add
+     */
+    public void add(long value) {
+        if (value < 0) value = 0;
+
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(value)]++;
+        count++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * returns an upper bound of the given percentile, which is at most twice the actual value.
+     * @param fraction the fraction of values that are at most the returned value, in the range [0, 1]
+     * @return the smallest bucket bound such that at least the given fraction of values are less or equal
+     */
+    public long getPercentile(double fraction) {
+        if (count == 0) return 0;
+
+        long target = (long) Math.ceil(fraction * count);
+        long cumulative = 0;
+
+        for (int i = 0; i < NR_OF_BUCKETS; i++) {
+            cumulative += buckets[i];
+
+            if (cumulative >= target) {
+                long upperBound = (i == 0) ? 0 : (1L << i) - 1;
+                return Math.min(upperBound, max);
+            }
+        }
+
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void clear() {
+        Arrays.fill(buckets, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,102 @@
+package NG.DataStructures.Generic;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.*;
+
+/**
+ * A uniform grid over the horizontal plane, where each element is registered in the cell of its position. Querying a
+ * radius only considers elements in the cells that the circle overlaps. Positions are captured when the element is
+ * added, elements that move must be removed and added again. All methods are thread-safe.
+ * @param <T> the type of the elements
+ */
+public class PositionGrid<T> {
+    private final float cellSize;
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+
+    /**
+     * @param cellSize the width and depth of one cell, preferably in the order of magnitude of a typical query radius
+     */
+    public PositionGrid(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * registers the element at the given position. Adding an element that is already present has no effect.
+     * @param element  the element to add
+     * @param position the position of the element
+     */
+    public synchronized void add(T element, Vector3fc position) {
+        if (entries.containsKey(element)) return;
+
+        Entry<T> entry = new Entry<>(element, new Vector3f(position), key(cell(position.x()), cell(position.y())));
+        entries.put(element, entry);
+        cells.computeIfAbsent(entry.key, k -> new ArrayList<>(4)).add(entry);
+    }
+
+    /**
+     * @param element the element to remove
+     * @return true iff the element was present
+     */
+    public synchronized boolean remove(T element) {
+        Entry<T> entry = entries.remove(element);
+        if (entry == null) return false;
+
+        List<Entry<T>> cell = cells.get(entry.key);
+        cell.remove(entry);
+        if (cell.isEmpty()) cells.remove(entry.key);
+
+        return true;
+    }
+
+    /**
+     * @param center the center of the query
+     * @param radius the maximum distance to the center, exclusive
+     * @return all elements of which the position is closer than radius to the center
+     */
+    public synchronized List<T> query(Vector3fc center, float radius) {
+        float radiusSq = radius * radius;
+        int xMin = cell(center.x() - radius);
+        int xMax = cell(center.x() + radius);
+        int yMin = cell(center.y() - radius);
+        int yMax = cell(center.y() + radius);
+
+        List<T> result = new ArrayList<>();
+        for (int x = xMin; x <= xMax; x++) {
+            for (int y = yMin; y <= yMax; y++) {
+                List<Entry<T>> cell = cells.get(key(x, y));
+                if (cell == null) continue;
+
+                for (Entry<T> entry : cell) {
+                    if (entry.position.distanceSquared(center) < radiusSq) {
+                        result.add(entry.element);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+        entries.clear();
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private record Entry<T>(T element, Vector3fc position, long key) {
+    }
+}
@@ -0,0 +1,197 @@
+package NG.DataStructures.Generic;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+
+/**
+ * The timestamps of a timed queue, stored in a ring buffer of primitive doubles in non-decreasing order. Subclasses
+ * store their values in arrays parallel to the timestamps, indexed by {@link #slot(int)}. Lookups use a binary search,
+ * and removing from the front moves the head of the ring, such that neither allocates. Adding a timestamp less than
+ * the last timestamp removes the later entries first.
+ */
+public abstract class TimedArrayBuffer implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int MIN_CAPACITY = 8;
+
+    private double[] times;
+    private int head = 0;
+    protected int size = 0;
+
+    /**
+     * @param capacity the initial expected maximum number of entries
+     */
+    public TimedArrayBuffer(int capacity) {
+        times = new double[Math.max(capacity, MIN_CAPACITY)];
+    }
+
+    /**
+     * removes all entries with a timestamp later than the given timestamp, and appends an entry with the given
+     * timestamp. This may replace the value arrays, hence these should only be accessed after this call.
+     * @return the slot of the new entry in the value arrays
+     */
+    protected int append(double timeStamp) {
+        while (size > 0 && times[slot(size - 1)] > timeStamp) {
+            size--;
+            clear(slot(size));
+        }
+
+        if (size == times.length) {
+            int newCapacity = times.length * 2;
+            resize(newCapacity);
+            times = copyOf(times, newCapacity);
+            head = 0;
+        }
+
+        int slot = slot(size);
+        times[slot] = timeStamp;
+        size++;
+        return slot;
+    }
+
+    /**
+     * called when the ring grows, before the timestamps are moved. Implementations should replace each of their value
+     * arrays with {@link #copyOf(Object, int)}.
+     */
+    protected abstract void resize(int newCapacity);
+
+    /** called for each entry that is removed, such that implementations can release references in their slot */
+    protected void clear(int slot) {
+    }
+
+    /**
+     * @param array    an array parallel to the timestamps
+     * @param capacity the length of the new array
+     * @return a copy of the entries of the given array with the first entry at index 0
+     */
+    protected <A> A copyOf(A array, int capacity) {
+        @SuppressWarnings("unchecked")
+        A copy = (A) Array.newInstance(array.getClass().getComponentType(), capacity);
+        int length = Array.getLength(array);
+        int firstPart = Math.min(size, length - head);
+        System.arraycopy(array, head, copy, 0, firstPart);
+        System.arraycopy(array, 0, copy, firstPart, size - firstPart);
+        return copy;
+    }
+
+    /** @return the slot in the value arrays of the entry with the given index, where 0 is the first entry */
+    protected int slot(int index) {
+        int slot = head + index;
+        return slot < times.length ? slot : slot - times.length;
+    }
+
+    /** @return the timestamp of the entry with the given index */
+    protected double timeAt(int index) {
+        return times[slot(index)];
+    }
+
+    /** @return the number of entries with a timestamp strictly less than the given timestamp */
+    protected int countBefore(double timeStamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[slot(mid)] < timeStamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * returns the number of entries with a timestamp strictly less than the given timestamp, by walking from the result
+     * of a previous query. For a sequence of queries in increasing or decreasing order, this walks over each entry at
+     * most once.
+     * @param hint the result of the previous query
+     */
+    protected int countBefore(double timeStamp, int hint) {
+        int index = Math.max(0, Math.min(hint, size));
+        while (index > 0 && timeAt(index - 1) >= timeStamp) {
+            index--;
+        }
+        while (index < size && timeAt(index) < timeStamp) {
+            index++;
+        }
+        return index;
+    }
+
+    /** @return the number of entries with a timestamp less than or equal to the given timestamp */
+    protected int countUntil(double timeStamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[slot(mid)] <= timeStamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the second of the two entries to interpolate between at the given timestamp. Outside the
+     * range of timestamps, this returns the index of the first or last pair of entries.
+     */
+    protected int interpolationIndex(double timeStamp) {
+        assert size > 1 : this;
+        int index = countBefore(timeStamp);
+        return Math.max(1, Math.min(index, size - 1));
+    }
+
+    /**
+     * @param timeStamp the timestamp to consider
+     * @return the lowest timestamp equal to or later than the given timestamp, or {@link Double#POSITIVE_INFINITY} if
+     * no such element exists.
+     */
+    public synchronized double timeOfNext(double timeStamp) {
+        if (size == 0) throw new IllegalStateException("empty");
+
+        int index = countBefore(timeStamp);
+        return index < size ? timeAt(index) : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param timeStamp the timestamp to consider
+     * @return the highest timestamp strictly less than the given timestamp, other than the last timestamp. Removing
+     * until the result thus keeps at least two entries. If there is no such timestamp, this returns the first timestamp,
+     * or {@link Double#NEGATIVE_INFINITY} if the only timestamp is not less than the given timestamp
+     */
+    public synchronized double timeOfPrevious(double timeStamp) {
+        if (size == 0) throw new IllegalStateException("empty");
+
+        if (size == 1) {
+            double first = timeAt(0);
+            return first < timeStamp ? first : Double.NEGATIVE_INFINITY;
+        }
+
+        int index = Math.min(countBefore(timeStamp), size - 1) - 1;
+        return timeAt(Math.max(index, 0));
+    }
+
+    /**
+     * removes all entries with a timestamp less than the given timestamp, but keeps at least one entry
+     * @param timeStamp the time until where the state of the queue should be updated.
+     */
+    public synchronized void removeUntil(double timeStamp) {
+        int nrToRemove = Math.min(countBefore(timeStamp), size - 1);
+
+        for (int i = 0; i < nrToRemove; i++) {
+            clear(head);
+            head = slot(1);
+            size--;
+        }
+    }
+
+    /** @return the length of the value arrays */
+    protected int capacity() {
+        return times.length;
+    }
+
+    /** @return the number of entries */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -1,27 +1,83 @@
 package NG.DataStructures.Interpolation;
 
+import NG.DataStructures.Generic.TimedArrayBuffer;
 import NG.Tools.Toolbox;
 
 /**
+ * a float interpolator. Values are stored as primitives, such that queries do not allocate.
  * @author Geert van Ieperen created on 15-12-2017.
  */
-public class FloatInterpolator extends LinearInterpolator<Float> {
+public class FloatInterpolator extends TimedArrayBuffer {
+    private float[] values;
 
     public FloatInterpolator(int capacity, float initialValue, float initialTime) {
-        super(capacity, initialValue, initialTime);
+        this(capacity, initialValue, initialTime - 1, initialValue, initialTime);
     }
 
     public FloatInterpolator(int capacity, float firstElement, float firstTime, float secondElement, float secondTime) {
-        super(capacity, firstElement, firstTime, secondElement, secondTime);
+        super(capacity);
+        values = new float[capacity()];
+        add(firstElement, firstTime);
+        add(secondElement, secondTime);
     }
 
-    @Override
-    protected Float interpolate(Float firstElt, Float secondElt, float fraction) {
-        return Toolbox.interpolate(firstElt, secondElt, fraction);
+    /**
+     * adds a value at the given time, removing all values with a later time
+     */
+    public synchronized void add(float value, double timeStamp) {
+        int slot = append(timeStamp);
+        values[slot] = value;
     }
 
     @Override
-    protected Float derivative(Float firstElt, Float secondElt, float deltaTime) {
-        return (secondElt - firstElt) / deltaTime;
+    protected void resize(int newCapacity) {
+        values = copyOf(values, newCapacity);
+    }
+
+    /**
+     * @return the value at the given time, interpolated between the values around it
+     */
+    public synchronized float getInterpolated(double timeStamp) {
+        int second = interpolationIndex(timeStamp);
+        double firstTime = timeAt(second - 1);
+        float firstElt = values[slot(second - 1)];
+
+        float fraction = (float) ((timeStamp - firstTime) / (timeAt(second) - firstTime));
+        if (Float.isNaN(fraction)) return firstElt;
+
+        return Toolbox.interpolate(firstElt, values[slot(second)], fraction);
+    }
+
+    /**
+     * computes {@link #getInterpolated(double)} for each of the given timestamps. The timestamps should be sorted, such
+     * that the values are walked only once.
+     * @param timeStamps the timestamps to consider, sorted in increasing or decreasing order
+     * @param count      the number of timestamps to consider
+     * @param dest       the array to store the results in
+     */
+    public synchronized void getInterpolated(double[] timeStamps, int count, float[] dest) {
+        assert size > 1 : this;
+        int index = countBefore(timeStamps[0]);
+
+        for (int i = 0; i < count; i++) {
+            double timeStamp = timeStamps[i];
+            index = countBefore(timeStamp, index);
+            int second = Math.max(1, Math.min(index, size - 1));
+
+            double firstTime = timeAt(second - 1);
+            float firstElt = values[slot(second - 1)];
+            float fraction = (float) ((timeStamp - firstTime) / (timeAt(second) - firstTime));
+
+            dest[i] = Float.isNaN(fraction) ? firstElt : Toolbox.interpolate(firstElt, values[slot(second)], fraction);
+        }
+    }
+
+    /**
+     * @return the derivative of the value returned by getInterpolated(time)
+     */
+    public synchronized float getDerivative(double timeStamp) {
+        int second = interpolationIndex(timeStamp);
+        float deltaTime = (float) (timeAt(second) - timeAt(second - 1));
+        return (values[slot(second)] - values[slot(second - 1)]) / deltaTime;
     }
 }
@@ -2,8 +2,6 @@ package NG.DataStructures.Interpolation;
 
 import NG.DataStructures.Generic.BlockingTimedArrayQueue;
 
-import java.util.Iterator;
-
 /**
  * @author Geert van Ieperen created on 15-12-2017.
  */
@@ -37,28 +35,14 @@ public abstract class LinearInterpolator<T> extends BlockingTimedArrayQueue<T> {
      * @return the interpolated object defined by implementation
      */
     public synchronized T getInterpolated(double timeStamp) {
-        assert timeStamps.size() > 1 : timeStamps;
-
-        Iterator<Double> times = timeStamps.iterator();
-        Iterator<T> things = elements.iterator();
-
-        T firstElt;
-        double firstTime;
-        double secondTime = times.next();
-
-        // consider the next time period, and check whether timeStamp falls in it
-        do {
-            firstElt = things.next();
-            firstTime = secondTime;
-            secondTime = times.next();
-        } while (secondTime < timeStamp && times.hasNext());
-
+        int second = interpolationIndex(timeStamp);
+        double firstTime = timeAt(second - 1);
+        T firstElt = elementAt(second - 1);
 
-        float fraction = (float) ((timeStamp - firstTime) / (secondTime - firstTime));
+        float fraction = (float) ((timeStamp - firstTime) / (timeAt(second) - firstTime));
         if (Float.isNaN(fraction)) return firstElt;
 
-        T secondElt = things.next();
-        return interpolate(firstElt, secondElt, fraction);
+        return interpolate(firstElt, elementAt(second), fraction);
     }
 
     /**
@@ -71,26 +55,10 @@ public abstract class LinearInterpolator<T> extends BlockingTimedArrayQueue<T> {
      * @param timeStamp
      * @return the derivative of the value returned by getInterpolated(time)
      */
-    public T getDerivative(double timeStamp) {
-        assert timeStamps.size() > 1 : timeStamps;
-
-        Iterator<Double> times = timeStamps.iterator();
-        Iterator<T> things = elements.iterator();
-
-        T firstElt = things.next();
-        double firstTime = times.next();
-        double secondTime = times.next();
-
-        // consider the next time period, and check whether timeStamp falls in it
-        // we check from the 2nd time onwards to allow extrapolation
-        while (secondTime < timeStamp) {
-            firstElt = things.next();
-            firstTime = secondTime;
-            secondTime = times.next();
-        }
-
-        T secondElt = things.next();
-        return derivative(firstElt, secondElt, (float) (secondTime - firstTime));
+    public synchronized T getDerivative(double timeStamp) {
+        int second = interpolationIndex(timeStamp);
+        float deltaTime = (float) (timeAt(second) - timeAt(second - 1));
+        return derivative(elementAt(second - 1), elementAt(second), deltaTime);
     }
 
     protected abstract T derivative(T firstElt, T secondElt, float deltaTime);
@@ -1,26 +1,60 @@
 package NG.DataStructures.Interpolation;
 
+import NG.DataStructures.Generic.TimedArrayBuffer;
+
 /**
- * a long interpolator that uses rounding on the returned values and with additional care taken for precision.
+ * a long interpolator that uses rounding on the returned values and with additional care taken for precision. Values
+ * are stored as primitives, such that queries do not allocate.
  * @author Geert van Ieperen created on 15-12-2017.
  */
-public class LongInterpolator extends LinearInterpolator<Long> {
+public class LongInterpolator extends TimedArrayBuffer {
+    private long[] values;
 
     public LongInterpolator(int capacity, long initialValue, double initialTime) {
-        super(capacity, initialValue, initialTime);
+        this(capacity, initialValue, initialTime - 1, initialValue, initialTime);
     }
 
     public LongInterpolator(int capacity, long firstElement, double firstTime, long secondElement, double secondTime) {
-        super(capacity, firstElement, firstTime, secondElement, secondTime);
+        super(capacity);
+        values = new long[capacity()];
+        add(firstElement, firstTime);
+        add(secondElement, secondTime);
+    }
+
+    /**
+     * adds a value at the given time, removing all values with a later time
+     */
+    public synchronized void add(long value, double timeStamp) {
+        int slot = append(timeStamp);
+        values[slot] = value;
     }
 
     @Override
-    protected Long interpolate(Long firstElt, Long secondElt, float fraction) {
+    protected void resize(int newCapacity) {
+        values = copyOf(values, newCapacity);
+    }
+
+    /**
+     * @return the value at the given time, interpolated between the values around it
+     */
+    public synchronized long getInterpolated(double timeStamp) {
+        int second = interpolationIndex(timeStamp);
+        double firstTime = timeAt(second - 1);
+        long firstElt = values[slot(second - 1)];
+
+        float fraction = (float) ((timeStamp - firstTime) / (timeAt(second) - firstTime));
+        if (Float.isNaN(fraction)) return firstElt;
+
+        long secondElt = values[slot(second)];
         return Math.round((secondElt - firstElt) * (double) fraction) + firstElt;
     }
 
-    @Override
-    protected Long derivative(Long firstElt, Long secondElt, float deltaTime) {
-        return Math.round((secondElt - firstElt) / (double) deltaTime);
+    /**
+     * @return the derivative of the value returned by getInterpolated(time)
+     */
+    public synchronized long getDerivative(double timeStamp) {
+        int second = interpolationIndex(timeStamp);
+        float deltaTime = (float) (timeAt(second) - timeAt(second - 1));
+        return Math.round((values[slot(second)] - values[slot(second - 1)]) / (double) deltaTime);
     }
 }
@@ -16,6 +16,11 @@ import java.io.Serializable;
  * @author Geert van Ieperen. Created on 14-9-2018.
  */
 public interface Entity extends GameObject, Serializable {
+    /**
+     * How often {@link #update()} is called. Entities that are not updated every tick should not rely on {@link
+     * GameTimer#getGameTimeDifference()}, as it only covers the last tick.
+     * @see NG.GameState.UpdateScheduler
+     */
     enum UpdateFrequency {
         EVERY_TICK, ONCE_PER_SECOND, ONCE_UPON_A_TIME, NEVER
     }
@@ -79,4 +84,14 @@ public interface Entity extends GameObject, Serializable {
     default UpdateFrequency getUpdateFrequency() {
         return UpdateFrequency.EVERY_TICK;
     }
+
+    /**
+     * Entities that update in parallel have their {@link #update()} executed concurrently with other such entities. The
+     * update of these entities may only modify the entity itself, and must execute any other modification using {@link
+     * NG.GameState.GameState#commit(Runnable)}.
+     * @return true iff the update of this entity may run in parallel with the update of other entities
+     */
+    default boolean canUpdateInParallel() {
+        return false;
+    }
 }
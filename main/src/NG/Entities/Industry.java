@@ -77,6 +77,12 @@ public class Industry extends Storage {
         }
     }
 
+    @Override
+    public boolean canUpdateInParallel() {
+        // only modifies its own contents
+        return true;
+    }
+
     @Override
     public void draw(SGL gl) {
         MaterialShader.ifPresent(gl, _gl -> _gl.setMaterial(Material.ROUGH, coloring.getColor()));
@@ -109,19 +115,8 @@ public class Industry extends Storage {
         return accepted;
     }
 
-    public static List<Industry> getNearbyIndustries(Game game, Vector3fc position, float range) {
-        float rangeSq = range * range;
-        List<Industry> nearby = new ArrayList<>();
-
-        for (Entity entity : game.state()) {
-            if (entity instanceof Industry industry) {
-                if (industry.getPosition().distanceSquared(position) < rangeSq) {
-                    nearby.add(industry);
-                }
-            }
-        }
-
-        return nearby;
+    public static Collection<Industry> getNearbyIndustries(Game game, Vector3fc position, float range) {
+        return game.state().entitiesWithin(Industry.class, position, range);
     }
 
     @Override
@@ -281,15 +281,33 @@ public class StationImpl extends Storage implements Station {
 
     public void recalculateNearbyIndustries() {
         industries.clear();
-        industries.addAll(Industry.getNearbyIndustries(game, getPosition(), Settings.STATION_RANGE));
         industryAcceptedCargo.clear();
 
-        for (Industry industry : industries) {
-            Collection<CargoType> acceptedCargo = industry.getAcceptedCargo();
-            industryAcceptedCargo.addAll(acceptedCargo);
+        for (Industry industry : Industry.getNearbyIndustries(game, getPosition(), Settings.STATION_RANGE)) {
+            addNearbyIndustry(industry);
         }
     }
 
+    /**
+     * registers an industry that is placed within the range of this station
+     * @param industry the new industry
+     */
+    public void addNearbyIndustry(Industry industry) {
+        if (industries.contains(industry)) return;
+
+        industries.add(industry);
+        industryAcceptedCargo.addAll(industry.getAcceptedCargo());
+    }
+
+    /**
+     * @param game     the game instance
+     * @param position a position in the world
+     * @return all stations of which the range covers the given position
+     */
+    public static Collection<StationImpl> getStationsInRange(Game game, Vector3fc position) {
+        return game.state().entitiesWithin(StationImpl.class, position, Settings.STATION_RANGE);
+    }
+
     @Override
     public Collection<CargoType> getAcceptedCargo() {
         return industryAcceptedCargo;
@@ -7,6 +7,7 @@ import NG.DataStructures.Generic.Color4f;
 import NG.DataStructures.Generic.Pair;
 import NG.DataStructures.Valuta;
 import NG.Freight.Cargo;
+import NG.GameState.PathFindingService;
 import NG.GUIMenu.Components.SActiveTextArea;
 import NG.GUIMenu.Components.SButton;
 import NG.GUIMenu.Components.SContainer;
@@ -23,7 +24,6 @@ import NG.Network.RailNode;
 import NG.Network.Schedule;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Tools.Logger;
-import NG.Tools.NetworkPathFinder;
 import NG.Tools.Toolbox;
 import NG.Tracks.RailMovement;
 import NG.Tracks.TrackPiece;
@@ -44,6 +44,8 @@ public class Train extends AbstractGameObject implements Entity {
 
     private static final boolean CHOOSE_RANDOM_SPAWN_TRACK = true;
     private static final double TRAIN_PLACEMENT_STUN_TIME = 1;
+    /** seconds between attempts to spawn a stored train when no track or path is available */
+    private static final double SPAWN_ATTEMPT_INTERVAL = 1;
 
     protected final List<TrainElement> entities = new CopyOnWriteArrayList<>();
 
@@ -54,6 +56,7 @@ public class Train extends AbstractGameObject implements Entity {
     private NetworkPosition storagePosition;
     private double timeOfStore = Double.POSITIVE_INFINITY;
     private double timeOfUnstore = Double.POSITIVE_INFINITY;
+    private double nextSpawnAttempt = Double.NEGATIVE_INFINITY;
 
     private NetworkPosition temporaryTarget = null;
     private Schedule.Node currentScheduleNode = null;
@@ -61,6 +64,7 @@ public class Train extends AbstractGameObject implements Entity {
     private final List<Schedule.UpdateListener> scheduleUpdateListeners = new ArrayList<>();
 
     private double loadTimer = Double.NEGATIVE_INFINITY;
+    private boolean isLoadTimerRunning = false;
 
     private int maintenancePerSecond = 0;
     private double nextMaintenanceTick;
@@ -68,6 +72,13 @@ public class Train extends AbstractGameObject implements Entity {
     private double spawnTime;
     private double despawnTime = Double.POSITIVE_INFINITY;
 
+    // buffers of draw, only used by the render thread
+    private transient TrainElement[] drawnElements;
+    private transient float[] elementDisplacements;
+    private transient float[] elementPoses;
+    private transient Vector3f elementPosition;
+    private transient Quaternionf elementRotation;
+
     public Train(Game game, int id, double spawnTime, TrackPiece startPiece) {
         super(game);
         this.id = id;
@@ -92,6 +103,18 @@ public class Train extends AbstractGameObject implements Entity {
 
     @Override
     public void update() {
+        // running towards the next event only changes this train, everything else is committed in order
+        if (storagePosition == null) positionEngine.updateIndependently(game.timer().getGameTime());
+        game.state().commit(this::updateShared);
+    }
+
+    @Override
+    public boolean canUpdateInParallel() {
+        return true;
+    }
+
+    /** the part of the update that reserves tracks, requests paths, transfers cargo or pays */
+    private void updateShared() {
         double gameTime = game.timer().getGameTime();
 
         if (storagePosition != null) {
@@ -110,6 +133,12 @@ public class Train extends AbstractGameObject implements Entity {
             positionEngine.onScheduleUpdate(currentScheduleNode.element.target);
         }
 
+        if (isLoadTimerRunning && !isLoading()) {
+            // whether we wait for a station depends on whether we are loading
+            isLoadTimerRunning = false;
+            positionEngine.reevaluateSpeedTargets();
+        }
+
         positionEngine.update();
 
         if (gameTime > nextMaintenanceTick) {
@@ -154,66 +183,60 @@ public class Train extends AbstractGameObject implements Entity {
 
     private void autoSpawn(NetworkPosition currentTarget) {
         assert (storagePosition instanceof Station);
+        double gameTime = game.timer().getGameTime();
+        if (gameTime < nextSpawnAttempt) return;
 
         // autospawn on the best place available
         List<TrackPiece> tracks = storagePosition.getTracks();
-        NetworkPathFinder.Path bestPath = NetworkPathFinder.Path.infinite();
 
         if (currentTarget == null) {
             TrackPiece track = Toolbox.getRandomConditional(tracks, t -> !t.isOccupied());
-            if (track == null) return;
+            if (track == null) {
+                nextSpawnAttempt = gameTime + SPAWN_ATTEMPT_INTERVAL;
+                return;
+            }
 
             placeTrain(track, true);
             return;
         }
 
-        // TODO path finding cooldown?
         if (CHOOSE_RANDOM_SPAWN_TRACK) {
             TrackPiece track = Toolbox.getRandomConditional(tracks, t -> !t.isOccupied());
-            if (track == null) return;
-
-
-            NetworkPathFinder.Path pathViaStart = new NetworkPathFinder(
-                    track, track.getStartNode().getNetworkNode(), currentTarget
-            ).call();
-
-            NetworkPathFinder.Path pathViaEnd = new NetworkPathFinder(
-                    track, track.getEndNode().getNetworkNode(), currentTarget
-            ).call();
-
-            bestPath = pathViaStart.getPathLength() < pathViaEnd.getPathLength() ? pathViaStart : pathViaEnd;
+            if (track != null) tracks = List.of(track);
+        }
 
-        } else {
-            for (TrackPiece track : tracks) {
-                if (track.isOccupied()) continue;
+        // the distance field of the target holds the distance from every platform end at once
+        PathFindingService pathFinding = game.state().pathFinding();
+        TrackPiece bestTrack = null;
+        boolean bestDirection = true;
+        float bestLength = Float.POSITIVE_INFINITY;
+        boolean isPending = false;
 
-                NetworkPathFinder.Path pathViaStart = new NetworkPathFinder(
-                        track, track.getStartNode().getNetworkNode(), currentTarget
-                ).call();
+        for (TrackPiece track : tracks) {
+            if (track.isOccupied()) continue;
 
-                if (pathViaStart.getPathLength() < bestPath.getPathLength()) {
-                    bestPath = pathViaStart;
-                }
+            for (boolean inPositiveDirection : new boolean[]{true, false}) {
+                RailNode node = inPositiveDirection ? track.getEndNode() : track.getStartNode();
+                float length = pathFinding.getDistance(track, node.getNetworkNode(), currentTarget);
 
-                NetworkPathFinder.Path pathViaEnd = new NetworkPathFinder(
-                        track, track.getEndNode().getNetworkNode(), currentTarget
-                ).call();
+                if (Float.isNaN(length)) {
+                    isPending = true;
 
-                if (pathViaEnd.getPathLength() < bestPath.getPathLength()) {
-                    bestPath = pathViaEnd;
+                } else if (length < bestLength) {
+                    bestTrack = track;
+                    bestDirection = inPositiveDirection;
+                    bestLength = length;
                 }
             }
         }
 
-        // no available track
-        if (bestPath.isEmpty()) return;
-        assert bestPath.size() > 1 : "train is already at destination";
+        // try again when the distances are computed, or when there is no available track or path to the target
+        if (isPending || bestTrack == null) {
+            nextSpawnAttempt = gameTime + SPAWN_ATTEMPT_INTERVAL;
+            return;
+        }
 
-        NetworkNode first = bestPath.removeFirst();
-        NetworkNode second = bestPath.removeFirst();
-        TrackPiece spawnTrack = first.getEntryOf(second).trackPiece;
-        NetworkNode trackEndNode = spawnTrack.getEndNode().getNetworkNode();
-        placeTrain(spawnTrack, trackEndNode.equals(second));
+        placeTrain(bestTrack, bestDirection);
     }
 
     /** station -> train */
@@ -316,19 +339,49 @@ public class Train extends AbstractGameObject implements Entity {
 
     @Override
     public void draw(SGL gl) {
-        if (entities.isEmpty()) return;
         double now = game.timer().getRenderTime();
         if (now > timeOfStore && now < timeOfUnstore) return;
-        // position 0 is on the very front of the first wagon, hence the middle of first wagon is displaced
-        float displacement = entities.get(0).getProperties().length / 2;
 
-        for (TrainElement entity : entities) {
-            // -displacement because we place front to back
-            Vector3f position = positionEngine.getPosition(now, -displacement);
-            Quaternionf rotation = positionEngine.getRotation(now, -displacement);
+        if (drawnElements == null) {
+            drawnElements = new TrainElement[entities.size()];
+            elementDisplacements = new float[drawnElements.length];
+            elementPoses = new float[drawnElements.length * RailMovement.POSE_SIZE];
+            elementPosition = new Vector3f();
+            elementRotation = new Quaternionf();
+        }
+
+        // iterates over one snapshot of the elements, which is kept in drawnElements
+        int nrOfElements = 0;
+        float displacement = 0;
+        for (TrainElement element : entities) {
+            if (nrOfElements == drawnElements.length) {
+                int newLength = nrOfElements * 2 + 1;
+                drawnElements = Arrays.copyOf(drawnElements, newLength);
+                elementDisplacements = Arrays.copyOf(elementDisplacements, newLength);
+                elementPoses = new float[newLength * RailMovement.POSE_SIZE];
+            }
 
-            entity.draw(gl, position, rotation, this, coloring.getColor());
-            displacement += entity.getProperties().length;
+            float length = element.getProperties().length;
+            // position 0 is on the very front of the first wagon, hence the middle of first wagon is displaced
+            if (nrOfElements == 0) displacement = length / 2;
+
+            drawnElements[nrOfElements] = element;
+            elementDisplacements[nrOfElements] = displacement;
+            displacement += length;
+            nrOfElements++;
+        }
+
+        if (nrOfElements == 0) return;
+
+        positionEngine.getPoses(now, elementDisplacements, nrOfElements, elementPoses);
+
+        for (int i = 0; i < nrOfElements; i++) {
+            int offset = i * RailMovement.POSE_SIZE;
+            elementPosition.set(elementPoses[offset], elementPoses[offset + 1], elementPoses[offset + 2]);
+            elementRotation.set(elementPoses[offset + 3], elementPoses[offset + 4], elementPoses[offset + 5], elementPoses[offset + 6]);
+
+            drawnElements[i].draw(gl, elementPosition, elementRotation, this, coloring.getColor());
+            drawnElements[i] = null;
         }
     }
 
@@ -441,12 +494,16 @@ public class Train extends AbstractGameObject implements Entity {
         double gameTime = game.timer().getGameTime();
         if (loadTimer < gameTime) loadTimer = gameTime;
         loadTimer = loadTimer + loadTime;
+
+        isLoadTimerRunning = true;
+        positionEngine.reevaluateSpeedTargets();
     }
 
     @Override
     public void despawn(double gameTime) {
         despawnTime = gameTime;
         positionEngine.removePath();
+        game.state().reservations().releaseAll(this);
     }
 
     @Override
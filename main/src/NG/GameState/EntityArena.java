@@ -0,0 +1,316 @@
+package NG.GameState;
+
+import NG.Entities.Entity;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A storage of entities with stable handles. Entities are stored densely, such that adding and removing is O(1) and
+ * iteration does not skip empty slots. Each handle combines a slot index with the generation of that slot, such that a
+ * handle of a removed entity never refers to an entity added later.
+ * <p>
+ * For each of the types given to the constructor, a separate dense list of all entities of that type is kept up to date,
+ * such that {@link #snapshotOf(Class)} does not have to filter all entities.
+ * <p>
+ * Modifications may only be executed by one thread. Other threads may only read the snapshots, which are immutable
+ * copies of the state at the last call to {@link #publish()}.
+ */
+public class EntityArena implements Iterable<Entity> {
+    public static final long INVALID_HANDLE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // dense storage
+    private Entity[] dense = new Entity[INITIAL_CAPACITY];
+    private int[] denseToSlot = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // slot storage
+    private int[] slotToDense = new int[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int nrOfFreeSlots = 0;
+    private int nrOfSlots = 0;
+
+    private final Map<Entity, Integer> slotOfEntity = new IdentityHashMap<>();
+    /** not modified after construction */
+    private final Map<Class<?>, Partition> partitions = new HashMap<>();
+
+    private boolean isDirty = false;
+    private volatile List<Entity> snapshot = Collections.emptyList();
+
+    /**
+     * @param partitionTypes the types of which the entities are kept in a separate partition
+     */
+    public EntityArena(Class<?>... partitionTypes) {
+        for (Class<?> type : partitionTypes) {
+            partitions.put(type, new Partition(type));
+        }
+    }
+
+    /**
+     * adds the entity to this arena. Adding an entity that is already present has no effect.
+     * @param entity the entity to add
+     * @return the handle of the entity
+     */
+    public long add(Entity entity) {
+        Integer existing = slotOfEntity.get(entity);
+        if (existing != null) return toHandle(existing);
+
+        int slot = newSlot();
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size * 2);
+            denseToSlot = Arrays.copyOf(denseToSlot, size * 2);
+        }
+
+        dense[size] = entity;
+        denseToSlot[size] = slot;
+        slotToDense[slot] = size;
+        size++;
+
+        slotOfEntity.put(entity, slot);
+        for (Partition partition : partitions.values()) {
+            partition.add(entity);
+        }
+
+        isDirty = true;
+        return toHandle(slot);
+    }
+
+    public void addAll(Collection<? extends Entity> entities) {
+        for (Entity entity : entities) {
+            add(entity);
+        }
+    }
+
+    /**
+     * @param handle a handle returned by {@link #add(Entity)}
+     * @return the entity of the handle, or null if that entity has been removed
+     */
+    public Entity get(long handle) {
+        int slot = (int) handle;
+        if (!isValid(handle)) return null;
+        return dense[slotToDense[slot]];
+    }
+
+    /**
+     * @param entity an entity
+     * @return the handle of the given entity, or {@link #INVALID_HANDLE} if it is not in this arena
+     */
+    public long getHandle(Entity entity) {
+        Integer slot = slotOfEntity.get(entity);
+        return slot == null ? INVALID_HANDLE : toHandle(slot);
+    }
+
+    /**
+     * @param handle a handle returned by {@link #add(Entity)}
+     * @return true iff the entity of the handle is still present
+     */
+    public boolean isValid(long handle) {
+        int slot = (int) handle;
+        int generation = (int) (handle >>> 32);
+        return handle != INVALID_HANDLE && slot >= 0 && slot < nrOfSlots && generations[slot] == generation;
+    }
+
+    /**
+     * removes the entity of the given handle
+     * @param handle a handle returned by {@link #add(Entity)}
+     * @return true iff an entity was removed
+     */
+    public boolean remove(long handle) {
+        if (!isValid(handle)) return false;
+        removeSlot((int) handle);
+        return true;
+    }
+
+    /**
+     * removes the given entity
+     * @return true iff the entity was present
+     */
+    public boolean remove(Entity entity) {
+        Integer slot = slotOfEntity.get(entity);
+        if (slot == null) return false;
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * removes all entities that satisfy the given predicate
+     * @param filter a predicate returning true for the entities to remove
+     * @return true iff any entity was removed
+     */
+    public boolean removeIf(Predicate<? super Entity> filter) {
+        boolean anyRemoved = false;
+
+        // iterate backwards, as removing swaps the last element into the removed position
+        for (int i = size - 1; i >= 0; i--) {
+            if (filter.test(dense[i])) {
+                removeSlot(denseToSlot[i]);
+                anyRemoved = true;
+            }
+        }
+
+        return anyRemoved;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            int slot = denseToSlot[i];
+            generations[slot]++;
+            freeSlot(slot);
+            dense[i] = null;
+        }
+
+        size = 0;
+        slotOfEntity.clear();
+        partitions.values().forEach(Partition::clear);
+        isDirty = true;
+    }
+
+    /**
+     * iterates over the current entities. The arena may not be modified during iteration. Other threads should use
+     * {@link #snapshot()} instead.
+     */
+    @Override
+    public Iterator<Entity> iterator() {
+        return Arrays.asList(dense).subList(0, size).iterator();
+    }
+
+    /**
+     * makes the modifications since the last call to this method visible to {@link #snapshot()} and {@link
+     * #snapshotOf(Class)}. Costs O(n) if anything changed, O(1) otherwise.
+     */
+    public void publish() {
+        if (isDirty) {
+            snapshot = List.of(Arrays.copyOf(dense, size));
+            isDirty = false;
+        }
+
+        for (Partition partition : partitions.values()) {
+            partition.publish();
+        }
+    }
+
+    /**
+     * @return an immutable list of the entities at the last call to {@link #publish()}. This method is thread-safe.
+     */
+    public List<Entity> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns all entities of the given type at the last call to {@link #publish()}. If the type has a partition, this
+     * is O(1), otherwise the snapshot of all entities is filtered. This method is thread-safe.
+     * @param type the class of the requested entities
+     * @return an immutable list of all entities that are an instance of {@code type}
+     */
+    public <T> List<T> snapshotOf(Class<T> type) {
+        Partition partition = partitions.get(type);
+        if (partition == null) {
+            return snapshot.stream().filter(type::isInstance).map(type::cast).toList();
+        }
+
+        // the partition of a type only holds instances of that type
+        @SuppressWarnings("unchecked")
+        List<T> snapshot = (List<T>) partition.snapshot;
+        return snapshot;
+    }
+
+    private int newSlot() {
+        if (nrOfFreeSlots > 0) {
+            return freeSlots[--nrOfFreeSlots];
+        }
+
+        if (nrOfSlots == slotToDense.length) {
+            int newLength = nrOfSlots * 2;
+            slotToDense = Arrays.copyOf(slotToDense, newLength);
+            generations = Arrays.copyOf(generations, newLength);
+        }
+
+        return nrOfSlots++;
+    }
+
+    private void freeSlot(int slot) {
+        if (nrOfFreeSlots == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, nrOfFreeSlots * 2);
+        }
+        freeSlots[nrOfFreeSlots++] = slot;
+    }
+
+    private void removeSlot(int slot) {
+        int index = slotToDense[slot];
+        Entity entity = dense[index];
+
+        // move the last element into the gap
+        int last = size - 1;
+        dense[index] = dense[last];
+        denseToSlot[index] = denseToSlot[last];
+        slotToDense[denseToSlot[index]] = index;
+        dense[last] = null;
+        size--;
+
+        generations[slot]++;
+        freeSlot(slot);
+        slotOfEntity.remove(entity);
+
+        for (Partition partition : partitions.values()) {
+            partition.remove(entity);
+        }
+
+        isDirty = true;
+    }
+
+    private long toHandle(int slot) {
+        return ((long) generations[slot] << 32) | slot;
+    }
+
+    /** a dense list of all entities of one type, with O(1) removal */
+    private static class Partition {
+        private final Class<?> type;
+        private final List<Entity> elements = new ArrayList<>();
+        private final Map<Entity, Integer> indices = new IdentityHashMap<>();
+        private boolean isDirty = false;
+        private volatile List<?> snapshot = Collections.emptyList();
+
+        Partition(Class<?> type) {
+            this.type = type;
+        }
+
+        void add(Entity entity) {
+            if (!type.isInstance(entity)) return;
+            indices.put(entity, elements.size());
+            elements.add(entity);
+            isDirty = true;
+        }
+
+        void remove(Entity entity) {
+            Integer index = indices.remove(entity);
+            if (index == null) return;
+
+            int last = elements.size() - 1;
+            Entity moved = elements.remove(last);
+            if (index != last) {
+                elements.set(index, moved);
+                indices.put(moved, index);
+            }
+            isDirty = true;
+        }
+
+        void clear() {
+            elements.clear();
+            indices.clear();
+            isDirty = true;
+        }
+
+        void publish() {
+            if (isDirty) {
+                snapshot = List.copyOf(elements);
+                isDirty = false;
+            }
+        }
+    }
+}
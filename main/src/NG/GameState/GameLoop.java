@@ -2,28 +2,50 @@ package NG.GameState;
 
 import NG.Core.AbstractGameLoop;
 import NG.Core.Game;
+import NG.Core.GameTimer;
+import NG.DataStructures.Collision.BroadphaseGrid;
 import NG.DataStructures.Collision.ColliderEntity;
 import NG.DataStructures.Collision.GilbertJohnsonKeerthiCollision;
+import NG.DataStructures.Generic.AveragingQueue;
 import NG.DataStructures.Generic.Color4f;
+import NG.DataStructures.Generic.PositionGrid;
 import NG.Entities.Entity;
+import NG.Entities.Industry;
+import NG.Entities.Station;
+import NG.Entities.Storage;
+import NG.Entities.Train;
 import NG.InputHandling.ClickShader;
 import NG.InputHandling.MouseTool.MouseTool;
+import NG.Network.NetworkGraph;
+import NG.Network.ReservationTable;
+import NG.Network.SignalBlocks;
+import NG.Rendering.CullingGrid;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Rendering.Shaders.MaterialShader;
 import NG.Rendering.Shaders.ShaderProgram;
+import NG.Tools.Directory;
+import NG.Tools.Logger;
+import NG.Tools.NetworkPathFinder;
+import NG.Tools.TickProfiler;
+import NG.Tools.TickProfiler.Phase;
+import NG.Tracks.TrackPiece;
 import org.joml.AABBf;
 import org.joml.FrustumIntersection;
 import org.joml.Matrix4fc;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 /**
@@ -31,22 +53,65 @@ import java.util.stream.Stream;
  * @author Geert van Ieperen. Created on 14-9-2018.
  */
 public class GameLoop extends AbstractGameLoop implements GameState {
-    private final List<Entity> entities;
+    /** size of the cells of the collision index, in the order of magnitude of a track piece */
+    private static final float COLLISION_CELL_SIZE = 16f;
+    /** size of the cells of the storage index, in the order of magnitude of the range of a station */
+    private static final float STORAGE_CELL_SIZE = 16f;
+    /** size of the regions of the culling grid, such that a region contains a fair number of track pieces */
+    private static final float CULLING_REGION_SIZE = 64f;
+    /** number of path finding threads, leaving processors for the game loop, the render loop and parallel updates */
+    private static final int NR_OF_PATH_FINDING_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+
+    private final EntityArena entities;
     private final List<Entity> newEntities;
+    private final UpdateScheduler scheduler;
+    private final BroadphaseGrid collisionIndex;
+    private final PositionGrid<Storage> storageIndex;
+    private final CullingGrid cullingGrid;
+    private final List<Entity> drawList = new ArrayList<>();
+    private final FrustumIntersection frustum = new FrustumIntersection();
+    private final AveragingQueue culledEntities = new AveragingQueue(4);
+    private final List<Entity> despawned = new ArrayList<>();
+    private final TickProfiler profiler;
+    private final PathFindingService pathFinding;
+    private final ReservationTable reservations;
 
     private final ClickShader clickShader;
     private Game game;
+    /** the thread executing the current tick, or null outside of ticks */
+    private volatile Thread tickThread = null;
 
     public GameLoop(int targetTps, ClickShader clickShader) {
+        this(targetTps, clickShader, null);
+    }
+
+    /**
+     * @param targetTps          the number of ticks per second
+     * @param clickShader        the shader used for clicking entities, or null if entities are not clickable
+     * @param pathFindingWorkers the executor that computes paths for the {@link #pathFinding()} service, or null to
+     *                           compute them on threads owned by this loop
+     */
+    public GameLoop(int targetTps, ClickShader clickShader, Executor pathFindingWorkers) {
         super("Gameloop", targetTps);
         this.clickShader = clickShader;
-        this.entities = new CopyOnWriteArrayList<>();
+        this.entities = new EntityArena(Train.class, TrackPiece.class, Station.class, Industry.class);
         this.newEntities = new ArrayList<>();
+        this.profiler = new TickProfiler(targetTps);
+        this.scheduler = new UpdateScheduler(entities, targetTps, profiler);
+        this.collisionIndex = new BroadphaseGrid(COLLISION_CELL_SIZE);
+        this.storageIndex = new PositionGrid<>(STORAGE_CELL_SIZE);
+        this.cullingGrid = new CullingGrid(CULLING_REGION_SIZE);
+        this.pathFinding = (pathFindingWorkers == null)
+                ? new PathFindingService(NR_OF_PATH_FINDING_THREADS, this::defer)
+                : new PathFindingService(pathFindingWorkers, this::defer);
+        this.reservations = new ReservationTable(() -> game.timer().getGameTime());
     }
 
     @Override
     public void init(Game game) throws Exception {
         this.game = game;
+        Logger.printOnline(() -> "Culled entities : " + culledEntities.average() + "/" + cullingGrid.size());
+        Logger.printOnline(profiler::getSummary);
     }
 
     /**
@@ -62,24 +127,66 @@ public class GameLoop extends AbstractGameLoop implements GameState {
     }
 
     /**
-     * updates the server state of all objects
+     * executes as many ticks as the game time lags behind on its clock. When the ticks take longer than one iteration
+     * of this loop, the remaining ticks are dropped, such that the game slows down instead of building an ever-growing
+     * backlog.
      */
     public void update(float deltaTime) {
+        GameTimer timer = game.timer();
+        long deadline = System.nanoTime() + (long) (1e9 / getTPS());
+        int nrOfTicks = timer.getNrOfPendingTicks();
+
+        for (int i = 0; i < nrOfTicks; i++) {
+            tick();
+
+            if (System.nanoTime() > deadline) {
+                timer.dropBacklog();
+                break;
+            }
+        }
+    }
+
+    /**
+     * updates the server state of all objects by one tick
+     */
+    public void tick() {
+        tickThread = Thread.currentThread();
+        long tickStart = profiler.start();
         runCleaning();
+        long time = profiler.lap(Phase.CLEANING, tickStart);
 
         game.timer().updateGameTime();
-        entities.forEach(Entity::update);
+        time = profiler.lap(Phase.TIMER, time);
+
+        scheduler.update();
+        time = profiler.lap(Phase.UPDATES, time);
+
         game.playerStatus().update();
+        time = profiler.lap(Phase.PLAYER_STATUS, time);
 
         updateEntityList();
+        profiler.lap(Phase.ENTITY_LIST, time);
+        profiler.endTick(tickStart);
+        tickThread = null;
+    }
+
+    @Override
+    protected void runPostLoopActions() {
+        long start = profiler.start();
+        super.runPostLoopActions();
+        profiler.lap(Phase.DEFERRED, start);
     }
 
     private synchronized void updateEntityList() {
         synchronized (newEntities) {
             if (!newEntities.isEmpty()) {
                 entities.addAll(newEntities);
+                scheduler.addAll(newEntities);
+                addToSpatialIndices(newEntities);
                 newEntities.clear();
             }
+
+            entities.publish();
         }
     }
 
@@ -92,18 +199,17 @@ public class GameLoop extends AbstractGameLoop implements GameState {
             matShader = (MaterialShader) shader;
         }
 
+        // also culls orthographic projections, such as the isometric view and the light space of the shadow pass
         Matrix4fc viewProjection = gl.getViewProjectionMatrix();
-        FrustumIntersection fic = new FrustumIntersection(viewProjection, false);
-
-        for (Entity entity : entities) {
-            matShader.setMaterial(Color4f.MAGENTA, Color4f.WHITE, 1);
 
-//            if (entity instanceof ColliderEntity) { // cull if possible
-//                AABBf hitbox = ((ColliderEntity) entity).getHitbox();
-//                boolean isVisible = fic.testAab(hitbox.minX, hitbox.minY, hitbox.minZ, hitbox.maxX, hitbox.maxY, hitbox.maxZ);
-//                if (!isVisible) continue;
-//            }
+        // only the render thread uses the frustum and the draw list
+        frustum.set(viewProjection, false);
+        drawList.clear();
+        cullingGrid.collectVisible(frustum, drawList);
+        culledEntities.add(cullingGrid.getNrOfCulled());
 
+        for (Entity entity : drawList) {
+            matShader.setMaterial(Color4f.MAGENTA, Color4f.WHITE, 1);
             entity.draw(gl);
         }
     }
@@ -111,11 +217,45 @@ public class GameLoop extends AbstractGameLoop implements GameState {
     /** remove all entities from the entity list that have their doRemove flag true */
     private void runCleaning() {
         double now = game.timer().getRenderTime();
-        entities.removeIf(entity -> entity.isDespawnedAt(now));
+
+        // the scheduler drops the handles of removed entities by itself
+        boolean anyRemoved = entities.removeIf(entity -> {
+            if (!entity.isDespawnedAt(now)) return false;
+            despawned.add(entity);
+            return true;
+        });
+
+        if (anyRemoved) {
+            for (Entity entity : despawned) {
+                if (entity instanceof ColliderEntity) {
+                    collisionIndex.remove((ColliderEntity) entity);
+                }
+                if (entity instanceof Storage) {
+                    storageIndex.remove((Storage) entity);
+                }
+                cullingGrid.remove(entity);
+            }
+            despawned.clear();
+        }
+    }
+
+    private void addToSpatialIndices(Collection<Entity> newEntities) {
+        for (Entity entity : newEntities) {
+            cullingGrid.add(entity);
+            if (entity instanceof ColliderEntity) {
+                collisionIndex.add((ColliderEntity) entity);
+            }
+            if (entity instanceof Storage) {
+                Storage storage = (Storage) entity;
+                storageIndex.add(storage, storage.getPosition());
+            }
+        }
     }
 
     @Override
     public boolean checkMouseClick(MouseTool tool, int xSc, int ySc, Vector3f origin, Vector3f direction) {
+        if (clickShader == null) return false;
+
         Entity entity = clickShader.getEntity(game, xSc, ySc);
         if (entity == null) return false;
 
@@ -125,7 +265,7 @@ public class GameLoop extends AbstractGameLoop implements GameState {
 
     @Override
     public synchronized Collection<Entity> entities() {
-        ArrayList<Entity> entities = new ArrayList<>(this.entities);
+        ArrayList<Entity> entities = new ArrayList<>(this.entities.snapshot());
 
         synchronized (newEntities) {
             entities.addAll(newEntities);
@@ -139,27 +279,73 @@ public class GameLoop extends AbstractGameLoop implements GameState {
         AABBf hitbox = entity.getHitbox();
         List<Entity> result = new ArrayList<>();
 
-        for (Entity ety : entities) {
-            if (ety instanceof ColliderEntity) {
-                ColliderEntity colliderEntity = (ColliderEntity) ety;
+        // only returns entities that may collide
+        for (ColliderEntity colliderEntity : collisionIndex.query(hitbox)) {
+            boolean doesCollide = GilbertJohnsonKeerthiCollision.checkCollision(entity, colliderEntity);
 
-                boolean mayCollide = hitbox.testAABB(colliderEntity.getHitbox());
-                if (mayCollide) {
-                    boolean doesCollide = GilbertJohnsonKeerthiCollision.checkCollision(entity, colliderEntity);
-
-                    if (doesCollide) {
-                        result.add(colliderEntity);
-                    }
-                }
+            if (doesCollide) {
+                result.add(colliderEntity);
             }
         }
 
         return result;
     }
 
+    @Override
+    public void commit(Runnable action) {
+        if (scheduler.isParallelUpdate() || Thread.currentThread() == tickThread) {
+            scheduler.commit(action);
+
+        } else {
+            // not part of a tick, such as an action of the user
+            defer(action);
+        }
+    }
+
     @Override
     public Stream<Entity> stream() {
-        return entities.stream();
+        return entities.snapshot().stream();
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> entitiesOf(Class<T> type) {
+        return entities.snapshotOf(type);
+    }
+
+    @Override
+    public <T extends Storage> Collection<T> entitiesWithin(Class<T> type, Vector3fc position, float radius) {
+        List<T> result = new ArrayList<>();
+
+        for (Storage storage : storageIndex.query(position, radius)) {
+            if (type.isInstance(storage)) {
+                result.add(type.cast(storage));
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public PathFindingService pathFinding() {
+        return pathFinding;
+    }
+
+    @Override
+    public ReservationTable reservations() {
+        return reservations;
+    }
+
+    @Override
+    public void dumpTickProfile(Directory dir) {
+        File file = dir.getFileMakeParents(String.format("tick_profile_%d.csv", System.currentTimeMillis()));
+
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            profiler.writeCSV(writer);
+            Logger.INFO.print("Written tick profile to " + file);
+
+        } catch (IOException ex) {
+            Logger.ERROR.print(ex);
+        }
     }
 
     @Override
@@ -169,11 +355,19 @@ public class GameLoop extends AbstractGameLoop implements GameState {
         }
 
         entities.clear();
+        entities.publish();
+        scheduler.clear();
+        collisionIndex.clear();
+        storageIndex.clear();
+        cullingGrid.clear();
+        reservations.clear();
+        pathFinding.cleanup();
+        clearNetworkCaches();
     }
 
     @Override
     public Iterator<Entity> iterator() {
-        return entities.iterator();
+        return entities.snapshot().iterator();
     }
 
     /**
@@ -202,6 +396,12 @@ public class GameLoop extends AbstractGameLoop implements GameState {
         synchronized (newEntities) {
             newEntities.clear();
             entities.clear();
+            scheduler.clear();
+            collisionIndex.clear();
+            storageIndex.clear();
+            cullingGrid.clear();
+            reservations.clear();
+            clearNetworkCaches();
 
             int nrEntities = in.readInt();
             ArrayList<Entity> list = new ArrayList<>(nrEntities);
@@ -209,8 +409,17 @@ public class GameLoop extends AbstractGameLoop implements GameState {
                 list.add((Entity) in.readObject());
             }
 
-            // we do it like this, as `entities` is a `CopyOnWriteArray`
             entities.addAll(list);
+            entities.publish();
+            scheduler.addAll(list);
+            addToSpatialIndices(list);
         }
     }
+
+    /** drops the static caches of the rail network, which hold on to the tracks of this game */
+    private static void clearNetworkCaches() {
+        SignalBlocks.clear();
+        NetworkGraph.clear();
+        NetworkPathFinder.getRouteCache().clear();
+    }
 }
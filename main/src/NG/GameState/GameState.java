@@ -4,9 +4,14 @@ import NG.Core.FreightGame;
 import NG.Core.GameAspect;
 import NG.DataStructures.Collision.ColliderEntity;
 import NG.Entities.Entity;
+import NG.Entities.Storage;
 import NG.InputHandling.MouseTool.MouseTool;
+import NG.Network.ReservationTable;
 import NG.Rendering.MatrixStack.SGL;
+import NG.Tools.Directory;
+import NG.Tools.Logger;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
 
 import java.util.Collection;
 import java.util.stream.Stream;
@@ -48,6 +53,59 @@ public interface GameState extends GameAspect, Iterable<Entity> {
 
     Collection<Entity> getCollisions(ColliderEntity entity);
 
+    /**
+     * Like {@link #iterator()}, this collection may not contain entities that are added very recently.
+     * @param type the class of the requested entities
+     * @return an unmodifiable collection of all entities that are an instance of the given type
+     */
+    default <T extends Entity> Collection<T> entitiesOf(Class<T> type) {
+        return stream().filter(type::isInstance).map(type::cast).toList();
+    }
+
+    /**
+     * Like {@link #entitiesOf(Class)}, this collection may not contain entities that are added very recently.
+     * @param type     the class of the requested entities
+     * @param position the center of the query
+     * @param radius   the maximum distance to the given position, exclusive
+     * @return all entities that are an instance of the given type, and are closer than radius to the given position
+     */
+    default <T extends Storage> Collection<T> entitiesWithin(Class<T> type, Vector3fc position, float radius) {
+        float radiusSq = radius * radius;
+        return entitiesOf(type).stream()
+                .filter(e -> e.getPosition().distanceSquared(position) < radiusSq)
+                .toList();
+    }
+
+    /**
+     * Executes a modification of state that is shared between entities. When called from the {@link Entity#update()}
+     * of an entity that {@link Entity#canUpdateInParallel() updates in parallel}, the action is buffered and executed
+     * after all parallel updates of this tick, in the order of the entities. When called from outside the game loop,
+     * such as by the user interface, the action is executed after the current tick. Otherwise, the action is executed
+     * immediately.
+     * @param action the modification to execute
+     */
+    default void commit(Runnable action) {
+        action.run();
+    }
+
+    /**
+     * @return the service that computes paths for entities of this game state without blocking the game loop
+     */
+    PathFindingService pathFinding();
+
+    /**
+     * @return the table of track reservations of the entities of this game state
+     */
+    ReservationTable reservations();
+
+    /**
+     * writes the time spent per tick, per phase and per entity class to a new file in the given directory
+     * @param dir the directory to write to
+     */
+    default void dumpTickProfile(Directory dir) {
+        Logger.WARN.print("No tick profile is recorded");
+    }
+
     default Stream<Entity> stream() {
         return StreamSupport.stream(spliterator(), false);
     }
@@ -0,0 +1,115 @@
+package NG.GameState;
+
+import NG.Network.NetworkNode;
+import NG.Network.NetworkPosition;
+import NG.Tools.DistanceFields;
+import NG.Tools.NetworkPathFinder;
+import NG.Tracks.TrackPiece;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Computes the paths of {@link NetworkPathFinder} requests and the {@link DistanceFields} of targets on a bounded pool
+ * of worker threads, such that the game loop never blocks on a search. Finished paths are stored in the route cache of
+ * {@link NetworkPathFinder}, and the callback of each request is handed back to the game loop, where the requester can
+ * pick up the path by requesting it again. All methods are thread-safe.
+ */
+public class PathFindingService {
+    private final Executor workers;
+    private final Consumer<Runnable> deferral;
+    private final DistanceFields distanceFields;
+    private final int nrOfThreads;
+    /** the threads of this service, created on first use, or null if there are none */
+    private ExecutorService threads = null;
+
+    /**
+     * creates a service that runs the searches on its own pool of threads, which is stopped by {@link #cleanup()}
+     * @param nrOfThreads the maximum number of concurrent searches
+     * @param deferral    executes callbacks on the game loop, after the current tick
+     */
+    public PathFindingService(int nrOfThreads, Consumer<Runnable> deferral) {
+        this.nrOfThreads = nrOfThreads;
+        this.workers = task -> getThreads().execute(task);
+        this.deferral = deferral;
+        this.distanceFields = new DistanceFields(workers);
+    }
+
+    /**
+     * @param workers  the executor that runs the searches
+     * @param deferral executes callbacks on the game loop, after the current tick
+     */
+    public PathFindingService(Executor workers, Consumer<Runnable> deferral) {
+        this.nrOfThreads = 0;
+        this.workers = workers;
+        this.deferral = deferral;
+        this.distanceFields = new DistanceFields(workers);
+    }
+
+    /**
+     * returns the path of the given path finder if it is known, and otherwise starts computing it.
+     * @param pathFinder the path finder to compute the path of, created on the game loop
+     * @param onResult   the action to run on the game loop after the path is computed. It is not run if the path was
+     *                   already known, but it may be run if the workers computed the path before this method returned.
+     * @return the path as {@link NetworkPathFinder#call()} would return, or {@link NetworkPathFinder#PENDING} if the
+     * path is being computed
+     */
+    public NetworkPathFinder.Path request(NetworkPathFinder pathFinder, Runnable onResult) {
+        return pathFinder.request(workers, () -> deferral.accept(onResult));
+    }
+
+    /**
+     * looks up the distance to the given target in the {@link DistanceFields} of this service, which are computed on
+     * the workers.
+     * @see DistanceFields#getDistance(NetworkNode, boolean, NetworkPosition)
+     * @return the length of the shortest path, infinity if no path exists, or NaN if the distance is being computed
+     */
+    public float getDistance(NetworkNode node, boolean inSameDirection, NetworkPosition target) {
+        return distanceFields.getDistance(node, inSameDirection, target);
+    }
+
+    /**
+     * looks up the distance to the given target in the {@link DistanceFields} of this service, which are computed on
+     * the workers.
+     * @see DistanceFields#getDistance(TrackPiece, NetworkNode, NetworkPosition)
+     * @return the length of the shortest path, infinity if no path exists, or NaN if the distance is being computed
+     */
+    public float getDistance(TrackPiece currentTrack, NetworkNode node, NetworkPosition target) {
+        return distanceFields.getDistance(currentTrack, node, target);
+    }
+
+    public DistanceFields getDistanceFields() {
+        return distanceFields;
+    }
+
+    /**
+     * drops the distance fields and stops the threads of this service. Searches that are already queued still
+     * complete. A later search starts new threads.
+     */
+    public synchronized void cleanup() {
+        distanceFields.clear();
+
+        if (threads != null) {
+            threads.shutdown();
+            threads = null;
+        }
+    }
+
+    /** @return the pool of threads of this service, which is created if there is none */
+    private synchronized ExecutorService getThreads() {
+        if (threads == null) {
+            // daemon threads, which do not keep the game alive
+            AtomicInteger threadIndex = new AtomicInteger();
+            threads = Executors.newFixedThreadPool(nrOfThreads, task -> {
+                Thread thread = new Thread(task, "Path finder " + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return threads;
+    }
+}
@@ -0,0 +1,305 @@
+package NG.GameState;
+
+import NG.Entities.Entity;
+import NG.Entities.Entity.UpdateFrequency;
+import NG.Tools.TickProfiler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Divides entities over buckets according to their {@link Entity#getUpdateFrequency()}, such that each tick only the
+ * entities that are due are updated. Entities with {@link UpdateFrequency#ONCE_PER_SECOND} are distributed evenly over
+ * the ticks of one second, entities with {@link UpdateFrequency#ONCE_UPON_A_TIME} over the ticks of {@link
+ * #UPON_A_TIME_SECONDS} seconds, and entities with {@link UpdateFrequency#NEVER} are not stored at all.
+ * <p>
+ * The buckets hold the handles of the entities in an {@link EntityArena}. Entities removed from the arena are dropped
+ * from their bucket when it is due next, such that removal does not require searching the buckets.
+ * <p>
+ * Each tick is executed in two phases. First, the due entities that {@link Entity#canUpdateInParallel() can update in
+ * parallel} are updated on a {@link ForkJoinPool}, while their {@link #commit(Runnable) commits} are buffered. Then the
+ * buffered commits are executed in the order of the entities, followed by the update of all remaining due entities.
+ * Apart from {@link #commit(Runnable)}, this class is not thread-safe.
+ * <p>
+ * If a {@link TickProfiler} is given, the update time of each entity is added to the profiler under its class.
+ */
+public class UpdateScheduler {
+    /** number of seconds between two updates of an entity with frequency {@link UpdateFrequency#ONCE_UPON_A_TIME} */
+    public static final int UPON_A_TIME_SECONDS = 10;
+    /** number of tasks per thread of the pool, such that threads that finish early can take over work */
+    private static final int TASKS_PER_THREAD = 4;
+    /** minimum number of entities of one task, to justify forking */
+    private static final int MIN_TASK_SIZE = 2;
+
+    private final EntityArena arena;
+    private final ForkJoinPool pool;
+    private final TickProfiler profiler;
+
+    private final HandleBucket everyTick = new HandleBucket();
+    private final HandleBucket[] perSecondSlots;
+    private final HandleBucket[] uponATimeSlots;
+
+    private int tick = 0;
+    private int nextPerSecondSlot = 0;
+    private int nextUponATimeSlot = 0;
+
+    private final List<Entity> parallelDue = new ArrayList<>();
+    private final List<Entity> serialDue = new ArrayList<>();
+    /** index in parallelDue of the entity updated by the current thread, or null if not in the parallel phase */
+    private final ThreadLocal<Integer> currentIndex = new ThreadLocal<>();
+    private final ConcurrentLinkedQueue<Commit> commits = new ConcurrentLinkedQueue<>();
+    private final List<Commit> commitOrder = new ArrayList<>();
+    private int taskSize = MIN_TASK_SIZE;
+
+    /**
+     * @param arena          the arena holding the scheduled entities
+     * @param ticksPerSecond the number of calls to {@link #update()} per second of game time
+     */
+    public UpdateScheduler(EntityArena arena, int ticksPerSecond) {
+        this(arena, ticksPerSecond, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * @param arena          the arena holding the scheduled entities
+     * @param ticksPerSecond the number of calls to {@link #update()} per second of game time
+     * @param profiler       the profiler to record entity update times to, or null to not record times
+     */
+    public UpdateScheduler(EntityArena arena, int ticksPerSecond, TickProfiler profiler) {
+        this(arena, ticksPerSecond, ForkJoinPool.commonPool(), profiler);
+    }
+
+    /**
+     * @param arena          the arena holding the scheduled entities
+     * @param ticksPerSecond the number of calls to {@link #update()} per second of game time
+     * @param pool           the pool to execute parallel updates on
+     * @param profiler       the profiler to record entity update times to, or null to not record times
+     */
+    public UpdateScheduler(EntityArena arena, int ticksPerSecond, ForkJoinPool pool, TickProfiler profiler) {
+        this.arena = arena;
+        this.pool = pool;
+        this.profiler = profiler;
+        int ticks = Math.max(ticksPerSecond, 1);
+        this.perSecondSlots = createSlots(ticks);
+        this.uponATimeSlots = createSlots(ticks * UPON_A_TIME_SECONDS);
+    }
+
+    /**
+     * adds the entity to the bucket of its update frequency. The entity is not updated if its update frequency is
+     * {@link UpdateFrequency#NEVER}, or if it is not in the arena of this scheduler.
+     * @param entity the entity to add, which should already be added to the arena
+     */
+    public void add(Entity entity) {
+        long handle = arena.getHandle(entity);
+        if (handle == EntityArena.INVALID_HANDLE) return;
+
+        switch (entity.getUpdateFrequency()) {
+            case EVERY_TICK:
+                everyTick.add(handle);
+                break;
+            case ONCE_PER_SECOND:
+                perSecondSlots[nextPerSecondSlot].add(handle);
+                nextPerSecondSlot = (nextPerSecondSlot + 1) % perSecondSlots.length;
+                break;
+            case ONCE_UPON_A_TIME:
+                uponATimeSlots[nextUponATimeSlot].add(handle);
+                nextUponATimeSlot = (nextUponATimeSlot + 1) % uponATimeSlots.length;
+                break;
+            case NEVER:
+                break;
+        }
+    }
+
+    public void addAll(Collection<? extends Entity> entities) {
+        for (Entity entity : entities) {
+            add(entity);
+        }
+    }
+
+    /**
+     * updates all entities that are scheduled for the current tick, and proceeds to the next tick
+     */
+    public void update() {
+        parallelDue.clear();
+        serialDue.clear();
+        commits.clear();
+
+        collectDue(everyTick);
+        collectDue(perSecondSlots[tick % perSecondSlots.length]);
+        collectDue(uponATimeSlots[tick % uponATimeSlots.length]);
+        tick = (tick + 1) % uponATimeSlots.length;
+
+        // compute phase
+        if (!parallelDue.isEmpty()) {
+            int nrOfTasks = pool.getParallelism() * TASKS_PER_THREAD;
+            taskSize = Math.max(MIN_TASK_SIZE, parallelDue.size() / nrOfTasks);
+
+            ParallelUpdate task = new ParallelUpdate(0, parallelDue.size());
+            if (parallelDue.size() <= taskSize) {
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+
+            // commit phase
+            commitOrder.addAll(commits);
+            commits.clear();
+            commitOrder.sort(Comparator.comparingInt(Commit::index)); // stable
+            try {
+                for (Commit commit : commitOrder) {
+                    commit.action().run();
+                }
+            } finally {
+                commitOrder.clear();
+            }
+        }
+
+        // serial phase
+        for (Entity entity : serialDue) {
+            updateEntity(entity);
+        }
+    }
+
+    private void updateEntity(Entity entity) {
+        if (profiler == null || !profiler.isEnabled()) {
+            entity.update();
+            return;
+        }
+
+        long start = System.nanoTime();
+        entity.update();
+        profiler.addEntityTime(entity.getClass(), System.nanoTime() - start);
+    }
+
+    /**
+     * executes the given action after the parallel phase if the current thread is updating an entity in parallel, or
+     * immediately otherwise.
+     * @param action the action to execute
+     */
+    public void commit(Runnable action) {
+        Integer index = currentIndex.get();
+
+        if (index == null) {
+            action.run();
+        } else {
+            commits.add(new Commit(index, action));
+        }
+    }
+
+    /** @return true iff the current thread is updating an entity in parallel */
+    public boolean isParallelUpdate() {
+        return currentIndex.get() != null;
+    }
+
+    /** sorts the entities of the bucket into parallelDue and serialDue, and drops the handles of removed entities */
+    private void collectDue(HandleBucket bucket) {
+        int nrOfValid = 0;
+
+        for (int i = 0; i < bucket.size; i++) {
+            long handle = bucket.handles[i];
+            Entity entity = arena.get(handle);
+            if (entity == null) continue;
+
+            // compact in place, keeping the order of the remaining entities
+            bucket.handles[nrOfValid++] = handle;
+            if (entity.canUpdateInParallel()) {
+                parallelDue.add(entity);
+            } else {
+                serialDue.add(entity);
+            }
+        }
+
+        bucket.size = nrOfValid;
+    }
+
+    /** @return the number of entities that are updated at some point */
+    public int size() {
+        int size = everyTick.nrOfValid();
+        for (HandleBucket slot : perSecondSlots) {
+            size += slot.nrOfValid();
+        }
+        for (HandleBucket slot : uponATimeSlots) {
+            size += slot.nrOfValid();
+        }
+        return size;
+    }
+
+    public void clear() {
+        everyTick.clear();
+        for (HandleBucket slot : perSecondSlots) {
+            slot.clear();
+        }
+        for (HandleBucket slot : uponATimeSlots) {
+            slot.clear();
+        }
+    }
+
+    private record Commit(int index, Runnable action) {}
+
+    /**
+     * updates the entities of parallelDue in the given range, splitting the range over multiple tasks. It is only
+     * serializable as a {@link RecursiveAction}, and is never serialized.
+     */
+    @SuppressWarnings("serial")
+    private class ParallelUpdate extends RecursiveAction {
+        private final int start;
+        private final int end;
+
+        ParallelUpdate(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= taskSize) {
+                try {
+                    for (int i = start; i < end; i++) {
+                        currentIndex.set(i);
+                        updateEntity(parallelDue.get(i));
+                    }
+                } finally {
+                    currentIndex.remove();
+                }
+
+            } else {
+                int middle = (start + end) / 2;
+                invokeAll(new ParallelUpdate(start, middle), new ParallelUpdate(middle, end));
+            }
+        }
+    }
+
+    /** a growable list of arena handles */
+    private class HandleBucket {
+        private long[] handles = new long[4];
+        private int size = 0;
+
+        void add(long handle) {
+            if (size == handles.length) {
+                handles = Arrays.copyOf(handles, size * 2);
+            }
+            handles[size++] = handle;
+        }
+
+        int nrOfValid() {
+            int nrOfValid = 0;
+            for (int i = 0; i < size; i++) {
+                if (arena.isValid(handles[i])) nrOfValid++;
+            }
+            return nrOfValid;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    private HandleBucket[] createSlots(int nrOfSlots) {
+        HandleBucket[] slots = new HandleBucket[nrOfSlots];
+        for (int i = 0; i < nrOfSlots; i++) {
+            slots[i] = new HandleBucket();
+        }
+        return slots;
+    }
+}
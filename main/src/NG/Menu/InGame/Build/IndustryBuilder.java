@@ -32,13 +32,9 @@ public class IndustryBuilder extends AbstractMouseTool {
             Industry industry = new Industry(game, position, game.timer().getGameTime(), properties);
             game.state().addEntity(industry);
 
-            // reset the industries of all entities
-            // TODO make this less than quadratic runtime obnoxity
-            for (Entity entity : game.state()) {
-                if (entity instanceof StationImpl) {
-                    StationImpl station = (StationImpl) entity;
-                    station.recalculateNearbyIndustries();
-                }
+            // the industry is not yet part of the game state, thus we add it to the stations directly
+            for (StationImpl station : StationImpl.getStationsInRange(game, position)) {
+                station.addNearbyIndustry(industry);
             }
 
             game.inputHandling().setMouseTool(null);
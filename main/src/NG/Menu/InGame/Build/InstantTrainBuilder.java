@@ -23,12 +23,9 @@ public class InstantTrainBuilder extends EntityActionTool {
     }
 
     static void addTrain(Game game, TrackPiece trackPiece) {
-        trackPiece.setOccupied(true);
-
         float trackLength = trackPiece.getLength();
         double gameTime = game.timer().getGameTime();
         Train construction = new Train(game, 0, gameTime, trackPiece);
-        game.state().addEntity(construction);
 
         List<Locomotive.Properties> locomotiveTypes = game.objectTypes().locomotiveTypes;
         List<Wagon.Properties> wagonTypes = game.objectTypes().wagonTypes;
@@ -41,6 +38,12 @@ public class InstantTrainBuilder extends EntityActionTool {
             wagon = new Wagon(wagonTypes.get(0));
         }
 
+        // the reservation table belongs to the game loop
+        game.state().commit(() -> {
+            game.state().reservations().reserve(construction, List.of(trackPiece));
+            game.state().addEntity(construction);
+        });
+
         // click on it
         construction.reactMouse(AbstractMouseTool.MouseAction.PRESS_ACTIVATE, game.keyControl());
     }
@@ -283,20 +283,12 @@ public class TrackBuilder extends AbstractMouseTool {
     private static TrackPiece processTracksReturnLast(Game game, List<TrackPiece> tracks) {
         if (tracks.isEmpty()) return null;
 
-        int lastIndex = tracks.size() - 1;
-        for (int i = 0; i < lastIndex; i++) {
-            TrackPiece track = tracks.get(i);
-            NetworkNode.addConnection(track);
+        NetworkNode.addConnections(tracks);
+        for (TrackPiece track : tracks) {
             game.state().addEntity(track);
         }
 
-        TrackPiece lastTrack = tracks.get(lastIndex);
-        NetworkNode.addConnection(lastTrack);
-        game.state().addEntity(lastTrack);
-
-        RailTools.invalidateSignals(tracks.get(0));
-
-        return lastTrack;
+        return tracks.get(tracks.size() - 1);
     }
 
     public void clearGhostTracks() {
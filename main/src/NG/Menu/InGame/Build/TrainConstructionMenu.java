@@ -156,10 +156,12 @@ public class TrainConstructionMenu extends SFrame {
 
     private void confirmAndClose() {
         PlayerStatus player = game.playerStatus();
-        player.money.subtract(costs);
-        player.trains.add(construction);
+        game.state().commit(() -> {
+            player.money.subtract(costs);
+            player.trains.add(construction);
+            targetPlace.addTrain(construction);
+        });
         game.state().addEntity(construction);
-        targetPlace.addTrain(construction);
         construction.openUI();
 
         dispose(); // sepukku
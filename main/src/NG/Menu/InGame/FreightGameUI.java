@@ -28,6 +28,7 @@ public class FreightGameUI extends SDecorator {
     private static final SComponentProperties MONEY_TEXT_PROPERTIES = new SComponentProperties(
             0, 100, true, false, NGFonts.TextType.FANCY, SFrameLookAndFeel.Alignment.CENTER_MIDDLE
     );
+    private static final double[] TIME_SCALES = {1, 8, 64, Double.POSITIVE_INFINITY};
 
     private final SComponentArea mainArea;
 
@@ -79,10 +80,30 @@ public class FreightGameUI extends SDecorator {
                                 getOptionsMenu(game, modLoader),
                                 game.window()
                         )
-                )
+                ),
+                getSpeedButton(game)
         );
     }
 
+    /** a button that cycles through the values of {@link #TIME_SCALES} */
+    private static SButton getSpeedButton(Game game) {
+        SButton button = new SButton(getSpeedText(game.timer().getTimeScale()));
+        button.addLeftClickListener(() -> {
+            double current = game.timer().getTimeScale();
+            int index = 0;
+            while (index < TIME_SCALES.length && TIME_SCALES[index] <= current) index++;
+
+            double next = TIME_SCALES[index % TIME_SCALES.length];
+            game.timer().setTimeScale(next);
+            button.setText(getSpeedText(next));
+        });
+        return button;
+    }
+
+    private static String getSpeedText(double timeScale) {
+        return timeScale == Double.POSITIVE_INFINITY ? "Speed max" : String.format("Speed x%.0f", timeScale);
+    }
+
     private SFrame getOptionsMenu(Game game, ModLoader modLoader) {
         return new SFrame("Options", SContainer.column(
                 new SToggleButton(
@@ -90,9 +111,7 @@ public class FreightGameUI extends SDecorator {
                 ).addStateChangeListener(active -> game.settings().RENDER_COLLISION_BOX = active),
 
                 new SButton("Dump Network", // find any networknode, and print getNetworkAsString
-                        () -> game.state().entities().stream()
-                                .filter(e -> e instanceof TrackPiece)
-                                .map(e -> (TrackPiece) e)
+                        () -> game.state().entitiesOf(TrackPiece.class).stream()
                                 .filter(e -> !e.isDespawnedAt(game.timer().getGameTime()))
                                 .map(TrackPiece::getStartNode)
                                 .map(RailNode::getNetworkNode)
@@ -106,9 +125,7 @@ public class FreightGameUI extends SDecorator {
                 ),
 
                 new SButton("Check Network", // checks the NetworkNodes of all track pieces
-                        () -> game.state().entities().stream()
-                                .filter(e -> e instanceof TrackPiece)
-                                .map(e -> (TrackPiece) e)
+                        () -> game.state().entitiesOf(TrackPiece.class).stream()
                                 .filter(e -> !e.isDespawnedAt(game.timer().getGameTime()))
                                 .peek(t -> {
                                     if (!t.isValid()) {
@@ -128,6 +145,10 @@ public class FreightGameUI extends SDecorator {
                         ),
                         BUTTON_PROPERTIES_STRETCH
                 ),
+                new SButton("Dump Tick Profile",
+                        () -> game.state().dumpTickProfile(Directory.profiles),
+                        BUTTON_PROPERTIES_STRETCH
+                ),
                 new SButton("Reload Assets", () -> game.executeOnRenderThread(Asset::dropAll)),
                 new SButton("Dump Assets", () -> Asset.forEachActive(Logger.DEBUG::print)),
                 new SButton("Save Game", () -> modLoader.saveGame(FreightGame.SAVE_FILE), BUTTON_PROPERTIES_STRETCH),
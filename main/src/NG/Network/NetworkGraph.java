@@ -0,0 +1,788 @@
+package NG.Network;
+
+import NG.DataStructures.Generic.IntMinHeap;
+import NG.Tools.NetworkPathFinder;
+import NG.Tracks.TrackPiece;
+import org.joml.Vector3fc;
+
+import java.util.*;
+
+/**
+ * A compiled representation of one connected component of the network of {@link NetworkNode#isNetworkCritical()
+ * network-critical} nodes, for path finding without boxing or hashing. Each node has an integer id and two ports: port
+ * {@code 2 * id} for leaving the node through its a-direction, and port {@code 2 * id + 1} for leaving it through its
+ * b-direction. The edges of port {@code p} are stored in compressed sparse row format at the indices [edgeStart[p],
+ * edgeStart[p + 1]) of {@code edgeTarget} and {@code edgeLength}, where the target of an edge is the port through which
+ * the next node is left.
+ * <p>
+ * Graphs are compiled on demand by {@link #of(NetworkNode)}, and recompiled upon the first request after the {@link
+ * NetworkNode#getTopologyVersion() topology} has changed. A compiled graph does not change, and may be searched by
+ * multiple threads at once.
+ */
+public final class NetworkGraph {
+    private static final int NR_OF_LANDMARKS = 4;
+    /** scales the heuristics slightly down, such that rounding errors do not make them overestimate */
+    private static final float HEURISTIC_MARGIN = 0.999f;
+
+    /** maps each node to the graph of its component, cleared when the topology changes */
+    private static final Map<NetworkNode, NetworkGraph> graphs = new IdentityHashMap<>();
+    private static long graphsVersion = NetworkNode.getTopologyVersion();
+
+    private final NetworkNode[] nodes;
+    private final Map<NetworkNode, Integer> ids;
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final float[] edgeLength;
+    /** x, y and z of each node, or NaN if the node has no rail node */
+    private final float[] positions;
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+    private volatile ReverseEdges reverseEdges = null;
+    private volatile Landmarks landmarks = null;
+    private volatile Regions regions = null;
+
+    private NetworkGraph(
+            NetworkNode[] nodes, Map<NetworkNode, Integer> ids, int[] edgeStart, int[] edgeTarget, float[] edgeLength,
+            float[] positions
+    ) {
+        this.nodes = nodes;
+        this.ids = ids;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeLength = edgeLength;
+        this.positions = positions;
+    }
+
+    /**
+     * @param node a network-critical node
+     * @return the compiled graph of the component containing the given node, reflecting the current topology
+     */
+    public static synchronized NetworkGraph of(NetworkNode node) {
+        assert node.isNetworkCritical() : node;
+
+        long version = NetworkNode.getTopologyVersion();
+        if (version != graphsVersion) {
+            graphs.clear();
+            graphsVersion = version;
+        }
+
+        NetworkGraph graph = graphs.get(node);
+        if (graph == null) {
+            graph = compile(node);
+            for (NetworkNode member : graph.nodes) {
+                graphs.put(member, graph);
+            }
+        }
+
+        return graph;
+    }
+
+    /** drops the graphs of all components */
+    public static synchronized void clear() {
+        graphs.clear();
+    }
+
+    private static NetworkGraph compile(NetworkNode start) {
+        // collect the component with a breadth-first search
+        List<NetworkNode> nodeList = new ArrayList<>();
+        Map<NetworkNode, Integer> ids = new IdentityHashMap<>();
+        nodeList.add(start);
+        ids.put(start, 0);
+
+        for (int i = 0; i < nodeList.size(); i++) {
+            for (NetworkNode.Direction entry : nodeList.get(i).getAllEntries()) {
+                NetworkNode next = entry.network;
+                if (next != null && !ids.containsKey(next)) {
+                    ids.put(next, nodeList.size());
+                    nodeList.add(next);
+                }
+            }
+        }
+
+        int nrOfPorts = nodeList.size() * 2;
+        int[] edgeStart = new int[nrOfPorts + 1];
+        for (int port = 0; port < nrOfPorts; port++) {
+            int nrOfEdges = 0;
+            for (NetworkNode.Direction entry : getEntries(nodeList, port)) {
+                if (isEdge(entry, nodeList.get(port / 2))) nrOfEdges++;
+            }
+            edgeStart[port + 1] = edgeStart[port] + nrOfEdges;
+        }
+
+        int[] edgeTarget = new int[edgeStart[nrOfPorts]];
+        float[] edgeLength = new float[edgeStart[nrOfPorts]];
+        for (int port = 0; port < nrOfPorts; port++) {
+            int edge = edgeStart[port];
+
+            for (NetworkNode.Direction entry : getEntries(nodeList, port)) {
+                if (!isEdge(entry, nodeList.get(port / 2))) continue;
+
+                // entering the next node from its b-direction means leaving it through its a-direction
+                int nextSide = entry.networkIsInDirection ? 0 : 1;
+                edgeTarget[edge] = ids.get(entry.network) * 2 + nextSide;
+                edgeLength[edge] = entry.distanceToNetworkNode;
+                edge++;
+            }
+        }
+
+        float[] positions = new float[nodeList.size() * 3];
+        for (int i = 0; i < nodeList.size(); i++) {
+            Vector3fc position = getPosition(nodeList.get(i));
+            positions[i * 3] = (position == null) ? Float.NaN : position.x();
+            positions[i * 3 + 1] = (position == null) ? Float.NaN : position.y();
+            positions[i * 3 + 2] = (position == null) ? Float.NaN : position.z();
+        }
+
+        NetworkNode[] nodes = nodeList.toArray(new NetworkNode[0]);
+        return new NetworkGraph(nodes, ids, edgeStart, edgeTarget, edgeLength, positions);
+    }
+
+    /** @return the position of the rail node of the given network node, or null if it has no connected tracks */
+    private static Vector3fc getPosition(NetworkNode node) {
+        for (NetworkNode.Direction entry : node.getAllEntries()) {
+            TrackPiece track = entry.trackPiece;
+            if (track.getStartNode().getNetworkNode() == node) return track.getStartNode().getPosition();
+            if (track.getEndNode().getNetworkNode() == node) return track.getEndNode().getPosition();
+        }
+        return null;
+    }
+
+    private static List<NetworkNode.Direction> getEntries(List<NetworkNode> nodeList, int port) {
+        NetworkNode node = nodeList.get(port / 2);
+        return (port % 2 == 0) ? node.getEntriesA() : node.getEntriesB();
+    }
+
+    /** empty dead ends and self-loops are not part of the network */
+    private static boolean isEdge(NetworkNode.Direction entry, NetworkNode source) {
+        return entry.network != null && entry.network != source;
+    }
+
+    /**
+     * @param node        a node of this graph
+     * @param predecessor a network node connected to the given node
+     * @return the port through which the given node is left when arriving from predecessor, or -1 if either is not
+     * part of this graph
+     */
+    public int getPort(NetworkNode node, NetworkNode predecessor) {
+        Integer id = ids.get(node);
+        if (id == null) return -1;
+
+        if (NetworkNode.getIndexOf(node.getEntriesA(), predecessor, d -> d.network) >= 0) {
+            return id * 2 + 1;
+
+        } else if (NetworkNode.getIndexOf(node.getEntriesB(), predecessor, d -> d.network) >= 0) {
+            return id * 2;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds the shortest path from the given port to any of the given target nodes, using A* with the given heuristic.
+     * @param startPort the port to start from, as returned by {@link #getPort(NetworkNode, NetworkNode)}
+     * @param targets   the nodes to search for. Nodes not in this graph are ignored.
+     * @param heuristic the lower bound on the remaining distance used to direct the search
+     * @return the path excluding the start node and including the target node, or null if no target can be reached
+     */
+    public NetworkPathFinder.Path findPath(int startPort, Collection<NetworkNode> targets, Heuristic heuristic) {
+        return search(startPort, targets, heuristic, null);
+    }
+
+    /**
+     * Finds the same path as {@link #findPath(int, Collection, Heuristic)}, but partitions the graph into connected
+     * regions of about regionSize nodes. Only the regions of the start and the targets are searched edge by edge,
+     * every other region is crossed in one step from where it is entered to where it is left, using distances that are
+     * computed once per topology. The steps are expanded into nodes afterwards, by searching only the crossed regions.
+     * @param regionSize the maximum number of nodes per region
+     * @see #findPath(int, Collection, Heuristic)
+     */
+    public NetworkPathFinder.Path findPath(
+            int startPort, Collection<NetworkNode> targets, Heuristic heuristic, int regionSize
+    ) {
+        return search(startPort, targets, heuristic, getRegions(regionSize));
+    }
+
+    private NetworkPathFinder.Path search(
+            int startPort, Collection<NetworkNode> targets, Heuristic heuristic, Regions regions
+    ) {
+        Search search = searches.get();
+        search.reset(heuristic, regions);
+
+        for (NetworkNode target : targets) {
+            Integer id = ids.get(target);
+            if (id != null) search.addTarget(id);
+        }
+
+        if (regions != null) search.addLocalRegion(regions.regionOf[startPort / 2]);
+        search.relax(startPort, 0f, -1, false);
+
+        while (!search.open.isEmpty()) {
+            float estimate = search.open.peekKey();
+            int port = search.open.remove();
+            float distance = search.distances[port];
+            if (estimate > distance + search.estimates[port]) continue; // outdated entry
+
+            search.nrOfExpansions++;
+            if (search.targetStamps[port / 2] == search.stamp) {
+                return search.getPath(startPort, port);
+            }
+
+            if (regions == null || search.isLocal(port)) {
+                for (int edge = edgeStart[port]; edge < edgeStart[port + 1]; edge++) {
+                    search.relax(edgeTarget[edge], distance + edgeLength[edge], port, false);
+                }
+
+            } else {
+                // cross the region, and leave it from there
+                for (int i = regions.shortcutStart[port]; i < regions.shortcutStart[port + 1]; i++) {
+                    search.relax(regions.shortcutTarget[i], distance + regions.shortcutLength[i], port, true);
+                }
+
+                int region = regions.regionOf[port / 2];
+                for (int edge = edgeStart[port]; edge < edgeStart[port + 1]; edge++) {
+                    if (regions.regionOf[edgeTarget[edge] / 2] == region) continue;
+                    search.relax(edgeTarget[edge], distance + edgeLength[edge], port, false);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /** @return the number of ports expanded by the last search of the calling thread */
+    public int getNrOfExpansions() {
+        return searches.get().nrOfExpansions;
+    }
+
+    public int getNrOfNodes() {
+        return nodes.length;
+    }
+
+    public int getNrOfEdges() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * computes the length of the shortest path from each port to any of the given targets. Where {@link #findPath}
+     * searches from one port, this searches backwards from the targets, such that the distance of many start ports can
+     * be looked up afterwards. This method is thread-safe.
+     * @param targets the nodes to compute the distances to. Nodes not in this graph are ignored.
+     * @return for each port as returned by {@link #getPort(NetworkNode, NetworkNode)}, the length of the path from that
+     * port to the nearest target, or infinity if no target can be reached
+     */
+    public float[] getDistancesTo(Collection<NetworkNode> targets) {
+        int[] sources = new int[targets.size() * 2];
+        int nrOfSources = 0;
+        for (NetworkNode target : targets) {
+            Integer id = ids.get(target);
+            if (id == null) continue;
+            sources[nrOfSources++] = id * 2;
+            sources[nrOfSources++] = id * 2 + 1;
+        }
+
+        ReverseEdges reverse = getReverseEdges();
+        return distancesFrom(reverse.start, reverse.target, reverse.length, Arrays.copyOf(sources, nrOfSources));
+    }
+
+    private ReverseEdges getReverseEdges() {
+        ReverseEdges result = reverseEdges;
+        if (result != null) return result;
+
+        synchronized (this) {
+            if (reverseEdges == null) reverseEdges = new ReverseEdges();
+            return reverseEdges;
+        }
+    }
+
+    private Landmarks getLandmarks() {
+        Landmarks result = landmarks;
+        if (result != null) return result;
+
+        synchronized (this) {
+            if (landmarks == null) landmarks = new Landmarks();
+            return landmarks;
+        }
+    }
+
+    private Regions getRegions(int regionSize) {
+        Regions result = regions;
+        if (result != null && result.size == regionSize) return result;
+
+        synchronized (this) {
+            if (regions == null || regions.size != regionSize) regions = new Regions(regionSize);
+            return regions;
+        }
+    }
+
+    /**
+     * computes the distances from the given sources to all ports with Dijkstra
+     * @return the distance to each port, or infinity for unreachable ports
+     */
+    private static float[] distancesFrom(int[] edgeStart, int[] edgeTarget, float[] edgeLength, int... sources) {
+        float[] distances = new float[edgeStart.length - 1];
+        Arrays.fill(distances, Float.POSITIVE_INFINITY);
+        IntMinHeap open = new IntMinHeap(distances.length);
+
+        for (int source : sources) {
+            distances[source] = 0;
+            open.add(source, 0);
+        }
+
+        while (!open.isEmpty()) {
+            float distance = open.peekKey();
+            int port = open.remove();
+            if (distance > distances[port]) continue;
+
+            for (int edge = edgeStart[port]; edge < edgeStart[port + 1]; edge++) {
+                int next = edgeTarget[edge];
+                float nextDistance = distance + edgeLength[edge];
+                if (nextDistance < distances[next]) {
+                    distances[next] = nextDistance;
+                    open.add(next, nextDistance);
+                }
+            }
+        }
+
+        return distances;
+    }
+
+    /** the lower bounds on the remaining distance available to direct a search */
+    public enum Heuristic {
+        /** no heuristic, making the search plain Dijkstra */
+        NONE,
+        /** the straight-line distance to the nearest target, as tracks are never shorter than the straight line */
+        EUCLIDEAN,
+        /**
+         * the triangle inequality on precomputed distances to and from a few landmark nodes (ALT). This is more
+         * accurate than {@link #EUCLIDEAN} on winding networks, but the landmarks are computed on the first use after
+         * each change in topology.
+         */
+        LANDMARKS
+    }
+
+    /** the edges of this graph in opposite direction, for searching backwards from a target */
+    private class ReverseEdges {
+        final int[] start;
+        final int[] target;
+        final float[] length;
+
+        ReverseEdges() {
+            int nrOfPorts = nodes.length * 2;
+            start = new int[nrOfPorts + 1];
+            for (int port : edgeTarget) {
+                start[port + 1]++;
+            }
+            for (int port = 0; port < nrOfPorts; port++) {
+                start[port + 1] += start[port];
+            }
+
+            target = new int[edgeTarget.length];
+            length = new float[edgeTarget.length];
+            int[] fill = Arrays.copyOf(start, nrOfPorts);
+            for (int port = 0; port < nrOfPorts; port++) {
+                for (int edge = edgeStart[port]; edge < edgeStart[port + 1]; edge++) {
+                    int index = fill[edgeTarget[edge]]++;
+                    target[index] = port;
+                    length[index] = edgeLength[edge];
+                }
+            }
+        }
+    }
+
+    /**
+     * The distances from and to a few landmark ports, chosen far apart. For any port v, landmark L and target t holds
+     * d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L).
+     */
+    private class Landmarks {
+        final float[][] fromLandmark;
+        final float[][] toLandmark;
+
+        Landmarks() {
+            int nrOfPorts = nodes.length * 2;
+            int nrOfLandmarks = Math.min(NR_OF_LANDMARKS, nrOfPorts);
+
+            ReverseEdges reverse = getReverseEdges();
+
+            // choose each landmark as far as possible from the previous landmarks
+            int[] chosen = new int[nrOfLandmarks];
+            float[] distanceToChosen = distancesFrom(edgeStart, edgeTarget, edgeLength, 0);
+            for (int i = 0; i < nrOfLandmarks; i++) {
+                chosen[i] = getFarthest(distanceToChosen);
+                distanceToChosen = distancesFrom(edgeStart, edgeTarget, edgeLength, Arrays.copyOf(chosen, i + 1));
+            }
+
+            fromLandmark = new float[nrOfLandmarks][];
+            toLandmark = new float[nrOfLandmarks][];
+            for (int i = 0; i < nrOfLandmarks; i++) {
+                fromLandmark[i] = distancesFrom(edgeStart, edgeTarget, edgeLength, chosen[i]);
+                toLandmark[i] = distancesFrom(reverse.start, reverse.target, reverse.length, chosen[i]);
+            }
+        }
+
+        /** @return the port with the largest finite distance, or 0 if there is none */
+        private int getFarthest(float[] distances) {
+            int farthest = 0;
+            float maximum = -1;
+            for (int port = 0; port < distances.length; port++) {
+                if (distances[port] > maximum && distances[port] < Float.POSITIVE_INFINITY) {
+                    maximum = distances[port];
+                    farthest = port;
+                }
+            }
+            return farthest;
+        }
+    }
+
+    /**
+     * A partition of the nodes into connected regions of at most {@code size} nodes. For each port through which a
+     * region can be entered, holds a shortcut to each port through which the region can be left, with the length of
+     * the shortest path between them within the region.
+     */
+    private class Regions {
+        final int size;
+        final int[] regionOf;
+        /** the members of region r are at the indices [memberStart[r], memberStart[r + 1]) of members */
+        final int[] memberStart;
+        final int[] members;
+        /** the index of each node within the members of its region */
+        final int[] localIndex;
+        final int[] shortcutStart;
+        final int[] shortcutTarget;
+        final float[] shortcutLength;
+
+        Regions(int size) {
+            this.size = size;
+            int nrOfNodes = nodes.length;
+            int nrOfPorts = nrOfNodes * 2;
+            ReverseEdges reverse = getReverseEdges();
+
+            // grow each region from the first node not in any region, along edges in either direction
+            regionOf = new int[nrOfNodes];
+            Arrays.fill(regionOf, -1);
+            members = new int[nrOfNodes];
+            int[] starts = new int[nrOfNodes + 1];
+            int nrOfRegions = 0;
+            int nrOfMembers = 0;
+
+            for (int seed = 0; seed < nrOfNodes; seed++) {
+                if (regionOf[seed] >= 0) continue;
+                int region = nrOfRegions++;
+                int first = nrOfMembers;
+                starts[region] = first;
+                regionOf[seed] = region;
+                members[nrOfMembers++] = seed;
+
+                for (int i = first; i < nrOfMembers && nrOfMembers - first < size; i++) {
+                    int id = members[i];
+
+                    for (int port = id * 2; port < id * 2 + 2; port++) {
+                        for (int edge = edgeStart[port]; edge < edgeStart[port + 1]; edge++) {
+                            if (nrOfMembers - first == size) break;
+                            int next = edgeTarget[edge] / 2;
+                            if (regionOf[next] >= 0) continue;
+                            regionOf[next] = region;
+                            members[nrOfMembers++] = next;
+                        }
+                        for (int edge = reverse.start[port]; edge < reverse.start[port + 1]; edge++) {
+                            if (nrOfMembers - first == size) break;
+                            int next = reverse.target[edge] / 2;
+                            if (regionOf[next] >= 0) continue;
+                            regionOf[next] = region;
+                            members[nrOfMembers++] = next;
+                        }
+                    }
+                }
+            }
+
+            starts[nrOfRegions] = nrOfMembers;
+            memberStart = Arrays.copyOf(starts, nrOfRegions + 1);
+            localIndex = new int[nrOfNodes];
+            for (int region = 0; region < nrOfRegions; region++) {
+                for (int i = memberStart[region]; i < memberStart[region + 1]; i++) {
+                    localIndex[members[i]] = i - memberStart[region];
+                }
+            }
+
+            // connect each entry port to each reachable exit port of its region
+            int[] sources = new int[16];
+            int[] targets = new int[16];
+            float[] lengths = new float[16];
+            int nrOfShortcuts = 0;
+            float[] localDistances = new float[size * 2];
+            int[] localPredecessors = new int[size * 2];
+
+            for (int entry = 0; entry < nrOfPorts; entry++) {
+                if (!isEntry(entry, reverse)) continue;
+                searchWithin(entry, localDistances, localPredecessors);
+
+                int region = regionOf[entry / 2];
+                for (int i = memberStart[region]; i < memberStart[region + 1]; i++) {
+                    for (int exit = members[i] * 2; exit < members[i] * 2 + 2; exit++) {
+                        if (exit == entry || !isExit(exit)) continue;
+                        float length = localDistances[localPort(exit)];
+                        if (length == Float.POSITIVE_INFINITY) continue;
+
+                        if (nrOfShortcuts == sources.length) {
+                            sources = Arrays.copyOf(sources, nrOfShortcuts * 2);
+                            targets = Arrays.copyOf(targets, nrOfShortcuts * 2);
+                            lengths = Arrays.copyOf(lengths, nrOfShortcuts * 2);
+                        }
+                        sources[nrOfShortcuts] = entry;
+                        targets[nrOfShortcuts] = exit;
+                        lengths[nrOfShortcuts] = length;
+                        nrOfShortcuts++;
+                    }
+                }
+            }
+
+            // the shortcuts are already ordered by source port
+            shortcutStart = new int[nrOfPorts + 1];
+            for (int i = 0; i < nrOfShortcuts; i++) {
+                shortcutStart[sources[i] + 1]++;
+            }
+            for (int port = 0; port < nrOfPorts; port++) {
+                shortcutStart[port + 1] += shortcutStart[port];
+            }
+            shortcutTarget = Arrays.copyOf(targets, nrOfShortcuts);
+            shortcutLength = Arrays.copyOf(lengths, nrOfShortcuts);
+        }
+
+        /** @return true iff the given port is reached by an edge from another region */
+        private boolean isEntry(int port, ReverseEdges reverse) {
+            for (int edge = reverse.start[port]; edge < reverse.start[port + 1]; edge++) {
+                if (regionOf[reverse.target[edge] / 2] != regionOf[port / 2]) return true;
+            }
+            return false;
+        }
+
+        /** @return true iff the given port has an edge to another region */
+        private boolean isExit(int port) {
+            for (int edge = edgeStart[port]; edge < edgeStart[port + 1]; edge++) {
+                if (regionOf[edgeTarget[edge] / 2] != regionOf[port / 2]) return true;
+            }
+            return false;
+        }
+
+        /** @return the index of the given port among the ports of its region */
+        int localPort(int port) {
+            return localIndex[port / 2] * 2 + port % 2;
+        }
+
+        /**
+         * Dijkstra from the given port, restricted to the edges within its region
+         * @param distances    upon returning, the distance to each port of the region, indexed by {@link
+         *                     #localPort(int)}
+         * @param predecessors upon returning, the predecessor of each reached port of the region, indexed by {@link
+         *                     #localPort(int)}
+         */
+        void searchWithin(int source, float[] distances, int[] predecessors) {
+            int region = regionOf[source / 2];
+            int nrOfLocalPorts = (memberStart[region + 1] - memberStart[region]) * 2;
+            Arrays.fill(distances, 0, nrOfLocalPorts, Float.POSITIVE_INFINITY);
+            IntMinHeap open = new IntMinHeap(nrOfLocalPorts);
+
+            distances[localPort(source)] = 0;
+            open.add(source, 0);
+
+            while (!open.isEmpty()) {
+                float distance = open.peekKey();
+                int port = open.remove();
+                if (distance > distances[localPort(port)]) continue;
+
+                for (int edge = edgeStart[port]; edge < edgeStart[port + 1]; edge++) {
+                    int next = edgeTarget[edge];
+                    if (regionOf[next / 2] != region) continue;
+
+                    int local = localPort(next);
+                    float nextDistance = distance + edgeLength[edge];
+                    if (nextDistance < distances[local]) {
+                        distances[local] = nextDistance;
+                        predecessors[local] = port;
+                        open.add(next, nextDistance);
+                    }
+                }
+            }
+        }
+
+        /**
+         * adds the nodes strictly between the given ports of a shortcut to the front of the given path
+         * @param path  the path to which the exit node has just been prepended
+         * @param entry the source of the shortcut
+         * @param exit  the target of the shortcut
+         */
+        void addRouteWithin(NetworkPathFinder.Path path, int entry, int exit) {
+            float[] distances = new float[size * 2];
+            int[] predecessors = new int[size * 2];
+            searchWithin(entry, distances, predecessors);
+
+            for (int port = predecessors[localPort(exit)]; port != entry; port = predecessors[localPort(port)]) {
+                path.addFirst(nodes[port / 2]);
+            }
+        }
+    }
+
+    /**
+     * The state of a search, reused over searches of one thread. Instead of clearing the arrays, each search uses a new
+     * stamp, and array values are only valid if their stamp equals the current stamp.
+     */
+    private class Search {
+        final float[] distances = new float[nodes.length * 2];
+        final float[] estimates = new float[nodes.length * 2];
+        final int[] predecessors = new int[nodes.length * 2];
+        final int[] portStamps = new int[nodes.length * 2];
+        final int[] targetStamps = new int[nodes.length];
+        /** whether each port was reached by a shortcut across a region */
+        final boolean[] viaShortcut = new boolean[nodes.length * 2];
+        final IntMinHeap open = new IntMinHeap(16);
+        int stamp = 0;
+        int nrOfExpansions = 0;
+
+        Heuristic heuristic;
+        final List<Integer> targetIds = new ArrayList<>();
+        // for each landmark: the smallest distance from the landmark to a target, and the largest distance back
+        float[] landmarkToTarget;
+        float[] targetToLandmark;
+        Landmarks currentLandmarks;
+        // the regions that are searched edge by edge, if the search uses regions
+        Regions regions;
+        int[] regionStamps = new int[0];
+
+        void reset(Heuristic heuristic, Regions regions) {
+            stamp++;
+            if (stamp == 0) { // wrapped around: old stamps may match again
+                Arrays.fill(portStamps, 0);
+                Arrays.fill(targetStamps, 0);
+                Arrays.fill(regionStamps, 0);
+                stamp = 1;
+            }
+
+            open.clear();
+            targetIds.clear();
+            nrOfExpansions = 0;
+            this.heuristic = heuristic;
+            this.currentLandmarks = null;
+            this.regions = regions;
+
+            if (regions != null && regionStamps.length != regions.memberStart.length - 1) {
+                regionStamps = new int[regions.memberStart.length - 1];
+            }
+        }
+
+        void addTarget(int id) {
+            if (targetStamps[id] == stamp) return;
+            targetStamps[id] = stamp;
+            targetIds.add(id);
+            if (regions != null) addLocalRegion(regions.regionOf[id]);
+
+            // without a position, the euclidean distance cannot be bounded
+            if (heuristic == Heuristic.EUCLIDEAN && Float.isNaN(positions[id * 3])) heuristic = Heuristic.NONE;
+        }
+
+        void addLocalRegion(int region) {
+            regionStamps[region] = stamp;
+        }
+
+        boolean isLocal(int port) {
+            return regionStamps[regions.regionOf[port / 2]] == stamp;
+        }
+
+        void relax(int port, float distance, int predecessor, boolean isShortcut) {
+            if (portStamps[port] == stamp) {
+                if (distances[port] <= distance) return; // shorter path is known
+
+            } else {
+                portStamps[port] = stamp;
+                estimates[port] = estimate(port);
+            }
+
+            // no target is reachable from here
+            if (estimates[port] == Float.POSITIVE_INFINITY) return;
+
+            distances[port] = distance;
+            predecessors[port] = predecessor;
+            viaShortcut[port] = isShortcut;
+            open.add(port, distance + estimates[port]);
+        }
+
+        float estimate(int port) {
+            switch (heuristic) {
+                case EUCLIDEAN:
+                    return HEURISTIC_MARGIN * euclideanEstimate(port / 2);
+                case LANDMARKS:
+                    return HEURISTIC_MARGIN * landmarkEstimate(port);
+                default:
+                    return 0;
+            }
+        }
+
+        float euclideanEstimate(int id) {
+            float x = positions[id * 3];
+            float y = positions[id * 3 + 1];
+            float z = positions[id * 3 + 2];
+            if (Float.isNaN(x)) return 0;
+
+            float minimum = Float.POSITIVE_INFINITY;
+            for (int target : targetIds) {
+                float dx = positions[target * 3] - x;
+                float dy = positions[target * 3 + 1] - y;
+                float dz = positions[target * 3 + 2] - z;
+                minimum = Math.min(minimum, dx * dx + dy * dy + dz * dz);
+            }
+
+            return minimum == Float.POSITIVE_INFINITY ? 0 : (float) Math.sqrt(minimum);
+        }
+
+        float landmarkEstimate(int port) {
+            if (currentLandmarks == null) initLandmarks();
+
+            float bound = 0;
+            for (int i = 0; i < currentLandmarks.fromLandmark.length; i++) {
+                float fromLandmark = currentLandmarks.fromLandmark[i][port];
+                if (fromLandmark < Float.POSITIVE_INFINITY) {
+                    // if the landmark reaches this port, but no target, then this port reaches no target either
+                    if (landmarkToTarget[i] == Float.POSITIVE_INFINITY) return Float.POSITIVE_INFINITY;
+                    bound = Math.max(bound, landmarkToTarget[i] - fromLandmark);
+                }
+
+                float toLandmark = currentLandmarks.toLandmark[i][port];
+                if (toLandmark < Float.POSITIVE_INFINITY && targetToLandmark[i] < Float.POSITIVE_INFINITY) {
+                    bound = Math.max(bound, toLandmark - targetToLandmark[i]);
+                }
+            }
+
+            return bound;
+        }
+
+        void initLandmarks() {
+            currentLandmarks = getLandmarks();
+            int nrOfLandmarks = currentLandmarks.fromLandmark.length;
+            landmarkToTarget = new float[nrOfLandmarks];
+            targetToLandmark = new float[nrOfLandmarks];
+
+            for (int i = 0; i < nrOfLandmarks; i++) {
+                float minimumFrom = Float.POSITIVE_INFINITY;
+                float maximumTo = 0;
+
+                for (int target : targetIds) {
+                    for (int port = target * 2; port < target * 2 + 2; port++) {
+                        minimumFrom = Math.min(minimumFrom, currentLandmarks.fromLandmark[i][port]);
+                        maximumTo = Math.max(maximumTo, currentLandmarks.toLandmark[i][port]);
+                    }
+                }
+
+                landmarkToTarget[i] = minimumFrom;
+                targetToLandmark[i] = maximumTo;
+            }
+        }
+
+        NetworkPathFinder.Path getPath(int startPort, int endPort) {
+            NetworkPathFinder.Path path = new NetworkPathFinder.Path(distances[endPort]);
+
+            for (int port = endPort; port != startPort; port = predecessors[port]) {
+                path.addFirst(nodes[port / 2]);
+                if (viaShortcut[port]) regions.addRouteWithin(path, predecessors[port], port);
+            }
+
+            return path;
+        }
+    }
+}
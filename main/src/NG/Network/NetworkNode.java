@@ -7,9 +7,22 @@ import org.joml.Vector3f;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
+/**
+ * A node in the network of tracks, with the connections on its a-side and its b-side. Straight nodes form chains
+ * between {@link #isNetworkCritical() network-critical} nodes, which are kept as {@link Segment segments}. Each
+ * {@link Direction} refers to the segment it lies on, and to the critical node at the end of that segment. Upon a
+ * change in connections, only the segments of the changed nodes are walked, after which the {@link TopologyListener
+ * topology listeners} are notified of these segments.
+ */
 public class NetworkNode implements Serializable {
+    /** incremented upon every change in connections between any nodes */
+    private static final AtomicLong topologyVersion = new AtomicLong();
+    private static final List<TopologyListener> topologyListeners = new CopyOnWriteArrayList<>();
+
     private final List<Direction> aDirection = new ArrayList<>(1);
     private final List<Direction> bDirection = new ArrayList<>(1);
 
@@ -138,54 +151,6 @@ public class NetworkNode implements Serializable {
         return isSwitch() || isEnd();
     }
 
-    /**
-     * set the network node indicator in the direction of (this to source) to the newNetworkNode.
-     * @param source           the node in whose direction the new networknode is set.
-     * @param newNetworkNode   the first network node in direction of source.
-     * @param distanceToSource distance between source and newNetworkNode
-     * @param newIsInDirection whether this node is reachable through newNetworkNode.aDirection
-     */
-    public void updateNetworkTo(
-            NetworkNode source, NetworkNode newNetworkNode, float distanceToSource, boolean newIsInDirection
-    ) {
-        assert newNetworkNode == null || newNetworkNode.isNetworkCritical() : newNetworkNode + " | " + source;
-
-        List<Direction> list = aDirection;
-        List<Direction> otherList = bDirection;
-        int i = getIndexOf(list, source);
-        if (i == -1) {
-            list = bDirection;
-            otherList = aDirection;
-            i = getIndexOf(list, source);
-        }
-
-        assert i != -1 : "source node " + source + " is not connected to this " + this;
-
-        Direction entry = list.get(i);
-        // we propagate backwards, hence distance increases
-        float newDistance = distanceToSource + entry.trackPiece.getLength();
-        assert !Float.isNaN(newDistance) : distanceToSource + " + " + entry.trackPiece;
-
-        // if this is already set correctly, then everything down the line is set correctly as well
-        if (newNetworkNode == null) {
-            if (entry.network == null) return;
-
-        } else {
-            if (newNetworkNode.equals(entry.network) && newDistance == entry.distanceToNetworkNode) return;
-        }
-
-        entry.network = newNetworkNode;
-        entry.distanceToNetworkNode = newDistance;
-        entry.networkIsInDirection = newIsInDirection;
-
-        // unless this is a network node itself, propagate the change
-        if (!this.isNetworkCritical() && !this.isEnd()) {
-            assert otherList.size() == 1;
-            NetworkNode next = otherList.get(0).adjacent;
-            next.updateNetworkTo(this, newNetworkNode, newDistance, newIsInDirection);
-        }
-    }
-
     public List<Direction> getEntriesA() {
         return Collections.unmodifiableList(aDirection);
     }
@@ -206,6 +171,7 @@ public class NetworkNode implements Serializable {
      */
     public TrackPiece removeNode(NetworkNode target) {
         Direction removed;
+        topologyVersion.incrementAndGet();
 
         List<Direction> thisToTarget = aDirection;
         int i = getIndexOf(thisToTarget, target);
@@ -226,34 +192,6 @@ public class NetworkNode implements Serializable {
         return removed.trackPiece;
     }
 
-    private void postRemoveCheck(boolean wasCritical, List<Direction> thisToOther) {
-        if (isEnd() && !this.isNetworkCritical()) {
-            for (Direction entry : thisToOther) {
-                entry.adjacent.updateNetworkTo(this, null, 0, false);
-            }
-
-        } else if (wasCritical && !this.isNetworkCritical()) {
-            assert isStraight() : this; // !isEnd() && !isSwitch() assuming (!isNetworkCritical() => !isSwitch())
-            // doesnt matter which is which
-            assert aDirection.size() == 1 : aDirection;
-            assert bDirection.size() == 1 : bDirection;
-
-            Direction oneDirection = aDirection.get(0);
-            Direction twoDirection = bDirection.get(0);
-
-            oneDirection.adjacent.updateNetworkTo(this, twoDirection.network, twoDirection.distanceToNetworkNode, twoDirection.networkIsInDirection);
-            twoDirection.adjacent.updateNetworkTo(this, oneDirection.network, oneDirection.distanceToNetworkNode, oneDirection.networkIsInDirection);
-
-        } else if (this.isNetworkCritical()) {
-            for (Direction entry : aDirection) {
-                entry.adjacent.updateNetworkTo(this, this, 0, false);
-            }
-            for (Direction entry : bDirection) {
-                entry.adjacent.updateNetworkTo(this, this, 0, true);
-            }
-        }
-    }
-
     @Override
     public String toString() {
         return "NetworkNode (" + aDirection.size() + ":" + bDirection.size() + ')';
@@ -277,76 +215,69 @@ public class NetworkNode implements Serializable {
      * connects the two end nodes together
      */
     public static void addConnection(TrackPiece track) {
-        RailNode oneRailNode = track.getStartNode();
-        RailNode twoRailNode = track.getEndNode();
-        NetworkNode oneNode = oneRailNode.getNetworkNode();
-        NetworkNode twoNode = twoRailNode.getNetworkNode();
-
-        assert check(oneNode);
-        assert check(twoNode);
+        addConnections(List.of(track));
+    }
 
-        List<Direction> oneToTwo;
-        List<Direction> twoToOne;
+    /**
+     * connects the end nodes of each of the given tracks together. The segments of the network are updated once for all
+     * tracks, such that a chain of n tracks is added in O(n) time.
+     * @param tracks the tracks to connect, in any order
+     */
+    public static void addConnections(Collection<TrackPiece> tracks) {
+        Map<NetworkNode, Boolean> changedNodes = new IdentityHashMap<>();
+        Set<Direction> newDirections = Collections.newSetFromMap(new IdentityHashMap<>());
 
-        Vector3f trackStartDirection = track.getDirectionFromFraction(0);
-        if (trackStartDirection.dot(oneRailNode.getDirection()) > 0) {
-            oneToTwo = oneNode.aDirection;
-        } else {
-            oneToTwo = oneNode.bDirection;
-        }
+        for (TrackPiece track : tracks) {
+            RailNode oneRailNode = track.getStartNode();
+            RailNode twoRailNode = track.getEndNode();
+            NetworkNode oneNode = oneRailNode.getNetworkNode();
+            NetworkNode twoNode = twoRailNode.getNetworkNode();
 
-        Vector3f trackEndDirection = track.getDirectionFromFraction(1);
-        if (trackEndDirection.dot(twoRailNode.getDirection()) < 0) { // other direction
-            twoToOne = twoNode.aDirection;
-        } else {
-            twoToOne = twoNode.bDirection;
-        }
+            assert check(oneNode);
+            assert check(twoNode);
 
-        // entangle the occupied setting of the tracks involved
-        for (Direction direction : oneToTwo) {
-            TrackPiece.entangleTrackOccupation(track, direction.trackPiece);
-        }
+            changedNodes.putIfAbsent(oneNode, oneNode.isNetworkCritical());
+            changedNodes.putIfAbsent(twoNode, twoNode.isNetworkCritical());
 
-        for (Direction direction : twoToOne) {
-            TrackPiece.entangleTrackOccupation(track, direction.trackPiece);
-        }
-
-        oneToTwo.add(new Direction(twoNode, track, null, 0, false));
-        twoToOne.add(new Direction(oneNode, track, null, 0, false));
+            List<Direction> oneToTwo;
+            List<Direction> twoToOne;
 
-        // these must occur after adding
-        updateNetwork(oneNode, twoNode);
-        updateNetwork(twoNode, oneNode);
+            Vector3f trackStartDirection = track.getDirectionFromFraction(0);
+            if (trackStartDirection.dot(oneRailNode.getDirection()) > 0) {
+                oneToTwo = oneNode.aDirection;
+            } else {
+                oneToTwo = oneNode.bDirection;
+            }
 
-        assert check(oneNode);
-        assert check(twoNode);
-    }
+            Vector3f trackEndDirection = track.getDirectionFromFraction(1);
+            if (trackEndDirection.dot(twoRailNode.getDirection()) < 0) { // other direction
+                twoToOne = twoNode.aDirection;
+            } else {
+                twoToOne = twoNode.bDirection;
+            }
 
-    private static void updateNetwork(NetworkNode thisNode, NetworkNode targetNode) {
-        if (thisNode.isNetworkCritical()) {
-            // one of these is targetNode
-            for (Direction entry : thisNode.aDirection) {
-                entry.adjacent.updateNetworkTo(thisNode, thisNode, 0, false);
+            // entangle the occupied setting of the tracks involved
+            for (Direction direction : oneToTwo) {
+                TrackPiece.entangleTrackOccupation(track, direction.trackPiece);
             }
-            for (Direction entry : thisNode.bDirection) {
-                entry.adjacent.updateNetworkTo(thisNode, thisNode, 0, true);
+
+            for (Direction direction : twoToOne) {
+                TrackPiece.entangleTrackOccupation(track, direction.trackPiece);
             }
 
-        } else if (thisNode.isStraight()) {
-            List<Direction> otherDirections = thisNode.getNext(targetNode);
-            assert otherDirections.size() == 1;
-            Direction entryOfOther = otherDirections.get(0);
+            Direction oneEntry = new Direction(twoNode, track);
+            Direction twoEntry = new Direction(oneNode, track);
+            oneToTwo.add(oneEntry);
+            twoToOne.add(twoEntry);
+            newDirections.add(oneEntry);
+            newDirections.add(twoEntry);
+        }
 
-            NetworkNode network = entryOfOther.network;
-            if (network == null || !network.isNetworkCritical()) {
-                // edge case of a loop
-                Logger.DEBUG.print("Loop detected");
-                targetNode.updateNetworkTo(thisNode, null, 0, false);
-                entryOfOther.adjacent.updateNetworkTo(thisNode, null, 0, false);
+        topologyVersion.incrementAndGet();
+        updateSegments(changedNodes, newDirections);
 
-            } else {
-                targetNode.updateNetworkTo(thisNode, network, entryOfOther.distanceToNetworkNode, entryOfOther.networkIsInDirection);
-            }
+        for (NetworkNode node : changedNodes.keySet()) {
+            assert check(node);
         }
     }
 
@@ -360,16 +291,14 @@ public class NetworkNode implements Serializable {
     public static TrackPiece removeConnection(NetworkNode aNode, NetworkNode bNode) {
         assert aNode.getEntryOf(bNode) != null && bNode.getEntryOf(aNode) != null;
 
-        boolean aWasCritical = aNode.isNetworkCritical();
-        boolean bWasCritical = bNode.isNetworkCritical();
-        List<Direction> aToOther = aNode.getNext(bNode);
-        List<Direction> bToOther = bNode.getNext(aNode);
+        Map<NetworkNode, Boolean> changedNodes = new IdentityHashMap<>();
+        changedNodes.put(aNode, aNode.isNetworkCritical());
+        changedNodes.put(bNode, bNode.isNetworkCritical());
 
         TrackPiece oldPiece = aNode.removeNode(bNode);
         TrackPiece sameOldPiece = bNode.removeNode(aNode);
 
-        aNode.postRemoveCheck(aWasCritical, aToOther);
-        bNode.postRemoveCheck(bWasCritical, bToOther);
+        updateSegments(changedNodes, Collections.emptySet());
 
         assert check(aNode);
         assert check(bNode);
@@ -381,6 +310,59 @@ public class NetworkNode implements Serializable {
         return oldPiece;
     }
 
+    /**
+     * walks the segments that may have changed by a change in connections of the given nodes, and notifies the
+     * listeners of these segments. A node that stays network-critical keeps its other segments, hence of such a node only
+     * the segments starting with a new direction are walked.
+     * @param changedNodes  the nodes with changed connections, each mapped to whether it was network-critical before
+     * @param newDirections the directions added by the change
+     */
+    private static void updateSegments(Map<NetworkNode, Boolean> changedNodes, Set<Direction> newDirections) {
+        List<Segment> segments = new ArrayList<>();
+        Set<Direction> walked = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (Map.Entry<NetworkNode, Boolean> change : changedNodes.entrySet()) {
+            NetworkNode node = change.getKey();
+            boolean wasCritical = change.getValue();
+
+            if (node.isNetworkCritical()) {
+                for (Direction direction : node.getAllEntries()) {
+                    if (walked.contains(direction)) continue;
+                    if (wasCritical && !newDirections.contains(direction)) continue;
+
+                    segments.add(Segment.walk(node, direction, walked));
+                }
+
+            } else if (!walked.contains(node.aDirection.get(0))) {
+                segments.add(Segment.through(node, walked));
+            }
+        }
+
+        for (TopologyListener listener : topologyListeners) {
+            listener.onTopologyChange(segments);
+        }
+    }
+
+    /**
+     * adds a listener that is notified of every change in connections between nodes, on the thread making the change
+     * @param listener the listener to add
+     */
+    public static void addTopologyListener(TopologyListener listener) {
+        topologyListeners.add(listener);
+    }
+
+    public static void removeTopologyListener(TopologyListener listener) {
+        topologyListeners.remove(listener);
+    }
+
+    /**
+     * @return a number that changes whenever any connection between network nodes is added, removed or replaced. Paths
+     * computed on the network remain valid as long as this value does not change.
+     */
+    public static long getTopologyVersion() {
+        return topologyVersion.get();
+    }
+
     // checks some assumptions about the given node, and eitehr throws or returns true
     public static boolean check(NetworkNode aNode) {
         if (!aNode.isNetworkCritical() && aNode.isSwitch()) {
@@ -434,59 +416,44 @@ public class NetworkNode implements Serializable {
         assert check(oneNode);
         assert check(twoNode);
 
-        replaceEntry(oneNode, twoNode, newNode, oneTrack);
-        replaceEntry(twoNode, oneNode, newNode, twoTrack);
+        Map<NetworkNode, Boolean> changedNodes = new IdentityHashMap<>();
+        changedNodes.put(oneNode, oneNode.isNetworkCritical());
+        changedNodes.put(twoNode, twoNode.isNetworkCritical());
+        changedNodes.put(newNode, newNode.isNetworkCritical());
+
+        Set<Direction> newDirections = Collections.newSetFromMap(new IdentityHashMap<>());
+        newDirections.addAll(replaceEntry(oneNode, twoNode, newNode, oneTrack));
+        newDirections.addAll(replaceEntry(twoNode, oneNode, newNode, twoTrack));
+        updateSegments(changedNodes, newDirections);
 
         assert check(oneNode);
         assert check(twoNode);
         assert check(newNode);
     }
 
-    public static void replaceEntry(
+    /**
+     * replaces the connection of oneNode to twoNode with a connection of oneNode to newNode via the given track. The
+     * segments are not updated.
+     * @return the two new directions
+     */
+    private static List<Direction> replaceEntry(
             NetworkNode oneNode, NetworkNode twoNode, NetworkNode newNode, TrackPiece track
     ) {
-        int twoIndex;
+        topologyVersion.incrementAndGet();
         List<Direction> oneList = oneNode.aDirection;
-        List<Direction> otherList = oneNode.bDirection;
 
-        twoIndex = getIndexOf(oneList, twoNode);
+        int twoIndex = getIndexOf(oneList, twoNode);
         if (twoIndex == -1) {
             oneList = oneNode.bDirection;
-            otherList = oneNode.aDirection;
             twoIndex = getIndexOf(oneList, twoNode);
 
             assert twoIndex != -1 : "nodes are not connected";
         }
 
-        Direction entryOneToTwo = oneList.get(twoIndex);
-        oneList.set(twoIndex, new Direction(
-                newNode, track, entryOneToTwo.network,
-                entryOneToTwo.distanceToNetworkNode, entryOneToTwo.networkIsInDirection
-        ));
-
-        NetworkNode networkNode;
-        float distanceToNetworkOfNewToOne;
-        boolean isInDirection;
-
-        if (oneNode.isNetworkCritical()) {
-            networkNode = oneNode;
-            distanceToNetworkOfNewToOne = track.getLength();
-            isInDirection = (oneList == oneNode.bDirection);
-
-        } else if (oneNode.isEnd()) {
-            networkNode = null;
-            distanceToNetworkOfNewToOne = 0;
-            isInDirection = false;
-
-        } else {
-            assert oneNode.isStraight() : oneNode;  // !isEnd() && !isSwitch() assuming (!isNetworkCritical() => !isSwitch())
-            Direction direction = otherList.get(0);
-            networkNode = direction.network;
-            distanceToNetworkOfNewToOne = direction.distanceToNetworkNode + track.getLength();
-            isInDirection = direction.networkIsInDirection;
-        }
+        Direction oneToNew = new Direction(newNode, track);
+        oneList.set(twoIndex, oneToNew);
 
-        Direction newEntry = new Direction(oneNode, track, networkNode, distanceToNetworkOfNewToOne, isInDirection);
+        Direction newToOne = new Direction(oneNode, track);
 
         RailNode node = track.getStartNode();
         boolean trackStartsWithNew = node.getNetworkNode().equals(newNode);
@@ -510,7 +477,8 @@ public class NetworkNode implements Serializable {
             }
         }
 
-        list.add(newEntry);
+        list.add(newToOne);
+        return List.of(oneToNew, newToOne);
     }
 
     public Set<NetworkNode> getAllNodes(NetworkNode startNode) {
@@ -606,17 +574,27 @@ public class NetworkNode implements Serializable {
         public boolean networkIsInDirection;
         /** distance between networkNode and the owner of this Direction via this track piece */
         public float distanceToNetworkNode;
+        private Segment segment;
 
-        private Direction(
-                NetworkNode adjacent, TrackPiece trackPiece, NetworkNode network, float distanceToNetworkNode,
-                boolean networkIsInDirection
-        ) {
-            assert !Float.isNaN(distanceToNetworkNode);
+        private Direction(NetworkNode adjacent, TrackPiece trackPiece) {
             this.adjacent = adjacent;
             this.trackPiece = trackPiece;
+            this.network = null;
+            this.distanceToNetworkNode = 0;
+            this.networkIsInDirection = false;
+        }
+
+        /** @return the segment containing the track of this direction */
+        public Segment getSegment() {
+            return segment;
+        }
+
+        private void set(NetworkNode network, float distanceToNetworkNode, boolean networkIsInDirection, Segment segment) {
+            assert !Float.isNaN(distanceToNetworkNode);
             this.network = network;
             this.distanceToNetworkNode = distanceToNetworkNode;
             this.networkIsInDirection = networkIsInDirection;
+            this.segment = segment;
         }
 
         @Override
@@ -626,4 +604,135 @@ public class NetworkNode implements Serializable {
                     "{" + trackPiece.getClass().getSimpleName() + ", " + adjacent + ", " + distanceToNetworkNode + "}";
         }
     }
+
+    /**
+     * A chain of tracks between two network-critical nodes, with only straight nodes in between. A loop of straight
+     * nodes without any critical node forms a segment without ends. Segments are replaced, not modified, when the
+     * network changes.
+     */
+    public static class Segment implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final NetworkNode start;
+        private final NetworkNode end;
+        private final List<TrackPiece> tracks;
+        private final float length;
+
+        private Segment(NetworkNode start, NetworkNode end, List<TrackPiece> tracks, float length) {
+            this.start = start;
+            this.end = end;
+            this.tracks = tracks;
+            this.length = length;
+        }
+
+        /** @return the critical node where the first track starts, or null if this segment is a loop */
+        public NetworkNode getStart() {
+            return start;
+        }
+
+        /** @return the critical node where the last track ends, or null if this segment is a loop */
+        public NetworkNode getEnd() {
+            return end;
+        }
+
+        /** @return the tracks of this segment, in order from start to end */
+        public List<TrackPiece> getTracks() {
+            return Collections.unmodifiableList(tracks);
+        }
+
+        public float getLength() {
+            return length;
+        }
+
+        /**
+         * finds and walks the segment through the given straight node
+         * @param walked the directions of previously walked segments, to which the directions of the new segment are
+         *               added
+         */
+        private static Segment through(NetworkNode node, Set<Direction> walked) {
+            assert node.isStraight() : node;
+
+            // walk to a critical node, and start from there
+            NetworkNode current = node;
+            Direction direction = node.aDirection.get(0);
+            do {
+                NetworkNode next = direction.adjacent;
+                if (next.isNetworkCritical()) {
+                    return walk(next, next.getEntryOf(direction.trackPiece), walked);
+                }
+
+                direction = next.getNext(direction.trackPiece).get(0);
+                current = next;
+            } while (current != node);
+
+            // a loop without critical nodes
+            return walk(node, node.aDirection.get(0), walked);
+        }
+
+        /**
+         * walks the segment that leaves start via the given direction, and sets the network nodes and distances of all
+         * directions on the way.
+         * @param start  a critical node, or any node of a loop without critical nodes
+         * @param first  the direction of start to walk
+         * @param walked the directions of previously walked segments, to which the directions of the new segment are
+         *               added
+         */
+        private static Segment walk(NetworkNode start, Direction first, Set<Direction> walked) {
+            List<Direction> forward = new ArrayList<>();
+            List<Direction> backward = new ArrayList<>();
+            List<TrackPiece> tracks = new ArrayList<>();
+            float length = 0;
+
+            Direction direction = first;
+            NetworkNode end;
+            while (true) {
+                TrackPiece track = direction.trackPiece;
+                NetworkNode next = direction.adjacent;
+                forward.add(direction);
+                backward.add(next.getEntryOf(track));
+                tracks.add(track);
+                length += track.getLength();
+
+                if (next.isNetworkCritical()) {
+                    end = next;
+                    break;
+
+                } else if (next == start) {
+                    end = null; // a loop without critical nodes
+                    break;
+                }
+
+                direction = next.getNext(track).get(0);
+            }
+
+            boolean isLoop = (end == null);
+            Segment segment = new Segment(isLoop ? null : start, end, tracks, length);
+            boolean endIsInDirection = !isLoop && end.bDirection.contains(backward.get(backward.size() - 1));
+            boolean startIsInDirection = !isLoop && start.bDirection.contains(first);
+
+            float offset = 0;
+            for (int i = 0; i < tracks.size(); i++) {
+                Direction toEnd = forward.get(i);
+                toEnd.set(end, isLoop ? 0 : length - offset, endIsInDirection, segment);
+
+                offset += tracks.get(i).getLength();
+                Direction toStart = backward.get(i);
+                toStart.set(isLoop ? null : start, isLoop ? 0 : offset, startIsInDirection, segment);
+
+                walked.add(toEnd);
+                walked.add(toStart);
+            }
+
+            return segment;
+        }
+    }
+
+    /** is notified of changes in the connections of the network */
+    public interface TopologyListener {
+        /**
+         * is called after connections between nodes have changed
+         * @param changedSegments the segments that have been created or changed. Segments of removed tracks are not
+         *                        included.
+         */
+        void onTopologyChange(Collection<Segment> changedSegments);
+    }
 }
@@ -3,6 +3,7 @@ package NG.Network;
 import NG.Core.Game;
 import NG.Core.GameObject;
 import NG.Tools.Vectors;
+import NG.Tracks.RailTools;
 import NG.Tracks.TrackPiece;
 import NG.Tracks.TrackSupport;
 import NG.Tracks.TrackType;
@@ -127,12 +128,14 @@ public class RailNode implements Serializable, GameObject {
     public Signal addSignal(Game game, boolean inNodeDirection) {
         this.signal = new SignalEntity(game, this, inNodeDirection, true);
         game.state().addEntity(signal);
+        RailTools.invalidateSignals(this);
         return signal;
     }
 
     public void removeSignal(Game game) {
         signal.despawn(game.timer().getGameTime());
         signal = null;
+        RailTools.invalidateSignals(this);
     }
 
     public List<NetworkNode.Direction> getEntriesFromDirection(Vector3fc nodeDirection) {
@@ -0,0 +1,175 @@
+package NG.Network;
+
+import NG.Tracks.TrackPiece;
+
+import java.util.*;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Records which holder, usually a train, has reserved which track pieces since which time. A track counts as reserved
+ * if it is reserved itself, or if a track {@link TrackPiece#entangleTrackOccupation(TrackPiece, TrackPiece) entangled}
+ * with it is reserved. Both are looked up in constant time. A reservation of multiple tracks is atomic: either all
+ * tracks are reserved, or none is. A reservation that fails because another holder holds a track is counted as a
+ * conflict. This class is not thread-safe, and should only be used on the game loop.
+ */
+public class ReservationTable {
+    private final DoubleSupplier clock;
+    private final Map<TrackPiece, Reservation> reservations = new IdentityHashMap<>();
+    /** for each track, the number of reserved tracks that are entangled with it */
+    private final Map<TrackPiece, Integer> nrOfEntangledReservations = new IdentityHashMap<>();
+    private final Map<Object, Set<TrackPiece>> tracksOfHolder = new IdentityHashMap<>();
+    private long nrOfConflicts = 0;
+
+    /**
+     * @param clock supplies the game time of new reservations
+     */
+    public ReservationTable(DoubleSupplier clock) {
+        this.clock = clock;
+    }
+
+    /** @return true iff the given track or a track entangled with it is reserved */
+    public boolean isReserved(TrackPiece track) {
+        return reservations.containsKey(track) || nrOfEntangledReservations.containsKey(track);
+    }
+
+    /** @return the holder of the reservation of the given track, or null if the track itself is not reserved */
+    public Object getHolder(TrackPiece track) {
+        Reservation reservation = reservations.get(track);
+        return reservation == null ? null : reservation.holder;
+    }
+
+    /** @return the game time since which the given track is reserved, or NaN if the track itself is not reserved */
+    public double getReservedSince(TrackPiece track) {
+        Reservation reservation = reservations.get(track);
+        return reservation == null ? Double.NaN : reservation.since;
+    }
+
+    /**
+     * @return true iff the given track could be reserved by the given holder, as it is neither reserved by another
+     * holder nor entangled with a reserved track
+     */
+    public boolean canReserve(Object holder, TrackPiece track) {
+        Reservation reservation = reservations.get(track);
+        return reservation == null ? !nrOfEntangledReservations.containsKey(track) : reservation.holder == holder;
+    }
+
+    /**
+     * reserves all given tracks for the given holder, or none of them if any of the tracks is reserved by another
+     * holder. Tracks that the holder already reserved keep their reservation.
+     * @param holder the object that reserves the tracks
+     * @param tracks the tracks to reserve
+     * @return true iff all tracks are now reserved by the holder
+     */
+    public boolean reserve(Object holder, Collection<TrackPiece> tracks) {
+        for (TrackPiece track : tracks) {
+            if (!canReserve(holder, track)) {
+                nrOfConflicts++;
+                return false;
+            }
+        }
+
+        double time = clock.getAsDouble();
+        Set<TrackPiece> holderTracks = tracksOfHolder.computeIfAbsent(
+                holder, h -> Collections.newSetFromMap(new IdentityHashMap<>())
+        );
+
+        for (TrackPiece track : tracks) {
+            if (reservations.containsKey(track)) continue;
+
+            TrackPiece[] entangled = track.getEntangledTracks().toArray(new TrackPiece[0]);
+            for (TrackPiece other : entangled) {
+                nrOfEntangledReservations.merge(other, 1, Integer::sum);
+            }
+
+            reservations.put(track, new Reservation(holder, time, entangled));
+            holderTracks.add(track);
+            track.onReservationChange(true);
+        }
+
+        return true;
+    }
+
+    /**
+     * releases the given track if it is reserved by the given holder
+     * @param holder the holder of the reservation
+     * @param track  the track to release
+     */
+    public void release(Object holder, TrackPiece track) {
+        Reservation reservation = reservations.get(track);
+        if (reservation == null || reservation.holder != holder) return;
+
+        remove(track, reservation);
+
+        Set<TrackPiece> holderTracks = tracksOfHolder.get(holder);
+        holderTracks.remove(track);
+        if (holderTracks.isEmpty()) tracksOfHolder.remove(holder);
+    }
+
+    /**
+     * releases each of the given tracks that is reserved by the given holder
+     * @param holder the holder of the reservations
+     * @param tracks the tracks to release
+     */
+    public void release(Object holder, Collection<TrackPiece> tracks) {
+        for (TrackPiece track : tracks) {
+            release(holder, track);
+        }
+    }
+
+    /**
+     * releases all tracks reserved by the given holder
+     * @param holder the holder of the reservations
+     */
+    public void releaseAll(Object holder) {
+        Set<TrackPiece> holderTracks = tracksOfHolder.remove(holder);
+        if (holderTracks == null) return;
+
+        for (TrackPiece track : holderTracks) {
+            remove(track, reservations.get(track));
+        }
+    }
+
+    private void remove(TrackPiece track, Reservation reservation) {
+        reservations.remove(track);
+
+        for (TrackPiece other : reservation.entangled) {
+            nrOfEntangledReservations.computeIfPresent(other, (t, n) -> n == 1 ? null : n - 1);
+        }
+
+        track.onReservationChange(false);
+    }
+
+    /** @return the tracks reserved by the given holder */
+    public Collection<TrackPiece> getTracksOf(Object holder) {
+        Set<TrackPiece> holderTracks = tracksOfHolder.get(holder);
+        return holderTracks == null ? Collections.emptySet() : Collections.unmodifiableSet(holderTracks);
+    }
+
+    /** @return the number of reservations that failed because another holder reserved one of the tracks */
+    public long getNrOfConflicts() {
+        return nrOfConflicts;
+    }
+
+    public void clear() {
+        for (TrackPiece track : reservations.keySet()) {
+            track.onReservationChange(false);
+        }
+
+        reservations.clear();
+        nrOfEntangledReservations.clear();
+        tracksOfHolder.clear();
+    }
+
+    private static class Reservation {
+        final Object holder;
+        final double since;
+        /** the tracks entangled with the reserved track at the moment of reservation */
+        final TrackPiece[] entangled;
+
+        Reservation(Object holder, double since, TrackPiece[] entangled) {
+            this.holder = holder;
+            this.since = since;
+            this.entangled = entangled;
+        }
+    }
+}
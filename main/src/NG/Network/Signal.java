@@ -1,8 +1,10 @@
 package NG.Network;
 
 import NG.DataStructures.Generic.Pair;
+import NG.GameState.PathFindingService;
 import NG.Tools.NetworkPathFinder;
 import NG.Tools.Toolbox;
+import NG.Tracks.RailTools;
 import NG.Tracks.TrackPiece;
 
 import java.io.Serializable;
@@ -40,11 +42,13 @@ public class Signal implements Serializable {
      * @param targets         the target supplier, which should give a next target given a scheduling depth.
      * @param inSameDirection whether the path should be calculated in the direction of the railnode. false iff {@link
      *                        #getNode()}{@link RailNode#isInDirectionOf(TrackPiece) .isInDirectionOf(previousTrack)}
-     * @return a path from hostNode, via any possible targets, to a signal. Returns null if no such path exists.
+     * @param pathFinding     the service that provides the distances to the targets
+     * @return a path from hostNode, via any possible targets, to a signal. Returns null if no such path exists, or if
+     * the distances to the target are still being computed.
      * Guaranteed is {@code path == null || path.getLast().hasSignal()}
      */
     private Pair<TrackPath, Float> getPath(
-            Function<Integer, NetworkPosition> targets, boolean inSameDirection
+            Function<Integer, NetworkPosition> targets, boolean inSameDirection, PathFindingService pathFinding
     ) {
         HashMap<Signal, TrackPath> signals = new HashMap<>();
         HashMap<NetworkNode, TrackPath> nodes = new HashMap<>();
@@ -126,7 +130,9 @@ public class Signal implements Serializable {
 
             TrackPiece lastTrack = pathToSignal.path.getLast();
             if (signal.allowsPassingFrom(lastTrack)) {
-                float totalDist = getPathToTargetLength(target, signal, pathToSignal, false);
+                float totalDist = getPathToTargetLength(target, signal, pathToSignal, false, pathFinding);
+                // wait until the distances are computed, rather than choosing a path without them
+                if (Float.isNaN(totalDist)) return null;
 
                 if (totalDist < leastDistance) {
                     leastDistance = totalDist;
@@ -151,7 +157,8 @@ public class Signal implements Serializable {
     }
 
     private float getPathToTargetLength(
-            NetworkPosition target, Signal other, TrackPath pathToSignal, boolean doRevert
+            NetworkPosition target, Signal other, TrackPath pathToSignal, boolean doRevert,
+            PathFindingService pathFinding
     ) {
         TrackPiece lastTrack = pathToSignal.path.getLast();
         NetworkNode otherNetwork = other.hostNode.getNetworkNode();
@@ -174,98 +181,86 @@ public class Signal implements Serializable {
             inDirection = direction.networkIsInDirection;
         }
 
-        NetworkPathFinder pathFinder = new NetworkPathFinder(startNode, inDirection, target);
-        NetworkPathFinder.Path pathNetworkToTarget = pathFinder.call();
+        float networkToTargetLength = pathFinding.getDistance(startNode, inDirection, target);
 
-        if (pathNetworkToTarget == null) {
+        if (Float.isNaN(networkToTargetLength)) {
+            return Float.NaN; // the distance field is not computed yet
+        }
+
+        if (networkToTargetLength == POSITIVE_INFINITY) {
             return POSITIVE_INFINITY; // no path exists
         }
 
-        return pathToSignal.adjLength() + signalToNetworkLength + pathNetworkToTarget.getPathLength();
+        return pathToSignal.adjLength() + signalToNetworkLength + networkToTargetLength;
     }
 
     /**
-     * collects the paths to all signals and nodes in the given direction
+     * collects the paths to all signals and nodes in the given direction, from the {@link SignalBlocks} of node.
      * @param node        the node to analyse
      * @param sourceTrack the track where we are coming from, which is connected to node
      * @param signals     the map [signals -> the shortest path to this signal], where signal is null for an
      *                    end-of-the-line.
      * @param nodes       the map [nodes -> the shortest path to this node] for all nodes
-     * @param pathToNode  path to node
+     * @param pathToNode  path to node, which is either empty or only contains sourceTrack
      */
     private void collectPaths(
             RailNode node, TrackPiece sourceTrack, Map<Signal, TrackPath> signals,
             Map<NetworkNode, TrackPath> nodes, TrackPath pathToNode
     ) {
-        NetworkNode networkNode = node.getNetworkNode();
-        // track all critical nodes
-        if (networkNode.isNetworkCritical()) {
-            TrackPath original = nodes.get(networkNode);
-            if (original == null || original.adjLength() > pathToNode.adjLength()) {
-                nodes.put(networkNode, new TrackPath(pathToNode));
-            }
-        }
+        SignalBlocks.Block block = SignalBlocks.get(node, sourceTrack, !pathToNode.path.isEmpty());
 
-        if (node.hasSignal()) {
-            Signal sig = node.getSignal();
-            // only add it to the planning if we should recognize it
-            // if the signal is in opposite direction, we may recognize it as a place to stop
-            if (node.isInDirectionOf(sourceTrack) != sig.inNodeDirection || !sig.allowOppositeTraffic) {
-                TrackPath original = signals.get(sig);
-                if (original == null || original.adjLength() > pathToNode.adjLength()) {
-                    signals.put(sig, new TrackPath(pathToNode));
+        for (SignalBlocks.Route route : block.routes) {
+            boolean isOccupied = pathToNode.isOccupied || route.isOccupied();
+            float adjLength = pathToNode.length + route.length + (isOccupied ? TRACK_OCCUPATION_PENALTY : 0);
+
+            if (route.signal != null) {
+                TrackPath original = signals.get(route.signal);
+                if (original == null || original.adjLength() > adjLength) {
+                    signals.put(route.signal, new TrackPath(pathToNode, route, isOccupied));
                 }
 
-                return;
+            } else {
+                TrackPath original = nodes.get(route.node);
+                if (original == null || original.adjLength() > adjLength) {
+                    nodes.put(route.node, new TrackPath(pathToNode, route, isOccupied));
+                }
             }
         }
+    }
 
-        assert !networkNode.isEnd() : "End of track has no EOL signal";
-
-        // we continue searching further
-        List<NetworkNode.Direction> directions = networkNode.getNext(sourceTrack);
-        boolean wasOccupied = pathToNode.isOccupied;
-
-        for (NetworkNode.Direction entry : directions) {
-            TrackPiece trackPiece = entry.trackPiece;
-
-            // loop without signals: prevent infinite loops
-            if (pathToNode.path.contains(trackPiece)) return;
-
-            float trackPieceLength = trackPiece.getLength();
-            pathToNode.path.addLast(trackPiece);
-            pathToNode.length += trackPieceLength;
-            if (trackPiece.isOccupied()) pathToNode.isOccupied = true;
-
-            collectPaths(trackPiece.getNot(node), trackPiece, signals, nodes, pathToNode);
-
-            pathToNode.path.removeLast();
-            pathToNode.length -= trackPieceLength;
-            pathToNode.isOccupied = wasOccupied;
-        }
+    /**
+     * @param arrivalTrack the track where a train arrives from, connected to the node of this signal
+     * @return true iff a train arriving from the given track should treat this signal as the end of its path
+     */
+    public boolean stopsTrafficFrom(TrackPiece arrivalTrack) {
+        return hostNode.isInDirectionOf(arrivalTrack) != inNodeDirection || !allowOppositeTraffic;
     }
 
     /**
      * computes a path p to another signal such that p.getFirst() is the first track on the path and p.getLast() is the
      * last track on the path. This path is a section of the shortest available path towards target. Each element is
-     * reserved, and should be freed whenever it is passed, as {@link TrackPiece#setOccupied(boolean)
-     * track.setOccupied(false)}.
+     * reserved for the given holder in the given table, and should be released whenever it is passed.
      * <p>
      * If the path is not empty, then it starts and ends with a signal, with no signal inbetween.
      * @param trackDirection indicates whether the starting direction is the same as the direction of {@link
      *                       #getNode()}
      * @param targetFunction
-     * @return a path from here to the next signal on the shortest available path toward target.
+     * @param pathFinding    the service that provides the distances to the targets
+     * @param reservations   the table to reserve the path in
+     * @param holder         the object that holds the reservation
+     * @return a path from here to the next signal on the shortest available path toward target. The path is empty if
+     * no path is available, or if the distances to the target are still being computed.
      */
     public Deque<TrackPiece> reservePath(
-            Direction trackDirection, Function<Integer, NetworkPosition> targetFunction
+            Direction trackDirection, Function<Integer, NetworkPosition> targetFunction, PathFindingService pathFinding,
+            ReservationTable reservations, Object holder
     ) {
         Pair<TrackPath, Float> path;
 
         switch (trackDirection) {
             case IN_DIRECTION:
                 if (inNodeDirection || allowOppositeTraffic) {
-                    path = getPath(targetFunction, true);
+                    path = getPath(targetFunction, true, pathFinding);
                 } else {
                     path = null;
                 }
@@ -274,7 +269,7 @@ public class Signal implements Serializable {
 
             case AGAINST_DIRECTION:
                 if (!inNodeDirection || allowOppositeTraffic) {
-                    path = getPath(targetFunction, false);
+                    path = getPath(targetFunction, false, pathFinding);
                 } else {
                     path = null;
                 }
@@ -282,8 +277,8 @@ public class Signal implements Serializable {
                 break;
 
             case BOTH_DIRECTIONS:
-                Pair<TrackPath, Float> pathInDirection = getPath(targetFunction, true);
-                Pair<TrackPath, Float> pathAgainstDirection = allowOppositeTraffic ? getPath(targetFunction, false) : null;
+                Pair<TrackPath, Float> pathInDirection = getPath(targetFunction, true, pathFinding);
+                Pair<TrackPath, Float> pathAgainstDirection = allowOppositeTraffic ? getPath(targetFunction, false, pathFinding) : null;
 
                 if (pathInDirection == null) {
                     path = pathAgainstDirection;
@@ -304,26 +299,9 @@ public class Signal implements Serializable {
         }
 
         if (path == null || path.left.isOccupied) return Signal.getEmptyPath();
-        return reserve(path.left);
-    }
-
-    private Deque<TrackPiece> reserve(TrackPath pathToBest) {
-        for (TrackPiece piece : pathToBest.path) {
-            assert !piece.isOccupied();
-            piece.setOccupied(true);
-        }
+        if (!reservations.reserve(holder, path.left.path)) return Signal.getEmptyPath();
 
-        return pathToBest.path;
-    }
-
-    private Deque<TrackPiece> reserve(TrackPath... pathsToBest) {
-        Deque<TrackPiece> combinedPath = new ArrayDeque<>();
-
-        for (TrackPath trackPath : pathsToBest) {
-            combinedPath.addAll(reserve(trackPath));
-        }
-
-        return combinedPath;
+        return path.left.path;
     }
 
     private List<TrackPiece> convertPath(TrackPiece previousTrack, NetworkPathFinder.Path pathToBest) {
@@ -354,10 +332,12 @@ public class Signal implements Serializable {
 
     protected void revert() {
         inNodeDirection = !inNodeDirection;
+        RailTools.invalidateSignals(hostNode);
     }
 
     public void allowOppositeTraffic(boolean doAllow) {
         this.allowOppositeTraffic = doAllow;
+        RailTools.invalidateSignals(hostNode);
     }
 
     private static ArrayDeque<TrackPiece> getEmptyPath() {
@@ -385,6 +365,15 @@ public class Signal implements Serializable {
             this.isOccupied = other.isOccupied;
         }
 
+        /** creates the path of the given route, appended to the given start of the route */
+        public TrackPath(TrackPath start, SignalBlocks.Route route, boolean isOccupied) {
+            this.path = new ArrayDeque<>(start.path.size() + route.tracks.length);
+            this.path.addAll(start.path);
+            Collections.addAll(this.path, route.tracks);
+            this.length = start.length + route.length;
+            this.isOccupied = isOccupied;
+        }
+
         public TrackPath(TrackPiece... initial) {
             this.path = new ArrayDeque<>(initial.length);
             this.length = 0;
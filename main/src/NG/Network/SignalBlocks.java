@@ -0,0 +1,148 @@
+package NG.Network;
+
+import NG.Tracks.RailTools;
+import NG.Tracks.TrackPiece;
+
+import java.util.*;
+
+/**
+ * A cache of the routes through signal blocks. For a node and the track where a train comes from, a {@link Block}
+ * holds every track sequence up to the first signal that stops it, and every sequence to a network-critical node on
+ * the way, with their lengths. Occupation changes often, and is checked when the routes are used. Blocks are dropped
+ * by {@link #invalidate(RailNode)} for the nodes that a change in tracks or signals may affect, and rebuilt on first
+ * use. Changes in connections are received as a {@link NetworkNode.TopologyListener}. All methods are thread-safe.
+ */
+public final class SignalBlocks {
+    private static final Map<RailNode, List<Block>> blocks = new IdentityHashMap<>();
+    private static long nrOfBuilds = 0;
+
+    static {
+        NetworkNode.addTopologyListener(RailTools::invalidateSignals);
+    }
+
+    private SignalBlocks() {
+    }
+
+    /**
+     * returns the routes starting at the given node, coming from the given track.
+     * @param node           the node to start from
+     * @param sourceTrack    the track where we are coming from, which is connected to node
+     * @param includesSource whether routes may not loop back over sourceTrack
+     * @return the block of these parameters
+     */
+    public static synchronized Block get(RailNode node, TrackPiece sourceTrack, boolean includesSource) {
+        List<Block> nodeBlocks = blocks.computeIfAbsent(node, n -> new ArrayList<>(2));
+
+        for (Block block : nodeBlocks) {
+            if (block.sourceTrack == sourceTrack && block.includesSource == includesSource) return block;
+        }
+
+        Block block = new Block(node, sourceTrack, includesSource);
+        nodeBlocks.add(block);
+        nrOfBuilds++;
+        return block;
+    }
+
+    /**
+     * drops all blocks starting at the given node
+     * @param node the node of which the routes may have changed
+     */
+    public static synchronized void invalidate(RailNode node) {
+        blocks.remove(node);
+    }
+
+    /** drops all blocks */
+    public static synchronized void clear() {
+        blocks.clear();
+    }
+
+    /** @return the number of blocks built since the start of the game */
+    public static synchronized long getNrOfBuilds() {
+        return nrOfBuilds;
+    }
+
+    /**
+     * The routes from one node in one direction, in the order of a depth-first search. A route ends at a signal if
+     * {@link Route#signal} is not null, and otherwise at the network-critical node {@link Route#node}.
+     */
+    public static class Block {
+        public final List<Route> routes = new ArrayList<>();
+        private final TrackPiece sourceTrack;
+        private final boolean includesSource;
+
+        private Block(RailNode node, TrackPiece sourceTrack, boolean includesSource) {
+            this.sourceTrack = sourceTrack;
+            this.includesSource = includesSource;
+
+            Deque<TrackPiece> path = new ArrayDeque<>();
+            if (includesSource) path.add(sourceTrack);
+            collectRoutes(node, sourceTrack, path, 0);
+        }
+
+        private void collectRoutes(RailNode node, TrackPiece sourceTrack, Deque<TrackPiece> path, float length) {
+            NetworkNode networkNode = node.getNetworkNode();
+            // track all critical nodes
+            if (networkNode.isNetworkCritical()) {
+                routes.add(new Route(getTracks(path), length, null, networkNode));
+            }
+
+            if (node.hasSignal()) {
+                Signal signal = node.getSignal();
+                // if the signal is in opposite direction, we may recognize it as a place to stop
+                if (signal.stopsTrafficFrom(sourceTrack)) {
+                    routes.add(new Route(getTracks(path), length, signal, null));
+                    return;
+                }
+            }
+
+            assert !networkNode.isEnd() : "End of track has no EOL signal";
+
+            for (NetworkNode.Direction entry : networkNode.getNext(sourceTrack)) {
+                TrackPiece trackPiece = entry.trackPiece;
+
+                // loop without signals: prevent infinite loops
+                if (path.contains(trackPiece)) return;
+
+                path.addLast(trackPiece);
+                collectRoutes(trackPiece.getNot(node), trackPiece, path, length + trackPiece.getLength());
+                path.removeLast();
+            }
+        }
+
+        private TrackPiece[] getTracks(Deque<TrackPiece> path) {
+            int skip = includesSource ? 1 : 0;
+            TrackPiece[] tracks = new TrackPiece[path.size() - skip];
+            Iterator<TrackPiece> iterator = path.iterator();
+            for (int i = 0; i < skip; i++) {
+                iterator.next();
+            }
+            for (int i = 0; i < tracks.length; i++) {
+                tracks[i] = iterator.next();
+            }
+            return tracks;
+        }
+    }
+
+    /** a track sequence from the start of a block to either a signal or a network-critical node */
+    public static class Route {
+        public final TrackPiece[] tracks;
+        public final float length;
+        public final Signal signal;
+        public final NetworkNode node;
+
+        private Route(TrackPiece[] tracks, float length, Signal signal, NetworkNode node) {
+            this.tracks = tracks;
+            this.length = length;
+            this.signal = signal;
+            this.node = node;
+        }
+
+        /** @return true iff any track of this route is occupied. This changes independently of the block */
+        public boolean isOccupied() {
+            for (TrackPiece track : tracks) {
+                if (track.isOccupied()) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package NG.Rendering;
+
+import NG.DataStructures.Collision.ColliderEntity;
+import NG.Entities.Entity;
+import org.joml.AABBf;
+import org.joml.FrustumIntersection;
+
+import java.util.*;
+
+/**
+ * A two-level hierarchy for frustum culling of entities. Entities with a hitbox are grouped in square regions over the
+ * horizontal plane, and each region keeps the union of the hitboxes of its entities. A region that is completely
+ * outside the frustum is rejected at once, a region that is completely inside is accepted at once, and only the
+ * entities of regions that intersect the frustum are tested individually. Entities without a hitbox are always
+ * accepted.
+ * <p>
+ * Hitboxes are read once when the entity is added, as hitboxes of colliders do not change over time. All methods are
+ * thread-safe.
+ */
+public class CullingGrid {
+    private final float regionSize;
+    private final Map<Long, Region> regions = new HashMap<>();
+    private final Map<Entity, Region> regionOfEntity = new IdentityHashMap<>();
+    private final List<Entity> unbounded = new ArrayList<>();
+
+    private int nrOfVisible = 0;
+    private int nrOfCulled = 0;
+
+    /**
+     * @param regionSize the width and depth of one region, preferably much larger than a typical hitbox
+     */
+    public CullingGrid(float regionSize) {
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * adds the entity to this grid. Adding an entity that is already present has no effect.
+     * @param entity the entity to add
+     */
+    public synchronized void add(Entity entity) {
+        if (regionOfEntity.containsKey(entity)) return;
+
+        if (entity instanceof ColliderEntity) {
+            AABBf hitbox = new AABBf(((ColliderEntity) entity).getHitbox());
+            int x = (int) Math.floor((hitbox.minX + hitbox.maxX) / (2 * regionSize));
+            int y = (int) Math.floor((hitbox.minY + hitbox.maxY) / (2 * regionSize));
+
+            Region region = regions.computeIfAbsent(key(x, y), Region::new);
+            region.add(entity, hitbox);
+            regionOfEntity.put(entity, region);
+
+        } else {
+            unbounded.add(entity);
+            regionOfEntity.put(entity, null);
+        }
+    }
+
+    /**
+     * @param entity the entity to remove
+     * @return true iff the entity was present
+     */
+    public synchronized boolean remove(Entity entity) {
+        if (!regionOfEntity.containsKey(entity)) return false;
+        Region region = regionOfEntity.remove(entity);
+
+        if (region == null) {
+            unbounded.remove(entity);
+
+        } else {
+            region.remove(entity);
+            if (region.isEmpty()) regions.remove(region.key);
+        }
+
+        return true;
+    }
+
+    /**
+     * collects all entities that are possibly visible in the given frustum. The number of accepted and rejected
+     * entities is available afterwards with {@link #getNrOfVisible()} and {@link #getNrOfCulled()}.
+     * @param frustum the frustum to test against, or null to accept all entities
+     * @param visible the list where all accepted entities are added to
+     */
+    public synchronized void collectVisible(FrustumIntersection frustum, List<Entity> visible) {
+        int sizeBefore = visible.size();
+        visible.addAll(unbounded);
+
+        for (Region region : regions.values()) {
+            int result = (frustum == null) ? FrustumIntersection.INSIDE : region.intersect(frustum);
+
+            if (result == FrustumIntersection.INSIDE) {
+                visible.addAll(region.entities);
+
+            } else if (result == FrustumIntersection.INTERSECT) {
+                for (int i = 0; i < region.entities.size(); i++) {
+                    AABBf box = region.hitboxes.get(i);
+                    if (frustum.testAab(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ)) {
+                        visible.add(region.entities.get(i));
+                    }
+                }
+            }
+        }
+
+        nrOfVisible = visible.size() - sizeBefore;
+        nrOfCulled = regionOfEntity.size() - nrOfVisible;
+    }
+
+    /** @return the number of entities accepted by the last call to {@link #collectVisible(FrustumIntersection, List)} */
+    public synchronized int getNrOfVisible() {
+        return nrOfVisible;
+    }
+
+    /** @return the number of entities rejected by the last call to {@link #collectVisible(FrustumIntersection, List)} */
+    public synchronized int getNrOfCulled() {
+        return nrOfCulled;
+    }
+
+    public synchronized int size() {
+        return regionOfEntity.size();
+    }
+
+    public synchronized void clear() {
+        regions.clear();
+        regionOfEntity.clear();
+        unbounded.clear();
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /** a group of entities with their hitboxes, and the union of these hitboxes */
+    private static class Region {
+        private final long key;
+        private final List<Entity> entities = new ArrayList<>();
+        private final List<AABBf> hitboxes = new ArrayList<>();
+        private final AABBf bounds = new AABBf();
+        private boolean boundsAreValid = true;
+
+        Region(long key) {
+            this.key = key;
+        }
+
+        void add(Entity entity, AABBf hitbox) {
+            entities.add(entity);
+            hitboxes.add(hitbox);
+            if (boundsAreValid) bounds.union(hitbox);
+        }
+
+        void remove(Entity entity) {
+            int index = entities.indexOf(entity);
+            int last = entities.size() - 1;
+
+            // move the last element into the gap
+            entities.set(index, entities.get(last));
+            hitboxes.set(index, hitboxes.get(last));
+            entities.remove(last);
+            hitboxes.remove(last);
+
+            // the bounds can only shrink, which is recalculated upon the next query
+            boundsAreValid = false;
+        }
+
+        boolean isEmpty() {
+            return entities.isEmpty();
+        }
+
+        int intersect(FrustumIntersection frustum) {
+            if (!boundsAreValid) {
+                bounds.setMin(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+                bounds.setMax(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+                for (AABBf hitbox : hitboxes) {
+                    bounds.union(hitbox);
+                }
+                boundsAreValid = true;
+            }
+
+            return frustum.intersectAab(bounds.minX, bounds.minY, bounds.minZ, bounds.maxX, bounds.maxY, bounds.maxZ);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package NG.Settings;
 
 import NG.DataStructures.Generic.Color4f;
+import NG.Network.NetworkGraph;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
 
@@ -42,6 +43,9 @@ public class Settings implements Serializable {
     // in-game functional settings
     public static final float TRACK_HEIGHT_ABOVE_GROUND = 0.2f;
     public static int STATION_RANGE = 10;
+    public static NetworkGraph.Heuristic PATH_HEURISTIC = NetworkGraph.Heuristic.EUCLIDEAN;
+    /** nodes per region of hierarchical path finding. Smaller networks, of less than 4 regions, are searched directly */
+    public static int PATH_REGION_SIZE = 128;
     public static final float TRACK_WIDTH = CLICK_BOX_WIDTH / 4;
     public static final float TRACK_HEIGHT_SPACE = 1.0f;
     public static final float TRACK_COLLISION_BOX_LENGTH = 2.0f;
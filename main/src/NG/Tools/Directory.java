@@ -14,6 +14,7 @@ public enum Directory {
     hardMods("mods_hard"),
     softMods("mods_soft"),
     screenshots("Screenshots"),
+    profiles("Profiles"),
     savedGames("Saved maps");
 
     private static Path workingDirectory = null;
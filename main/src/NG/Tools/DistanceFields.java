@@ -0,0 +1,162 @@
+package NG.Tools;
+
+import NG.DataStructures.Generic.Pair;
+import NG.Network.NetworkGraph;
+import NG.Network.NetworkNode;
+import NG.Network.NetworkPosition;
+import NG.Tracks.TrackPiece;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+/**
+ * For each target and graph that is looked up, keeps the distance from every directed network node of that graph to
+ * that target, as computed by {@link NetworkGraph#getDistancesTo(Collection)}. Fields are computed on the given
+ * executor. Until the field of a target is available for the current {@link NetworkGraph}, lookups return NaN and the
+ * caller should either wait or fall back to a {@link NetworkPathFinder}. If computing a field fails, lookups of that
+ * field search the path on the calling thread instead.
+ * <p>
+ * All fields are dropped when the {@link NetworkNode#getTopologyVersion() topology version} of the network changes,
+ * after which they are refreshed lazily in the background. All methods are thread-safe.
+ */
+public class DistanceFields {
+    private final Executor executor;
+    private final Map<Pair<NetworkPosition, NetworkGraph>, Field> fields = new HashMap<>();
+    private long version = NetworkNode.getTopologyVersion();
+    private long nrOfHits = 0;
+    private long nrOfMisses = 0;
+
+    /**
+     * @param executor the executor that computes the fields
+     */
+    public DistanceFields(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * looks up the length of the shortest path from the given node to the given target, as {@link
+     * NetworkPathFinder#NetworkPathFinder(NetworkNode, boolean, NetworkPosition)} with the same arguments would find.
+     * @param node            a network critical node
+     * @param inSameDirection whether the path leaves node in the direction of the node
+     * @param target          the target of the path
+     * @return the length of the path, infinity if no path exists, or NaN if the distance is not available yet
+     */
+    public float getDistance(NetworkNode node, boolean inSameDirection, NetworkPosition target) {
+        List<NetworkNode.Direction> otherDirections = inSameDirection ? node.getEntriesB() : node.getEntriesA();
+        // edge case: end of line, identical to the path finder
+        if (otherDirections.isEmpty()) return 0;
+
+        NetworkGraph graph = NetworkGraph.of(node);
+        int port = graph.getPort(node, otherDirections.get(0).network);
+        if (port < 0) return Float.NaN;
+
+        Field field = getField(graph, target);
+        if (field.isFailed) return getLength(new NetworkPathFinder(node, inSameDirection, target));
+
+        return getDistance(field, port);
+    }
+
+    /**
+     * looks up the length of the shortest path from the given node to the given target, as {@link
+     * NetworkPathFinder#NetworkPathFinder(TrackPiece, NetworkNode, NetworkPosition)} with the same arguments would
+     * find.
+     * @param currentTrack the track that arrives at node
+     * @param node         a network critical node
+     * @param target       the target of the path
+     * @return the length of the path, infinity if no path exists, or NaN if the distance is not available yet
+     */
+    public float getDistance(TrackPiece currentTrack, NetworkNode node, NetworkPosition target) {
+        NetworkGraph graph = NetworkGraph.of(node);
+        int port = graph.getPort(node, node.getEntryOf(currentTrack).network);
+        if (port < 0) return Float.NaN;
+
+        Field field = getField(graph, target);
+        if (field.isFailed) return getLength(new NetworkPathFinder(currentTrack, node, target));
+
+        return getDistance(field, port);
+    }
+
+    /** returns the field of the given target on the given graph, and starts computing it if it is not known */
+    private synchronized Field getField(NetworkGraph graph, NetworkPosition target) {
+        long currentVersion = NetworkNode.getTopologyVersion();
+        if (version != currentVersion) {
+            fields.clear();
+            version = currentVersion;
+        }
+
+        Pair<NetworkPosition, NetworkGraph> key = new Pair<>(target, graph);
+        Field field = fields.get(key);
+
+        if (field == null) {
+            field = new Field(graph);
+            fields.put(key, field);
+            schedule(field, target);
+        }
+
+        return field;
+    }
+
+    private synchronized float getDistance(Field field, int port) {
+        if (field.distances == null) {
+            nrOfMisses++;
+            return Float.NaN;
+        }
+
+        nrOfHits++;
+        return field.distances[port];
+    }
+
+    private static float getLength(NetworkPathFinder pathFinder) {
+        NetworkPathFinder.Path path = pathFinder.call();
+        return (path == null) ? Float.POSITIVE_INFINITY : path.getPathLength();
+    }
+
+    private void schedule(Field field, NetworkPosition target) {
+        // the target nodes are collected on this thread, as stations are not thread-safe
+        List<Pair<NetworkNode, Boolean>> nodes = target.getNodes();
+        Set<NetworkNode> targets = new HashSet<>(nodes.size());
+        for (Pair<NetworkNode, Boolean> node : nodes) {
+            targets.add(node.left);
+        }
+
+        executor.execute(() -> {
+            try {
+                float[] distances = field.graph.getDistancesTo(targets);
+
+                synchronized (this) {
+                    field.distances = distances;
+                }
+
+            } catch (Exception ex) {
+                Logger.ERROR.print(ex);
+                field.isFailed = true;
+            }
+        });
+    }
+
+    public synchronized long getNrOfHits() {
+        return nrOfHits;
+    }
+
+    public synchronized long getNrOfMisses() {
+        return nrOfMisses;
+    }
+
+    public synchronized void clear() {
+        fields.clear();
+    }
+
+    /**
+     * the distances to one target on one graph. The distances are null until they are computed, and stay null if
+     * computing them failed
+     */
+    private static class Field {
+        final NetworkGraph graph;
+        float[] distances = null;
+        volatile boolean isFailed = false;
+
+        Field(NetworkGraph graph) {
+            this.graph = graph;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package NG.Tools;
 import NG.Core.GameTimer;
 
 /**
+ * A timer that advances one tick upon every update of the game loop, independent of the system time.
  * @author Geert van Ieperen created on 13-6-2020.
  */
 public class FixedTimer extends GameTimer {
@@ -10,7 +11,7 @@ public class FixedTimer extends GameTimer {
     private long currentTime = 0;
 
     public FixedTimer(float renderDelay, int tps) {
-        super(renderDelay);
+        super(renderDelay, 1f / tps);
         updateTimer();
         deltaTime = RESOLUTION / tps;
     }
@@ -23,4 +24,9 @@ public class FixedTimer extends GameTimer {
     public void updateRenderTime() {
         renderTime.update(currentTime - renderDelay);
     }
+
+    @Override
+    public int getNrOfPendingTicks() {
+        return 1;
+    }
 }
@@ -1,25 +1,40 @@
 package NG.Tools;
 
 import NG.DataStructures.Generic.Pair;
+import NG.Network.NetworkGraph;
 import NG.Network.NetworkNode;
 import NG.Network.NetworkPosition;
+import NG.Settings.Settings;
 import NG.Tracks.TrackPiece;
 
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
- * Implements Dijkstra to find the shortest path to any node adhering to the given target.
+ * Finds the shortest path to any node adhering to the given target, using A* on the compiled {@link
+ * NetworkGraph} of the start node, which is partitioned into regions if it is large. Results are shared between
+ * all path finders in a {@link RouteCache}, as long as the network does not change.
  * @author Geert van Ieperen created on 22-5-2020.
  */
 public class NetworkPathFinder implements Callable<NetworkPathFinder.Path> {
+    private static final int ROUTE_CACHE_SIZE = 1 << 14;
+    private static final RouteCache routeCache = new RouteCache(ROUTE_CACHE_SIZE);
+    /** returned by {@link #request(Executor, Runnable)} when the path is still being computed */
+    public static final Path PENDING = new Path(Float.NaN);
+
+    private final NetworkPosition target;
     private final Set<NetworkNode> targets;
     private final NetworkNode startPredecessor;
     private final NetworkNode startNode;
-    private Map<NetworkNode, Float> distanceMap;
 
     public NetworkPathFinder(TrackPiece currentTrack, NetworkNode position, NetworkPosition target) {
         assert position.isNetworkCritical();
+        this.target = target;
         this.startNode = position;
         this.startPredecessor = position.getEntryOf(currentTrack).network;
 
@@ -34,6 +49,7 @@ public class NetworkPathFinder implements Callable<NetworkPathFinder.Path> {
             NetworkNode networkNode, boolean inSameDirection, NetworkPosition target
     ) {
         assert networkNode.isNetworkCritical();
+        this.target = target;
 
         List<NetworkNode.Direction> otherDirections = inSameDirection ? networkNode.getEntriesB() : networkNode.getEntriesA();
         if (otherDirections.isEmpty()) {
@@ -59,71 +75,48 @@ public class NetworkPathFinder implements Callable<NetworkPathFinder.Path> {
         // edge case: end of line
         if (startNode == null) return new Path();
 
-        Map<NetworkNode, NetworkNode> predecessors = new HashMap<>();
-        distanceMap = new HashMap<>();
-        PriorityQueue<NetworkNode> open = new PriorityQueue<>(Comparator.comparing(distanceMap::get));
-
-        predecessors.put(startNode, startPredecessor);
-        distanceMap.put(startNode, 0f);
-        open.add(startNode);
-
-        NetworkNode endNode = dijkstra(predecessors, distanceMap, open);
-
-        if (endNode == null) return null;
-
-        float pathLength = distanceMap.get(endNode);
-        return new Path(startNode, predecessors, endNode, pathLength);
+        return routeCache.get(startNode, startPredecessor, target, this::computePath);
     }
 
     /**
-     * computes all nearest predecessors
-     * @param predecessors A map that contains a predecessor of each node in open. Upon returning, maps each node to its
-     *                     predecessor on the shortest path to that node.
-     * @param distanceMap  A map that contains the distance to each node in open. Upon returning, contains the distance
-     *                     of the shortest path to that node.
-     * @param open         a collection of nodes to start searching from. Usually, contains only the starting node. Upon
-     *                     returning, its contents is undefined.
-     * @return the nearest node in {@code targets} found.
+     * returns the path if it is known, and otherwise computes it on the given executor. The search runs against the
+     * {@link NetworkGraph} of the network at the moment of this call, such that the executor never accesses the network
+     * while it may be changed.
+     * @param executor the executor to compute the path on
+     * @param onDone   the action to run on the thread of the executor when the path has been computed, after which the
+     *                 result can be obtained by calling this method again
+     * @return the path as {@link #call()} would return, or {@link #PENDING} if the path is being computed
      */
-    private NetworkNode dijkstra(
-            Map<NetworkNode, NetworkNode> predecessors, Map<NetworkNode, Float> distanceMap,
-            PriorityQueue<NetworkNode> open
-    ) {
-        while (!open.isEmpty()) {
-            NetworkNode node = open.remove();
-            if (targets.contains(node)) return node;
-
-            NetworkNode predecessor = predecessors.get(node);
-            assert predecessor != null : node + " has not been added to predecessors";
-            assert predecessor.isNetworkCritical() : node + " is not a network critical node";
-
-            List<NetworkNode.Direction> next = node.getNextFromNetwork(predecessor);
-            assert next != null : "one-directional connection : " + NetworkNode.getNetworkAsString(predecessor);
-
-            float nodeDistance = distanceMap.get(node);
+    public Path request(Executor executor, Runnable onDone) {
+        // edge case: end of line
+        if (startNode == null) return new Path();
 
-            for (NetworkNode.Direction entry : next) {
-                NetworkNode nextNode = entry.network;
-                if (nextNode == null) continue; // empty dead end
-                if (nextNode == node) continue; // self-loop
-                assert NetworkNode.check(node);
+        return routeCache.request(startNode, startPredecessor, target, this::prepareSearch, executor, onDone);
+    }
 
-                float distance = nodeDistance + entry.distanceToNetworkNode;
-                Float knownDistance = distanceMap.getOrDefault(nextNode, Float.POSITIVE_INFINITY);
-                if (knownDistance < distance) continue; // shorter path is known
+    private Path computePath() {
+        return prepareSearch().get();
+    }
 
-                predecessors.put(nextNode, node);
-                distanceMap.put(nextNode, distance);
-                open.add(nextNode);
-            }
+    /** collects everything the search needs on the calling thread, and returns the search itself */
+    private Supplier<Path> prepareSearch() {
+        NetworkGraph graph = NetworkGraph.of(startNode);
+        int startPort = graph.getPort(startNode, startPredecessor);
+        assert startPort >= 0 : startPredecessor + " is not connected to " + startNode;
+        if (startPort < 0) return () -> null;
+
+        NetworkGraph.Heuristic heuristic = Settings.PATH_HEURISTIC;
+        int regionSize = Settings.PATH_REGION_SIZE;
+        if (regionSize > 0 && graph.getNrOfNodes() >= 4 * regionSize) {
+            return () -> graph.findPath(startPort, targets, heuristic, regionSize);
         }
 
-        return null;
+        return () -> graph.findPath(startPort, targets, heuristic);
     }
 
-    public float getDistanceTo(NetworkNode node) {
-        if (distanceMap == null) throw new IllegalStateException("call to getDistanceTo(NetworkNode) before call()");
-        return distanceMap.get(node);
+    /** @return the cache of routes shared by all path finders */
+    public static RouteCache getRouteCache() {
+        return routeCache;
     }
 
     public static class Path extends ArrayDeque<NetworkNode> {
@@ -133,23 +126,19 @@ public class NetworkPathFinder implements Callable<NetworkPathFinder.Path> {
             this.pathLength = 0;
         }
 
-        public Path(
-                NetworkNode startNode, Map<NetworkNode, NetworkNode> predecessors, NetworkNode endNode, float pathLength
-        ) {
-            super();
-            this.pathLength = pathLength;
-
-            NetworkNode currentNode = endNode;
+        /** creates a copy of the given path */
+        public Path(Path source) {
+            super(source);
+            this.pathLength = source.pathLength;
+        }
 
-            while (currentNode != startNode) {
-                addFirst(currentNode);
-                currentNode = predecessors.get(currentNode);
-                assert currentNode != null : predecessors;
-            }
+        /** creates an empty path of the given length, to which the nodes of the path are to be added */
+        public Path(float pathLength) {
+            this.pathLength = pathLength;
         }
 
         public static Path infinite() {
-            return new Path(null, null, null, Float.POSITIVE_INFINITY);
+            return new Path(Float.POSITIVE_INFINITY);
         }
 
         public float getPathLength() {
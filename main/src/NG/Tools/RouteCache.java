@@ -0,0 +1,196 @@
+package NG.Tools;
+
+import NG.Network.NetworkNode;
+import NG.Network.NetworkPosition;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * A cache of the results of {@link NetworkPathFinder}, keyed by start node, predecessor of the start node and target.
+ * All routes are dropped when the {@link NetworkNode#getTopologyVersion() topology version} of the network changes.
+ * When the cache is full, the least recently used route is dropped. Routes may be computed in the background with
+ * {@link #request}. All methods are thread-safe.
+ */
+public class RouteCache {
+    /** marks that no path exists, as null values are not distinguishable from missing entries */
+    private static final NetworkPathFinder.Path NO_PATH = NetworkPathFinder.Path.infinite();
+
+    private final Map<RouteKey, NetworkPathFinder.Path> routes;
+    /** the routes that are being computed by {@link #request}, with the actions to run when they are done */
+    private final Map<RouteKey, List<Runnable>> pending = new HashMap<>();
+    private long version = NetworkNode.getTopologyVersion();
+    private long nrOfHits = 0;
+    private long nrOfMisses = 0;
+
+    /**
+     * @param capacity the maximum number of routes kept in this cache
+     */
+    public RouteCache(int capacity) {
+        this.routes = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteKey, NetworkPathFinder.Path> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * returns the route from the given start to the given target. If the route is not cached, it is computed with the
+     * given path finder and stored.
+     * @param start       the first node of the route
+     * @param predecessor the node before start, determining the direction of the route
+     * @param target      the target of the route
+     * @param pathFinder  computes the route if it is not cached, returning null if no route exists
+     * @return a new copy of the route, or null if no route exists
+     */
+    public NetworkPathFinder.Path get(
+            NetworkNode start, NetworkNode predecessor, NetworkPosition target,
+            Supplier<NetworkPathFinder.Path> pathFinder
+    ) {
+        RouteKey key = new RouteKey(start, predecessor, target);
+        NetworkPathFinder.Path path;
+
+        synchronized (this) {
+            path = lookup(key);
+        }
+
+        if (path == null) {
+            // compute outside the lock, such that other threads are not blocked
+            long computedVersion = NetworkNode.getTopologyVersion();
+            NetworkPathFinder.Path result = pathFinder.get();
+            path = (result == null) ? NO_PATH : result;
+
+            synchronized (this) {
+                store(key, path, computedVersion);
+            }
+        }
+
+        return copyOf(path);
+    }
+
+    /**
+     * returns the route from the given start to the given target if it is cached. Otherwise, the search is prepared on
+     * the calling thread, executed on the given executor, and {@link NetworkPathFinder#PENDING} is returned. When the
+     * computation is done, the route is stored and onDone is run on the thread of the executor. A route that is already
+     * being computed is not computed again.
+     * @param start          the first node of the route
+     * @param predecessor    the node before start, determining the direction of the route
+     * @param target         the target of the route
+     * @param searchPreparer prepares the search of the route on the calling thread. It is only called if the route is
+     *                       neither cached nor being computed. The returned search computes the route on the executor,
+     *                       returning null if no route exists, and should not access the network directly.
+     * @param executor       the executor to compute the route on
+     * @param onDone         the action to run after the route has been computed
+     * @return a new copy of the route, null if no route exists, or {@link NetworkPathFinder#PENDING} if the route is
+     * being computed
+     */
+    public NetworkPathFinder.Path request(
+            NetworkNode start, NetworkNode predecessor, NetworkPosition target,
+            Supplier<Supplier<NetworkPathFinder.Path>> searchPreparer, Executor executor, Runnable onDone
+    ) {
+        RouteKey key = new RouteKey(start, predecessor, target);
+        long computedVersion;
+
+        synchronized (this) {
+            NetworkPathFinder.Path path = lookup(key);
+            if (path != null) return copyOf(path);
+
+            List<Runnable> actions = pending.get(key);
+            if (actions != null) {
+                actions.add(onDone);
+                return NetworkPathFinder.PENDING;
+            }
+
+            pending.put(key, new ArrayList<>(List.of(onDone)));
+            computedVersion = version;
+        }
+
+        Supplier<NetworkPathFinder.Path> search;
+        try {
+            search = searchPreparer.get();
+
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                pending.remove(key);
+            }
+            throw ex;
+        }
+
+        executor.execute(() -> {
+            List<Runnable> actions;
+            try {
+                NetworkPathFinder.Path result = search.get();
+
+                synchronized (this) {
+                    store(key, (result == null) ? NO_PATH : result, computedVersion);
+                }
+
+            } catch (Exception ex) {
+                Logger.ERROR.print(ex);
+
+            } finally {
+                synchronized (this) {
+                    actions = pending.remove(key);
+                }
+            }
+
+            // if the route is not stored, then the requester tries again and starts a new computation
+            actions.forEach(Runnable::run);
+        });
+
+        // the executor may have run the computation on this thread
+        synchronized (this) {
+            NetworkPathFinder.Path path = (version == computedVersion) ? routes.get(key) : null;
+            return (path == null) ? NetworkPathFinder.PENDING : copyOf(path);
+        }
+    }
+
+    /** returns the cached route, or null if it is not cached. Must be called while holding the lock */
+    private NetworkPathFinder.Path lookup(RouteKey key) {
+        long currentVersion = NetworkNode.getTopologyVersion();
+        if (version != currentVersion) {
+            routes.clear();
+            version = currentVersion;
+        }
+
+        NetworkPathFinder.Path path = routes.get(key);
+        if (path != null) {
+            nrOfHits++;
+        } else {
+            nrOfMisses++;
+        }
+
+        return path;
+    }
+
+    /** stores the route if the topology did not change since its computation. Must be called while holding the lock */
+    private void store(RouteKey key, NetworkPathFinder.Path path, long computedVersion) {
+        if (version == computedVersion && NetworkNode.getTopologyVersion() == computedVersion) {
+            routes.put(key, path);
+        }
+    }
+
+    private static NetworkPathFinder.Path copyOf(NetworkPathFinder.Path path) {
+        return (path == NO_PATH) ? null : new NetworkPathFinder.Path(path);
+    }
+
+    public synchronized long getNrOfHits() {
+        return nrOfHits;
+    }
+
+    public synchronized long getNrOfMisses() {
+        return nrOfMisses;
+    }
+
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    public synchronized void clear() {
+        routes.clear();
+    }
+
+    private record RouteKey(NetworkNode start, NetworkNode predecessor, NetworkPosition target) {}
+}
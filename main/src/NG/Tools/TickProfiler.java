@@ -0,0 +1,204 @@
+package NG.Tools;
+
+import NG.DataStructures.Generic.AveragingQueue;
+import NG.DataStructures.Generic.LogHistogram;
+
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long each tick takes, divided over the phases of a tick and over the classes of the updated entities.
+ * Times are accumulated during a tick, and at the end of the tick added to a {@link LogHistogram} per tick, per phase
+ * and per entity class. Hence, the entity class histograms contain the total time spent on all entities of that class
+ * in one tick.
+ * <p>
+ * Entity times may be added from any thread. Phase times and the end of a tick must be recorded by the thread that
+ * runs the ticks. Results may be queried from any thread.
+ */
+public class TickProfiler {
+    private static final int NR_OF_TOP_CLASSES = 3;
+    private static final double NANOS_TO_MILLIS = 1e-6;
+
+    /** the phases of a tick. Deferred actions are executed between ticks, and are counted in the next tick */
+    public enum Phase {
+        CLEANING, TIMER, UPDATES, PLAYER_STATUS, ENTITY_LIST, DEFERRED;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final int windowSize;
+    private volatile boolean isEnabled = true;
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final Map<Class<?>, LongAdder> entityNanos = new ConcurrentHashMap<>();
+
+    private final Series tickSeries;
+    private final Series[] phaseSeries;
+    private final Map<Class<?>, Series> entitySeries = new HashMap<>();
+
+    /**
+     * @param windowSize the number of ticks over which the averages of {@link #getSummary()} are taken
+     */
+    public TickProfiler(int windowSize) {
+        this.windowSize = windowSize;
+        this.tickSeries = new Series(windowSize);
+        this.phaseSeries = new Series[phaseNanos.length];
+        for (int i = 0; i < phaseSeries.length; i++) {
+            phaseSeries[i] = new Series(windowSize);
+        }
+    }
+
+    /**
+     * @return the current time, to be used as start time of the next measurement, or 0 if this profiler is disabled
+     */
+    public long start() {
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * adds the time since the given start time to the given phase of the current tick.
+     * @param phase     the phase that has been executed since startTime
+     * @param startTime the result of {@link #start()} or a previous call to this method
+     * @return the current time, to be used as start time of the next measurement
+     */
+    public long lap(Phase phase, long startTime) {
+        if (!isEnabled) return 0;
+
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - startTime;
+        return now;
+    }
+
+    /**
+     * adds the given time to the total time of the given entity class in the current tick. This method is thread-safe.
+     * @param type  the class of the updated entity
+     * @param nanos the time the update took
+     */
+    public void addEntityTime(Class<?> type, long nanos) {
+        entityNanos.computeIfAbsent(type, t -> new LongAdder()).add(nanos);
+    }
+
+    /**
+     * finishes the current tick, and adds the times of this tick to the histograms
+     * @param tickStartTime the result of {@link #start()} at the start of this tick
+     */
+    public synchronized void endTick(long tickStartTime) {
+        if (!isEnabled) return;
+
+        tickSeries.add(System.nanoTime() - tickStartTime);
+
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseSeries[i].add(phaseNanos[i]);
+            phaseNanos[i] = 0;
+        }
+
+        // classes without updates this tick still get a 0 entry
+        for (Class<?> type : entityNanos.keySet()) {
+            entitySeries.computeIfAbsent(type, t -> new Series(windowSize));
+        }
+        for (Map.Entry<Class<?>, Series> entry : entitySeries.entrySet()) {
+            LongAdder adder = entityNanos.get(entry.getKey());
+            entry.getValue().add(adder == null ? 0 : adder.sumThenReset());
+        }
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+    }
+
+    /** removes all recorded times */
+    public synchronized void clear() {
+        Arrays.fill(phaseNanos, 0);
+        entityNanos.clear();
+        tickSeries.histogram.clear();
+        for (Series series : phaseSeries) {
+            series.histogram.clear();
+        }
+        entitySeries.clear();
+    }
+
+    /**
+     * @return a single line with the average tick time and the entity classes that took the most time, averaged over
+     * the last ticks
+     */
+    public synchronized String getSummary() {
+        StringBuilder builder = new StringBuilder(String.format(
+                "Tick: %1.02f ms (p99 %1.02f ms)",
+                tickSeries.recent.average() * NANOS_TO_MILLIS,
+                tickSeries.histogram.getPercentile(0.99) * NANOS_TO_MILLIS
+        ));
+
+        List<Map.Entry<Class<?>, Series>> classes = new ArrayList<>(entitySeries.entrySet());
+        classes.sort((a, b) -> Float.compare(b.getValue().recent.average(), a.getValue().recent.average()));
+
+        for (int i = 0; i < Math.min(NR_OF_TOP_CLASSES, classes.size()); i++) {
+            Map.Entry<Class<?>, Series> entry = classes.get(i);
+            builder.append(String.format(
+                    " | %s %1.02f ms", getName(entry.getKey()), entry.getValue().recent.average() * NANOS_TO_MILLIS
+            ));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * writes the histograms of all ticks, phases and entity classes as comma-separated values, one line per histogram,
+     * preceded by a header. All times are in milliseconds.
+     * @param writer the writer to write to
+     */
+    public synchronized void writeCSV(PrintWriter writer) {
+        writer.println("section,name,ticks,mean,p50,p90,p99,max,total");
+        writeCSVLine(writer, "tick", "tick", tickSeries.histogram);
+
+        for (Phase phase : Phase.values()) {
+            writeCSVLine(writer, "phase", phase.toString(), phaseSeries[phase.ordinal()].histogram);
+        }
+
+        List<Map.Entry<Class<?>, Series>> classes = new ArrayList<>(entitySeries.entrySet());
+        classes.sort((a, b) -> Long.compare(b.getValue().histogram.getSum(), a.getValue().histogram.getSum()));
+        for (Map.Entry<Class<?>, Series> entry : classes) {
+            writeCSVLine(writer, "entity", getName(entry.getKey()), entry.getValue().histogram);
+        }
+    }
+
+    private static void writeCSVLine(PrintWriter writer, String section, String name, LogHistogram histogram) {
+        writer.println(String.format(Locale.US, "%s,%s,%d,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f",
+                section, name, histogram.getCount(),
+                histogram.getMean() * NANOS_TO_MILLIS,
+                histogram.getPercentile(0.5) * NANOS_TO_MILLIS,
+                histogram.getPercentile(0.9) * NANOS_TO_MILLIS,
+                histogram.getPercentile(0.99) * NANOS_TO_MILLIS,
+                histogram.getMax() * NANOS_TO_MILLIS,
+                histogram.getSum() * NANOS_TO_MILLIS
+        ));
+    }
+
+    private static String getName(Class<?> type) {
+        String simpleName = type.getSimpleName();
+        return simpleName.isEmpty() ? type.getName() : simpleName;
+    }
+
+    /** a histogram of all values, and an average of the most recent values */
+    private static class Series {
+        final LogHistogram histogram = new LogHistogram();
+        final AveragingQueue recent;
+
+        Series(int windowSize) {
+            this.recent = new AveragingQueue(windowSize);
+        }
+
+        void add(long nanos) {
+            histogram.add(nanos);
+            recent.add(nanos);
+        }
+    }
+}
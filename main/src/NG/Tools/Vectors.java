@@ -348,15 +348,25 @@ public final class Vectors {
 
     /** @return a rotation that maps the x-vector to the given direction, with up in direction of z */
     public static Quaternionf xTo(Vector3fc direction) {
+        return xTo(direction, new Quaternionf());
+    }
+
+    /**
+     * computes the rotation from the x-axis to the given direction
+     * @param direction the direction to rotate to
+     * @param dest      the quaternion to store the result in
+     * @return dest
+     */
+    public static Quaternionf xTo(Vector3fc direction, Quaternionf dest) {
         if (direction.y() == 0 && direction.z() == 0 && direction.x() < 0) {
-            return new Quaternionf().rotateZ((float) java.lang.Math.PI);
+            return dest.identity().rotateZ((float) java.lang.Math.PI);
         }
 
         float yawAngle = Math.atan2(direction.y(), direction.x());
         float hzMovement = Math.sqrt(direction.x() * direction.x() + direction.y() * direction.y());
         float pitchAngle = Math.atan2(direction.z(), hzMovement);
 
-        return new Quaternionf()
+        return dest.identity()
                 .rotateY(-pitchAngle)
                 .rotateLocalZ(yawAngle);
     }
@@ -179,7 +179,7 @@ public class CircleTrack extends TrackPiece {
     }
 
     @Override
-    public Vector3f getPositionFromFraction(float fraction) {
+    public Vector3f getPositionFromFraction(float fraction, Vector3f dest) {
         assert (fraction >= 0 && fraction <= 1) : fraction;
 
         float currentAngle = (fraction * angle) + startTheta;
@@ -188,26 +188,30 @@ public class CircleTrack extends TrackPiece {
         float dy = Math.sin(currentAngle) * radius;
         float dz = fraction * heightDiff;
 
-        return new Vector3f(center).add(dx, dy, dz);
+        return dest.set(center).add(dx, dy, dz);
     }
 
     @Override
-    public Vector3f getDirectionFromFraction(float fraction) {
+    public Vector3f getDirectionFromFraction(float fraction, Vector3f dest) {
         assert (fraction >= 0 && fraction <= 1) : fraction;
 
         float targetAngle = (fraction * angle) + startTheta;
-        return angleToDirection(targetAngle);
+        return angleToDirection(targetAngle, dest);
     }
 
     private Vector3f angleToDirection(float absoluteAngle) {
+        return angleToDirection(absoluteAngle, new Vector3f());
+    }
+
+    private Vector3f angleToDirection(float absoluteAngle, Vector3f dest) {
         float dx = -Math.sin(absoluteAngle);
         float dy = Math.cos(absoluteAngle);
         float dz = heightDiff / Math.abs(radius * angle);
 
         if (!isClockwise()) {
-            return new Vector3f(-dx, -dy, dz);
+            return dest.set(-dx, -dy, dz);
         } else {
-            return new Vector3f(dx, dy, dz);
+            return dest.set(dx, dy, dz);
         }
     }
 
@@ -7,12 +7,14 @@ import NG.DataStructures.Generic.BlockingTimedArrayQueue;
 import NG.DataStructures.Generic.Pair;
 import NG.DataStructures.Interpolation.FloatInterpolator;
 import NG.DataStructures.Interpolation.LongInterpolator;
+import NG.GameState.PathFindingService;
 import NG.Entities.Train;
 import NG.Network.*;
 import NG.Tools.Logger;
 import NG.Tools.NetworkPathFinder;
 import NG.Tools.Toolbox;
 import NG.Tools.Vectors;
+import NG.Tracks.SpeedProfile.SpeedTarget;
 import org.joml.Math;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
@@ -35,6 +37,13 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
     public static final int SCAN_BUFFER_MILLIS = 10;
     private static final double SIGNAL_PATHING_TIMEOUT = 1.0 / 8;
     private static final int STOP_TARGET_SNAP_DISTANCE_MILLIS = 10;
+    private static final int ACCELERATION_SAMPLES = (int) (0.1f / DELTA_TIME);
+    /** the maximum number of steps of accelerating that is computed at once, as the positions in between are interpolated */
+    private static final int MAX_TRACTION_STEPS = (int) (0.25f / DELTA_TIME);
+    private static final long NO_FREE_RUN = Long.MIN_VALUE;
+
+    /** the number of floats per pose written by {@link #getPoses(double, float[], int, float[])} */
+    public static final int POSE_SIZE = 7;
 
     public static final Conditional ALWAYS = () -> true;
 
@@ -44,8 +53,7 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
     private double updateTime;
 
     private final Deque<TrackPiece> reservedPath = new ArrayDeque<>();
-    private final PriorityQueue<SpeedTarget> futureSpeedTargets = new PriorityQueue<>();
-    private final List<SpeedTarget> activeSpeedTargets = new ArrayList<>();
+    private final SpeedProfile speedTargets = new SpeedProfile();
 
     private long currentTotalMillis; // (millis = 1000 * the real distance) : data type is adequate for almost a lightyear distance
     private TrackPiece currentTrack; // track the train is on
@@ -60,9 +68,17 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
     private boolean scanIsInPathDirection; // TODO can we use NetworkPosition#getNodes()?
     private boolean scanIsAhead = false;
     private double signalPathTimeout = Double.NEGATIVE_INFINITY;
+    private boolean isPathPending = false; // whether the path beyond scanEndNode is being computed
+    private NetworkPosition pendingScheduleTarget = null; // target of which the starting direction is being computed
     private SpeedTarget endOfTrackBrakeTarget;
 
     private float maxSpeed = 0;
+    /**
+     * while the train cruises or accelerates, the distance of the next event as computed after the last full step, or
+     * NO_FREE_RUN. Until then, later updates skip ahead without a full step.
+     */
+    private long freeRunEventMillis = NO_FREE_RUN;
+    private boolean isFreeRunCruising;
 
     /** maps time to total distance millimeters */
     private final LongInterpolator totalMillimeters;
@@ -80,7 +96,15 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
     private long trainLengthMillis = 0;
     private float trainMaxSpeed = 0;
 
-    private AveragingQueue accelerationAverage = new AveragingQueue((int) (0.1f / DELTA_TIME));
+    private AveragingQueue accelerationAverage = new AveragingQueue(ACCELERATION_SAMPLES);
+
+    // buffers of getPoses, only used by the render thread
+    private transient double[] sampleMillis;
+    private transient Pair<TrackPiece, Boolean>[] sampleTracks;
+    private transient float[] sampleLocalDistances;
+    private transient Vector3f samplePosition;
+    private transient Vector3f sampleDirection;
+    private transient Quaternionf sampleRotation;
 
     /**
      * Creates a rail movement system starting at the given startpiece, owned by the given controller. If {@code
@@ -131,6 +155,8 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
         this.breakForce = breakForce;
         this.trainLengthMillis = (long) (trainLength * METERS_TO_MILLIS);
         this.trainMaxSpeed = trainMaxSpeed;
+        this.freeRunEventMillis = NO_FREE_RUN;
+        speedTargets.setBrakeFactor(METERS_TO_MILLIS / (2 * (breakForce + TE) * invMass));
     }
 
     public void update() {
@@ -140,22 +166,38 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
 
     public void reverse() {
         doReverse = true;
+        freeRunEventMillis = NO_FREE_RUN;
     }
 
     public void stop() {
         doStop = true;
+        freeRunEventMillis = NO_FREE_RUN;
     }
 
     public void start() {
         doStop = false;
         doReverse = false;
+        freeRunEventMillis = NO_FREE_RUN;
     }
 
-    public synchronized void update(double gameTime) {
-        float speed = this.speed;
+    /**
+     * Updates this movement towards the given game time for as long as only the state of this movement changes. This
+     * is the case while the train runs towards its next event, as computed by the last full step. The remaining steps
+     * are left to {@link #update(double)}.
+     * @param gameTime the time to update to
+     */
+    public synchronized void updateIndependently(double gameTime) {
+        while (updateTime < gameTime && continueFreeRun(gameTime)) ;
+    }
 
+    public synchronized void update(double gameTime) {
         while (updateTime < gameTime) {
+            if (continueFreeRun(gameTime)) continue;
+
+            float speed = this.speed;
             float accelerationFraction;
+            boolean isCruising = false;
+            boolean isAccelerating = false;
 
             if (speed == 0) { // case: the train is stopped
                 if (isStopping()) {
@@ -172,21 +214,14 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
                     }
 
                 } else {
-                    futureSpeedTargets.removeIf(SpeedTarget::isInvalid);
-
-                    if (futureSpeedTargets.isEmpty()) {
-                        accelerationFraction = 1;
+                    // shortcut for checking whether we should stay stopped
+                    SpeedTarget nextSpeedTarget = speedTargets.getNext();
+                    if (nextSpeedTarget != null && shouldSnapStopped(nextSpeedTarget)) {
+                        currentTotalMillis = nextSpeedTarget.startMillis; // snap
+                        accelerationFraction = 0;
 
                     } else {
-                        // shortcut for checking whether we should stay stopped
-                        SpeedTarget nextSpeedTarget = futureSpeedTargets.peek();
-                        if (shouldSnapStopped(nextSpeedTarget)) {
-                            currentTotalMillis = nextSpeedTarget.startMillis; // snap
-                            accelerationFraction = 0;
-
-                        } else {
-                            accelerationFraction = 1;
-                        }
+                        accelerationFraction = 1;
                     }
                 }
 
@@ -195,34 +230,13 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
 
             } else { // search for the next speed target
                 boolean shouldStop = false;
-                // first remove all non-applicable speed targets
-                futureSpeedTargets.removeIf(SpeedTarget::isInvalid);
-                activeSpeedTargets.removeIf(t -> t.isInvalid() || t.endMillis < currentTotalMillis - trainLengthMillis);
-
-                SpeedTarget nextSpeedTarget = null;
-                // move speed targets that have passed to active
-                Iterator<SpeedTarget> futureTargetIterator = futureSpeedTargets.iterator();
-                while (futureTargetIterator.hasNext()) {
-                    nextSpeedTarget = futureTargetIterator.next();
-
-                    if (nextSpeedTarget.startMillis < currentTotalMillis) { // has passed
-                        futureTargetIterator.remove();
-
-                        // only move if applicable
-                        float trainEndMillis = currentTotalMillis - trainLengthMillis;
-                        if (nextSpeedTarget.speed > 0 && nextSpeedTarget.endMillis > trainEndMillis) {
-                            activeSpeedTargets.add(nextSpeedTarget);
-                        }
+                // move speed targets that have passed to active, and drop the active targets we left behind
+                speedTargets.advance(currentTotalMillis, currentTotalMillis - trainLengthMillis);
 
-                    } else if (shouldSnapStopped(nextSpeedTarget)) {
-                        currentTotalMillis = nextSpeedTarget.startMillis; // snap
-                        shouldStop = true;
-                        break;
-
-                    } else {
-                        // all targets have been moved
-                        break;
-                    }
+                SpeedTarget nextSpeedTarget = speedTargets.getNext();
+                if (nextSpeedTarget != null && shouldSnapStopped(nextSpeedTarget)) {
+                    currentTotalMillis = nextSpeedTarget.startMillis; // snap
+                    shouldStop = true;
                 }
 
                 if (shouldStop) {
@@ -232,12 +246,7 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
 
                 } else {
                     // calculate maximum speed
-                    float maxSpeed = trainMaxSpeed;
-                    for (SpeedTarget active : activeSpeedTargets) {
-                        if (active.speed < maxSpeed) {
-                            maxSpeed = active.speed;
-                        }
-                    }
+                    float maxSpeed = java.lang.Math.min(trainMaxSpeed, speedTargets.getActiveMaxSpeed());
                     this.maxSpeed = maxSpeed;
 
                     if (speed > maxSpeed) {
@@ -254,6 +263,9 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
                             accelerationFraction = -1;
                         }
                     }
+
+                    isCruising = (accelerationFraction == 0);
+                    isAccelerating = (accelerationFraction == 1);
                 }
             }
 
@@ -283,7 +295,7 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
             // track our tail is now. when leaving a track, free it
             TrackPiece postPiece = tracks.getPrevious(currentTotalMillis - trainLengthMillis + 1).left;
             if (prePiece != postPiece) {
-                prePiece.setOccupied(false);
+                game.state().reservations().release(controller, prePiece);
             }
 
             if (!doStop && updateTime > signalPathTimeout) {
@@ -294,8 +306,14 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
 
                     while (scanTargetMillis > scanTrackEndMillis) {
                         if (!scanEndNode.hasSignal()) {
-                            initPath();
-                            if (!scanEndNode.hasSignal()) {
+                            boolean isFree = reservedPath.isEmpty() ? initPath() : extendPath(reservedPath.getLast());
+
+                            if (isPathPending || !isFree) {
+                                // stop at the end, retry when the path is computed or after a timeout
+                                brakeAtScanEnd(scanTargetMillis);
+                                break;
+
+                            } else if (!scanEndNode.hasSignal()) {
                                 if (speed == 0) executeReversal();
                                 break;
                             }
@@ -306,20 +324,13 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
                         Signal signal = scanEndNode.getSignal();
                         Deque<TrackPiece> path = signal.reservePath(
                                 scanIsInPathDirection ? IN_DIRECTION : AGAINST_DIRECTION,
-                                controller::getTarget
+                                controller::getTarget, game.state().pathFinding(),
+                                game.state().reservations(), controller
                         );
 
                         if (path.isEmpty()) {
                             // stop at the end, retry after a timeout
-                            signalPathTimeout = updateTime + SIGNAL_PATHING_TIMEOUT;
-
-                            if (endOfTrackBrakeTarget == null || endOfTrackBrakeTarget.isInvalid()) {
-                                endOfTrackBrakeTarget = new SpeedTarget(
-                                        scanTrackEndMillis, scanTrackEndMillis,
-                                        0f, () -> scanTrackEndMillis < scanTargetMillis
-                                );
-                                futureSpeedTargets.add(endOfTrackBrakeTarget);
-                            }
+                            brakeAtScanEnd(scanTargetMillis);
                             break;
 
                         } else {
@@ -354,11 +365,202 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
             // loop end update
             updateTime += DELTA_TIME;
             this.speed = speed;
+
+            // jump to the next event if nothing changes until then, also in later updates
+            if (isCruising) {
+                float overSpeed = getCruiseOverSpeed();
+                if (overSpeed > maxSpeed) {
+                    freeRunEventMillis = getNextEventMillis(overSpeed);
+                    isFreeRunCruising = true;
+                }
+
+            } else if (isAccelerating) {
+                if (maxForce > 0) {
+                    freeRunEventMillis = getNextEventMillis(maxSpeed);
+                    isFreeRunCruising = false;
+                }
+
+            } else if (speed == 0 && doStop && !doReverse) {
+                skipStandstill(gameTime);
+            }
         }
 
         discardUpTo(gameTime - 10, 10_000);
     }
 
+    /**
+     * skips the steps towards the next event computed by the last full step, if any
+     * @param gameTime the time the update runs to
+     * @return true iff any step was skipped
+     */
+    private boolean continueFreeRun(double gameTime) {
+        if (freeRunEventMillis == NO_FREE_RUN) return false;
+
+        // only the movement itself changed since the last full step
+        boolean hasSkipped = isFreeRunCruising ? skipCruise(gameTime) : skipTraction(gameTime);
+        if (!hasSkipped) freeRunEventMillis = NO_FREE_RUN;
+
+        return hasSkipped;
+    }
+
+    /**
+     * Skips the steps of a train that is held at its maximum speed, up to the first step that may react on an event.
+     * Cruising alternates between a step that accelerates to just above the maximum speed, and a step that is clamped
+     * back to it. The skipped steps move the exact same distances.
+     * @param gameTime the time the update runs to
+     * @return true iff any step was skipped
+     */
+    private boolean skipCruise(double gameTime) {
+        float overSpeed = getCruiseOverSpeed();
+        int overSpeedMillis = (int) Math.ceil(overSpeed * DELTA_TIME * METERS_TO_MILLIS);
+        int speedMillis = (int) Math.ceil(maxSpeed * DELTA_TIME * METERS_TO_MILLIS);
+        long pairMillis = overSpeedMillis + speedMillis;
+
+        // keep a margin of one pair of steps before the event
+        long maxPairs = (freeRunEventMillis - currentTotalMillis - 1) / pairMillis - 1;
+        long steps = java.lang.Math.min(getMaxSteps(gameTime), 2 * maxPairs);
+        if (steps < 1) return false;
+
+        // whether the first step accelerates, otherwise it is clamped
+        boolean startsAccelerating = speed <= maxSpeed;
+        currentTotalMillis += (steps / 2) * pairMillis;
+        if (steps % 2 == 1) {
+            currentTotalMillis += startsAccelerating ? overSpeedMillis : speedMillis;
+            speed = startsAccelerating ? overSpeed : maxSpeed;
+        }
+
+        updateTime += steps * DELTA_TIME;
+        totalMillimeters.add(currentTotalMillis, updateTime - DELTA_TIME);
+
+        for (long i = java.lang.Math.max(0, steps - ACCELERATION_SAMPLES); i < steps; i++) {
+            boolean isAccelerating = (i % 2 == 0) == startsAccelerating;
+            accelerationAverage.add(isAccelerating ? 1 : 0);
+        }
+
+        return true;
+    }
+
+    /** returns the speed after the accelerating step of cruising, as computed in update */
+    private float getCruiseOverSpeed() {
+        float resistance = (maxSpeed * r1) + (maxSpeed * maxSpeed * r2);
+        return maxSpeed + (maxForce - resistance) * invMass * DELTA_TIME;
+    }
+
+    /**
+     * Computes the movement of a train under full traction in closed form, up to the first step that may react on an
+     * event, but at most {@link #MAX_TRACTION_STEPS} steps.
+     * @param gameTime the time the update runs to
+     * @return true iff any step was skipped
+     */
+    private boolean skipTraction(double gameTime) {
+        TractionCurve curve = new TractionCurve(speed, maxForce, r1, r2, invMass);
+        long steps = java.lang.Math.min(getMaxSteps(gameTime), MAX_TRACTION_STEPS);
+
+        for (; steps > 0; steps /= 2) {
+            double duration = steps * DELTA_TIME;
+            float endSpeed = (float) curve.getSpeed(duration);
+            if (endSpeed >= maxSpeed) continue;
+
+            float topSpeed = java.lang.Math.max(speed, endSpeed);
+            long movementMillis = (long) (curve.getDistance(duration) * METERS_TO_MILLIS);
+            int marginMillis = (int) Math.ceil(topSpeed * DELTA_TIME * METERS_TO_MILLIS);
+            long endMillis = currentTotalMillis + movementMillis + marginMillis;
+            // the free run event assumes the maximum speed, only check the actual speed when near
+            if (endMillis >= freeRunEventMillis && endMillis >= getNextEventMillis(topSpeed)) continue;
+
+            currentTotalMillis += movementMillis;
+            updateTime += duration;
+            totalMillimeters.add(currentTotalMillis, updateTime - DELTA_TIME);
+
+            for (int i = 0; i < java.lang.Math.min(steps, ACCELERATION_SAMPLES); i++) {
+                accelerationAverage.add(1);
+            }
+
+            speed = endSpeed;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * returns the first distance where a moving train may have to react: reaching or braking for a speed target, leaving
+     * an active speed target, entering a track, leaving a track with the tail, or scanning for the next signal.
+     * @param topSpeed the maximum speed of the train until this distance
+     */
+    private long getNextEventMillis(float topSpeed) {
+        long eventMillis = trackEndDistanceMillis;
+
+        long firstStartMillis = speedTargets.getFirstStartMillis();
+        if (firstStartMillis < Long.MAX_VALUE) {
+            eventMillis = java.lang.Math.min(eventMillis, firstStartMillis - STOP_TARGET_SNAP_DISTANCE_MILLIS);
+        }
+
+        eventMillis = java.lang.Math.min(eventMillis, speedTargets.getBrakePointMillis(topSpeed));
+
+        long firstActiveEndMillis = speedTargets.getFirstActiveEndMillis();
+        if (firstActiveEndMillis < Long.MAX_VALUE) {
+            eventMillis = java.lang.Math.min(eventMillis, firstActiveEndMillis + trainLengthMillis);
+        }
+
+        // the tail leaves its track once it passes the start of the next one
+        double tailTrackEnd = tracks.timeOfNext(currentTotalMillis - trainLengthMillis + 1);
+        if (tailTrackEnd < Double.POSITIVE_INFINITY) {
+            eventMillis = java.lang.Math.min(eventMillis, (long) tailTrackEnd + trainLengthMillis - 1);
+        }
+
+        if (updateTime > signalPathTimeout && !doStop && !scanIsAhead) {
+            int stepMillis = (int) Math.ceil(topSpeed * DELTA_TIME * METERS_TO_MILLIS);
+            long scanMillis = scanTrackEndMillis - SCAN_BUFFER_MILLIS - getBreakDistanceMillis(topSpeed, 0) - stepMillis;
+            eventMillis = java.lang.Math.min(eventMillis, scanMillis);
+        }
+
+        return eventMillis;
+    }
+
+    /** returns the number of steps that update takes to reach the given game time, or until the signal scan resumes */
+    private long getMaxSteps(double gameTime) {
+        long maxSteps = (long) java.lang.Math.ceil((gameTime - updateTime) / DELTA_TIME);
+
+        if (updateTime <= signalPathTimeout) {
+            maxSteps = java.lang.Math.min(maxSteps, (long) ((signalPathTimeout - updateTime) / DELTA_TIME));
+        }
+
+        return maxSteps;
+    }
+
+    /**
+     * Skips all steps up to the given game time for a train that is ordered to stand still. Such a train does not move
+     * nor scan until it is started.
+     * @param gameTime the time the update runs to
+     */
+    private void skipStandstill(double gameTime) {
+        long steps = (long) java.lang.Math.ceil((gameTime - updateTime) / DELTA_TIME);
+        if (steps < 1) return;
+
+        updateTime += steps * DELTA_TIME;
+        totalMillimeters.add(currentTotalMillis, updateTime - DELTA_TIME);
+
+        for (int i = 0; i < java.lang.Math.min(steps, ACCELERATION_SAMPLES); i++) {
+            accelerationAverage.add(0);
+        }
+    }
+
+    /**
+     * makes the train stop at the end of the scanned path, and postpones scanning for a timeout or until a pending path
+     * is computed
+     */
+    private void brakeAtScanEnd(long scanTargetMillis) {
+        signalPathTimeout = updateTime + SIGNAL_PATHING_TIMEOUT;
+
+        if (endOfTrackBrakeTarget == null || endOfTrackBrakeTarget.isInvalid()) {
+            endOfTrackBrakeTarget = speedTargets.add(
+                    scanTrackEndMillis, scanTrackEndMillis,
+                    0f, () -> scanTrackEndMillis < scanTargetMillis
+            );
+        }
+    }
+
     /** returns true iff we should stop, and we are within snapping distance of this target */
     private boolean shouldSnapStopped(SpeedTarget nextSpeedTarget) {
         return nextSpeedTarget.speed == 0 && currentTotalMillis > nextSpeedTarget.startMillis - STOP_TARGET_SNAP_DISTANCE_MILLIS;
@@ -390,7 +592,6 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
         tracks.add(new Pair<>(currentTrack, isPositiveDirection), currentTotalMillis);
 
         currentTotalMillis += trainLengthMillis;
-        activeSpeedTargets.clear();
         clearPath();
 
         Pair<TrackPiece, Boolean> previous = tracks.getPrevious(startDistanceMillis);
@@ -399,20 +600,48 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
             commitTrack(track, !previous.right);
 
             long trackStart = trackEndDistanceMillis - (long) (track.getLength() * METERS_TO_MILLIS);
-            futureSpeedTargets.add(new SpeedTarget(trackStart, trackEndDistanceMillis, track.getMaximumSpeed()));
+            speedTargets.add(trackStart, trackEndDistanceMillis, track.getMaximumSpeed(), ALWAYS);
         }
 
         initPath();
     }
 
-    /** initializes the reservedPath towards the next signal */
-    private void initPath() {
+    /**
+     * initializes the reservedPath towards the next signal
+     * @return false iff the path ends before a track that is reserved by another train
+     */
+    private boolean initPath() {
         scanEndNode = isPositiveDirection ? currentTrack.getEndNode() : currentTrack.getStartNode();
-        TrackPiece nextTrack = currentTrack;
         scanTrackEndMillis = trackEndDistanceMillis;
+        speedTargets.reevaluateConditions();
+        return extendPath(currentTrack);
+    }
+
+    /**
+     * extends the reservedPath from scanEndNode towards the next signal. If the path has to be computed first, the
+     * path is extended up to the first network-critical node, and isPathPending is set. If the path runs into a track
+     * that is reserved by another train, the path ends before that track. The new tracks are reserved at once.
+     * @param nextTrack the last track of the path, connected to scanEndNode
+     * @return false iff the path ends before a track that is reserved by another train
+     */
+    private boolean extendPath(TrackPiece nextTrack) {
+        List<TrackPiece> newTracks = new ArrayList<>();
+        boolean isFree = scanUntilSignal(nextTrack, newTracks);
 
+        if (!newTracks.isEmpty()) {
+            boolean isReserved = game.state().reservations().reserve(controller, newTracks);
+            assert isReserved : newTracks; // checked by scanUntilSignal
+        }
+
+        return isFree;
+    }
+
+    private boolean scanUntilSignal(TrackPiece nextTrack, List<TrackPiece> newTracks) {
         NetworkPosition target = controller.getTarget(0);
         NetworkPathFinder.Path path = null; // lazy init
+        TrackPiece lastTrack = nextTrack;
+        boolean isFree = true;
+        isPathPending = false;
 
         while (!scanEndNode.hasSignal()) {
             NetworkNode networkNode = scanEndNode.getNetworkNode();
@@ -432,8 +661,14 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
                     // we have to accept all network-critical nodes in path
                     // hence even if it is straight, we have to do path finding.
                     if (path == null) {
-                        path = new NetworkPathFinder(nextTrack, networkNode, target).call();
-                        if (path.isEmpty()) return;
+                        NetworkPathFinder pathFinder = new NetworkPathFinder(nextTrack, networkNode, target);
+                        path = game.state().pathFinding().request(pathFinder, this::onPathComputed);
+
+                        if (path == NetworkPathFinder.PENDING) {
+                            isPathPending = true;
+                            return true;
+                        }
+                        if (path == null || path.isEmpty()) return true;
                     }
 
                     NetworkNode targetNode = path.remove();
@@ -447,11 +682,25 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
                 }
             }
 
-            nextTrack.setOccupied(true);
+            if (!game.state().reservations().canReserve(controller, nextTrack)) {
+                isFree = false;
+                break;
+            }
+
             appendToPath(nextTrack);
+            newTracks.add(nextTrack);
+            lastTrack = nextTrack;
         }
 
-        scanIsInPathDirection = !scanEndNode.isInDirectionOf(nextTrack);
+        scanIsInPathDirection = !scanEndNode.isInDirectionOf(lastTrack);
+        return isFree;
+    }
+
+    /** is executed on the game loop when a requested path is computed */
+    private void onPathComputed() {
+        // retry on the next update
+        signalPathTimeout = Double.NEGATIVE_INFINITY;
+        freeRunEventMillis = NO_FREE_RUN;
     }
 
     /** Adds the given track piece to the path that this movement is going to traverse. */
@@ -460,21 +709,21 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
         reservedPath.add(nextTrack);
 
         long newScanTrackEndMillis = scanTrackEndMillis + (long) (nextTrack.getLength() * METERS_TO_MILLIS);
-        futureSpeedTargets.add(new SpeedTarget(scanTrackEndMillis, newScanTrackEndMillis, nextTrack.getMaximumSpeed()));
+        speedTargets.add(scanTrackEndMillis, newScanTrackEndMillis, nextTrack.getMaximumSpeed(), ALWAYS);
 
         scanEndNode = nextTrack.getNot(scanEndNode);
         scanTrackEndMillis = newScanTrackEndMillis;
+        speedTargets.reevaluateConditions();
         NetworkNode scanNode = scanEndNode.getNetworkNode();
 
         NetworkPosition target = controller.getTarget(scanIsAhead ? 1 : 0);
         if (target != null && target.containsNode(nextTrack, scanNode)) {
             scanIsAhead = true;
 
-            SpeedTarget speedTarget = new SpeedTarget(
+            speedTargets.add(
                     scanTrackEndMillis, scanTrackEndMillis, 0,
                     () -> controller.shouldWaitFor(target)
             );
-            futureSpeedTargets.add(speedTarget);
         }
     }
 
@@ -505,6 +754,10 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
 
     @Override
     public void onScheduleUpdate(NetworkPosition element) {
+        pendingScheduleTarget = null;
+        freeRunEventMillis = NO_FREE_RUN;
+        speedTargets.reevaluateConditions();
+
         if (speed == 0) {
             NetworkNode scanEndNodeNetworkNode = scanEndNode.getNetworkNode();
 
@@ -520,11 +773,23 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
             }
 
             // compute both directions to find the direction to start
+            PathFindingService pathFinding = game.state().pathFinding();
+            Runnable retry = () -> {
+                if (pendingScheduleTarget == element && speed == 0) onScheduleUpdate(element);
+            };
+
             NetworkPathFinder inDirection = new NetworkPathFinder(scanEndNodeNetworkNode, scanIsInPathDirection, element);
-            NetworkPathFinder.Path pathInDirection = inDirection.call();
+            NetworkPathFinder.Path pathInDirection = pathFinding.request(inDirection, retry);
 
             NetworkPathFinder againstDirection = new NetworkPathFinder(scanEndNodeNetworkNode, !scanIsInPathDirection, element);
-            NetworkPathFinder.Path pathAgainstDirection = againstDirection.call();
+            NetworkPathFinder.Path pathAgainstDirection = pathFinding.request(againstDirection, retry);
+
+            // decide when both are computed, until then the train stays in its current direction
+            if (pathInDirection == NetworkPathFinder.PENDING || pathAgainstDirection == NetworkPathFinder.PENDING) {
+                pendingScheduleTarget = element;
+                scanIsAhead = false;
+                return;
+            }
 
             boolean inSameDirection;
             if (pathInDirection == null) {
@@ -551,21 +816,20 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
         float localDistance = totalToLocalDistance.getInterpolated(currentTotalMillis);
         totalToLocalDistance.add(localDistance, currentTotalMillis); // overrides later elements
 
-        activeSpeedTargets.clear();
         clearPath();
         commitTrack(startPiece, inPositiveDirection);
 
         currentTotalMillis += trainLengthMillis;
         updateTime = time;
+        freeRunEventMillis = NO_FREE_RUN;
         initPath();
     }
 
+    /** releases the reserved path, and removes all future and active speed targets */
     private void clearPath() {
-        for (TrackPiece piece : reservedPath) {
-            piece.setOccupied(false);
-        }
+        game.state().reservations().release(controller, reservedPath);
         reservedPath.clear();
-        futureSpeedTargets.clear();
+        speedTargets.clear();
     }
 
     private int getBreakDistanceMillis(float currentSpeed, float targetSpeed) {
@@ -598,6 +862,14 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
         return doStop || doReverse;
     }
 
+    /**
+     * is called when the conditions of the speed targets may have changed, such as when the controller starts or stops
+     * loading
+     */
+    public synchronized void reevaluateSpeedTargets() {
+        speedTargets.reevaluateConditions();
+    }
+
     public AveragingQueue getAccelerationAverage() {
         return accelerationAverage;
     }
@@ -662,6 +934,63 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
         return directionOfTrack;
     }
 
+    /**
+     * Computes the positions and rotations of multiple points of the train on the given time, such as the elements of
+     * the train. The time is resolved once, and the tracks are walked once for all points. Each pose is stored as
+     * {@link #POSE_SIZE} floats: the x, y and z of the position, followed by the x, y, z and w of the rotation.
+     * @param time          the time to sample
+     * @param displacements for each point, the distance behind the front of the train, in increasing order
+     * @param count         the number of points
+     * @param poses         the array to store the poses in, of length at least {@code count * POSE_SIZE}
+     */
+    public synchronized void getPoses(double time, float[] displacements, int count, float[] poses) {
+        if (count == 0) return;
+        update(time);
+
+        if (sampleMillis == null || sampleMillis.length < count) {
+            sampleMillis = new double[count];
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Pair<TrackPiece, Boolean>[] newSampleTracks = new Pair[count];
+            sampleTracks = newSampleTracks;
+            sampleLocalDistances = new float[count];
+            samplePosition = new Vector3f();
+            sampleDirection = new Vector3f();
+            sampleRotation = new Quaternionf();
+        }
+
+        long frontMillis = totalMillimeters.getInterpolated(time);
+        for (int i = 0; i < count; i++) {
+            sampleMillis[i] = frontMillis + -displacements[i] * METERS_TO_MILLIS;
+        }
+
+        tracks.getPrevious(sampleMillis, count, sampleTracks);
+        totalToLocalDistance.getInterpolated(sampleMillis, count, sampleLocalDistances);
+
+        for (int i = 0; i < count; i++) {
+            Pair<TrackPiece, Boolean> activeTrack = sampleTracks[i];
+            if (activeTrack == null) activeTrack = tracks.getNext(sampleMillis[i]);
+            sampleTracks[i] = null;
+
+            TrackPiece track = activeTrack.left;
+            float fractionTravelled = sampleLocalDistances[i] / track.getLength();
+            Vector3f position = track.getPositionFromFraction(fractionTravelled, samplePosition);
+            Vector3f direction = track.getDirectionFromFraction(fractionTravelled, sampleDirection);
+
+            if (!activeTrack.right) direction.negate();
+            direction.normalize();
+            Quaternionf rotation = Vectors.xTo(direction, sampleRotation);
+
+            int offset = i * POSE_SIZE;
+            poses[offset] = position.x;
+            poses[offset + 1] = position.y;
+            poses[offset + 2] = position.z;
+            poses[offset + 3] = rotation.x;
+            poses[offset + 4] = rotation.y;
+            poses[offset + 5] = rotation.z;
+            poses[offset + 6] = rotation.w;
+        }
+    }
+
     public Quaternionf getRotation(double time) {
         return getRotation(time, 0);
     }
@@ -689,62 +1018,20 @@ public class RailMovement extends AbstractGameObject implements Schedule.UpdateL
     }
 
     public void removePath() {
-        for (TrackPiece trackPiece : reservedPath) {
-            trackPiece.setOccupied(false);
-        }
+        game.state().reservations().release(controller, reservedPath);
         reservedPath.clear();
+        freeRunEventMillis = NO_FREE_RUN;
     }
 
     @Override
     public void restoreFields(Game game) {
-        // this object doesn't own any other GameObject, and hence doesnt need to restore anything
-    }
-
-    private class SpeedTarget implements Comparable<SpeedTarget>, Serializable {
-        public final long startMillis;
-        public final long endMillis;
-        public final float speed;
-        private final Conditional condition;
-
-        public SpeedTarget(long startMillis, long endMillis, float speed) {
-            this(startMillis, endMillis, speed, ALWAYS);
-        }
-
-        public SpeedTarget(
-                long startMillis, long endMillis, float speed, Conditional condition
-        ) {
-            this.startMillis = startMillis;
-            this.endMillis = endMillis;
-            this.speed = speed;
-            this.condition = condition;
+        // reservations are not saved, thus we reclaim the tracks below and ahead of the train
+        List<TrackPiece> heldTracks = new ArrayList<>(reservedPath);
+        for (Pair<TrackPiece, Boolean> track : tracks.getRange(currentTotalMillis - trainLengthMillis, currentTotalMillis)) {
+            heldTracks.add(track.left);
         }
 
-        public boolean isInvalid() {
-            return !condition.getAsBoolean();
-        }
-
-        /** computes which speed target must be reacted on first */
-        @Override
-        public int compareTo(SpeedTarget other) {
-            if (this.startMillis < other.startMillis) {
-                return compareSorted(this, other);
-            } else {
-                return -compareSorted(other, this);
-            }
-        }
-
-        private int compareSorted(SpeedTarget first, SpeedTarget last) {
-            int breakDistance = getBreakDistanceMillis(first.speed, last.speed);
-            return Float.compare(first.startMillis + breakDistance, last.startMillis);
-        }
-
-        @Override
-        public String toString() {
-            return "SpeedTarget{" +
-                    "startMillis=" + startMillis +
-                    ", speed=" + speed +
-                    '}';
-        }
+        game.state().reservations().reserve(controller, heldTracks);
     }
 
     interface Conditional extends BooleanSupplier, Serializable {}
@@ -1,16 +1,15 @@
 package NG.Tracks;
 
 import NG.Core.Game;
+import NG.DataStructures.Generic.Pair;
 import NG.Network.NetworkNode;
 import NG.Network.RailNode;
+import NG.Network.SignalBlocks;
 import NG.Tools.Vectors;
 import org.joml.Math;
 import org.joml.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 import static java.lang.StrictMath.PI;
 
@@ -411,8 +410,8 @@ public final class RailTools {
                 aConnection, bConnection
         );
 
-        invalidateSignals(aConnection, aNode, new ArrayList<>(0));
-        invalidateSignals(bConnection, bNode, new ArrayList<>(0));
+        invalidateSignals(aConnection, aNode, new HashSet<>());
+        invalidateSignals(bConnection, bNode, new HashSet<>());
 
         assert aConnection.isValid() : aConnection;
         assert bConnection.isValid() : bConnection;
@@ -588,25 +587,56 @@ public final class RailTools {
 
     /** invalidates the signal connections of all signals remotely connected to track */
     public static void invalidateSignals(TrackPiece track) {
-        // two different directions should have two different lists
-        invalidateSignals(track, track.getStartNode(), new ArrayList<>(0));
-        invalidateSignals(track, track.getEndNode(), new ArrayList<>(0));
+        Set<Pair<TrackPiece, RailNode>> seen = new HashSet<>();
+        invalidateSignals(track, track.getStartNode(), seen);
+        invalidateSignals(track, track.getEndNode(), seen);
     }
 
-    /** invalidates the signal connections of all signals in direction of node */
-    private static void invalidateSignals(TrackPiece track, RailNode node, Collection<RailNode> seen) {
-        // handle loops without signals
-        if (node.getNetworkNode().isNetworkCritical()) {
-            if (seen.contains(node)) return;
-            seen.add(node);
+    /** invalidates the signal connections of all signals remotely connected to any track of the given segments */
+    public static void invalidateSignals(Collection<NetworkNode.Segment> segments) {
+        Set<Pair<TrackPiece, RailNode>> seen = new HashSet<>();
+        for (NetworkNode.Segment segment : segments) {
+            for (TrackPiece track : segment.getTracks()) {
+                invalidateSignals(track, track.getStartNode(), seen);
+                invalidateSignals(track, track.getEndNode(), seen);
+            }
+        }
+    }
+
+    /** invalidates the signal connections of all signals remotely connected to the given node */
+    public static void invalidateSignals(RailNode node) {
+        SignalBlocks.invalidate(node);
+
+        Set<Pair<TrackPiece, RailNode>> seen = new HashSet<>();
+        for (NetworkNode.Direction entry : node.getNetworkNode().getAllEntries()) {
+            TrackPiece track = entry.trackPiece;
+            invalidateSignals(track, track.getNot(node), seen);
         }
+    }
 
-        if (node.hasSignal()) {
+    /**
+     * invalidates the signal connections of all signals in direction of node. This walks against the direction of
+     * travel, and stops where no train can pass towards track.
+     * @param track the track connected to node, where the walk came from
+     * @param node  the node to invalidate
+     * @param seen  the tracks walked so far, each with the node it walked towards
+     */
+    private static void invalidateSignals(TrackPiece track, RailNode node, Set<Pair<TrackPiece, RailNode>> seen) {
+        // handle loops without signals
+        if (!seen.add(new Pair<>(track, node))) return;
+
+        // any route from this node towards track may have changed
+        SignalBlocks.invalidate(node);
+
+        List<NetworkNode.Direction> next = node.getNetworkNode().getNext(track);
+        if (next.isEmpty()) return;
+
+        // trains coming from the next tracks only pass this signal if it does not stop them
+        if (node.hasSignal() && node.getSignal().stopsTrafficFrom(next.get(0).trackPiece)) {
             return;
         }
 
         // recursively search for signals
-        List<NetworkNode.Direction> next = node.getNetworkNode().getNext(track);
         for (NetworkNode.Direction entry : next) {
             TrackPiece nextTrack = entry.trackPiece;
             RailNode nextNode = nextTrack.getNot(node);
@@ -0,0 +1,208 @@
+package NG.Tracks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The speed targets ahead of and below a train, indexed over distance. Future targets are kept in two heaps: one on
+ * their start, to find the targets that the train passes, and one on their braking point, to find the target that
+ * requires braking first. As the braking distance from speed {@code v} to speed {@code s} is proportional to {@code v*v
+ * - s*s}, the braking point of each target is its key in the second heap minus a term that only depends on {@code v}.
+ * <p>
+ * Targets are deleted lazily: a passed target is only flagged, and dropped from a heap when it reaches the top.
+ * Conditions are only evaluated when a target reaches the top, and not again until {@link #reevaluateConditions()} is
+ * called. A target of which the condition fails is dropped.
+ */
+class SpeedProfile implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final PriorityQueue<SpeedTarget> byStart = new PriorityQueue<>(
+            (Comparator<SpeedTarget> & Serializable) (a, b) -> Long.compare(a.startMillis, b.startMillis)
+    );
+    private final PriorityQueue<SpeedTarget> byBrakePoint = new PriorityQueue<>(
+            (Comparator<SpeedTarget> & Serializable) (a, b) -> Long.compare(a.brakeKeyMillis, b.brakeKeyMillis)
+    );
+    private final PriorityQueue<SpeedTarget> activeByEnd = new PriorityQueue<>(
+            (Comparator<SpeedTarget> & Serializable) (a, b) -> Long.compare(a.endMillis, b.endMillis)
+    );
+    private float activeMaxSpeed = Float.POSITIVE_INFINITY;
+
+    /** braking distance in millimeters per squared unit of speed */
+    private float brakeFactor = 0;
+    private int conditionVersion = 0;
+
+    /**
+     * sets the braking distance of the train, and updates the braking points of all targets
+     * @param brakeFactor the braking distance from speed {@code v} to speed {@code s} in millimeters, divided by {@code
+     *                    v*v - s*s}
+     */
+    public void setBrakeFactor(float brakeFactor) {
+        this.brakeFactor = brakeFactor;
+
+        List<SpeedTarget> targets = new ArrayList<>(byBrakePoint.size());
+        for (SpeedTarget target : byBrakePoint) {
+            if (target.isRemoved) continue;
+            target.brakeKeyMillis = getBrakeKey(target);
+            targets.add(target);
+        }
+
+        byBrakePoint.clear();
+        byBrakePoint.addAll(targets);
+    }
+
+    /**
+     * adds a target ahead of the train
+     * @param startMillis the distance where the target starts
+     * @param endMillis   the distance where the target ends
+     * @param speed       the maximum speed between start and end
+     * @param condition   the condition of this target, or {@link RailMovement#ALWAYS}
+     * @return the new target
+     */
+    public SpeedTarget add(long startMillis, long endMillis, float speed, RailMovement.Conditional condition) {
+        SpeedTarget target = new SpeedTarget(startMillis, endMillis, speed, condition);
+        target.brakeKeyMillis = getBrakeKey(target);
+        byStart.add(target);
+        byBrakePoint.add(target);
+        return target;
+    }
+
+    /**
+     * First removes the active targets that end before the tail, then activates the future targets that start before
+     * the front. A passed target only becomes active if it limits the speed and ends beyond the tail.
+     * @param frontMillis the distance of the front of the train
+     * @param tailMillis  the distance of the tail of the train
+     */
+    public void advance(long frontMillis, long tailMillis) {
+        boolean activeChanged = false;
+        while (!activeByEnd.isEmpty() && activeByEnd.peek().endMillis < tailMillis) {
+            activeByEnd.remove();
+            activeChanged = true;
+        }
+
+        while (!byStart.isEmpty() && byStart.peek().startMillis < frontMillis) {
+            SpeedTarget target = byStart.remove();
+            if (target.isRemoved) continue;
+            target.isRemoved = true;
+
+            if (target.speed > 0 && target.endMillis > tailMillis && isValid(target)) {
+                activeByEnd.add(target);
+                activeChanged = true;
+            }
+        }
+
+        if (activeChanged) {
+            activeMaxSpeed = Float.POSITIVE_INFINITY;
+            for (SpeedTarget target : activeByEnd) {
+                activeMaxSpeed = Math.min(activeMaxSpeed, target.speed);
+            }
+        }
+    }
+
+    /** @return the valid future target that requires braking first, or null if there is none */
+    public SpeedTarget getNext() {
+        while (!byBrakePoint.isEmpty()) {
+            SpeedTarget target = byBrakePoint.peek();
+            if (!target.isRemoved && isValid(target)) return target;
+
+            byBrakePoint.remove();
+            target.isRemoved = true;
+        }
+
+        return null;
+    }
+
+    /** @return the lowest speed of all active targets, or positive infinity if there is none */
+    public float getActiveMaxSpeed() {
+        return activeMaxSpeed;
+    }
+
+    /** @return the lowest start of all future targets, or {@link Long#MAX_VALUE} if there is none */
+    public long getFirstStartMillis() {
+        while (!byStart.isEmpty() && byStart.peek().isRemoved) {
+            byStart.remove();
+        }
+
+        return byStart.isEmpty() ? Long.MAX_VALUE : byStart.peek().startMillis;
+    }
+
+    /** @return the lowest end of all active targets, or {@link Long#MAX_VALUE} if there is none */
+    public long getFirstActiveEndMillis() {
+        return activeByEnd.isEmpty() ? Long.MAX_VALUE : activeByEnd.peek().endMillis;
+    }
+
+    /**
+     * Returns a lower bound of the first distance where a train driving at the given speed must start braking for any
+     * future target. The conditions of the targets are not evaluated.
+     * @param speed the speed of the train
+     * @return the braking point, or {@link Long#MAX_VALUE} if there are no targets
+     */
+    public long getBrakePointMillis(float speed) {
+        while (!byBrakePoint.isEmpty() && byBrakePoint.peek().isRemoved) {
+            byBrakePoint.remove();
+        }
+        if (byBrakePoint.isEmpty()) return Long.MAX_VALUE;
+
+        // a target that is faster than the given speed gives a braking point beyond its start
+        return (long) (byBrakePoint.peek().brakeKeyMillis - (double) speed * speed * brakeFactor - 1);
+    }
+
+    /** indicates that the inputs of the conditions of the targets may have changed */
+    public void reevaluateConditions() {
+        conditionVersion++;
+    }
+
+    /** removes all future and active targets */
+    public void clear() {
+        byStart.clear();
+        byBrakePoint.clear();
+        activeByEnd.clear();
+        activeMaxSpeed = Float.POSITIVE_INFINITY;
+    }
+
+    private boolean isValid(SpeedTarget target) {
+        if (target.checkedVersion == conditionVersion) return true;
+        if (target.isInvalid()) return false;
+
+        target.checkedVersion = conditionVersion;
+        return true;
+    }
+
+    private long getBrakeKey(SpeedTarget target) {
+        // saturates for targets without speed limit
+        return (long) (target.startMillis + (double) target.speed * target.speed * brakeFactor);
+    }
+
+    public static class SpeedTarget implements Serializable {
+        private static final long serialVersionUID = 1L;
+        public final long startMillis;
+        public final long endMillis;
+        public final float speed;
+        private final RailMovement.Conditional condition;
+
+        private long brakeKeyMillis;
+        private boolean isRemoved = false;
+        private int checkedVersion = -1;
+
+        private SpeedTarget(long startMillis, long endMillis, float speed, RailMovement.Conditional condition) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.speed = speed;
+            this.condition = condition;
+        }
+
+        /** evaluates the condition of this target */
+        public boolean isInvalid() {
+            return !condition.getAsBoolean();
+        }
+
+        @Override
+        public String toString() {
+            return "SpeedTarget{" +
+                    "startMillis=" + startMillis +
+                    ", speed=" + speed +
+                    '}';
+        }
+    }
+}
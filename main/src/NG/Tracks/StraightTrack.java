@@ -178,13 +178,13 @@ public class StraightTrack extends TrackPiece {
     }
 
     @Override
-    public Vector3f getDirectionFromFraction(float fraction) {
-        return new Vector3f(direction);
+    public Vector3f getDirectionFromFraction(float fraction, Vector3f dest) {
+        return dest.set(direction);
     }
 
     @Override
-    public Vector3f getPositionFromFraction(float fraction) {
-        return new Vector3f(direction)
+    public Vector3f getPositionFromFraction(float fraction, Vector3f dest) {
+        return dest.set(direction)
                 .mul(fraction * length)
                 .add(startNode.getPosition());
     }
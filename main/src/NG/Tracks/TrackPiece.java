@@ -7,6 +7,7 @@ import NG.InputHandling.ClickShader;
 import NG.InputHandling.KeyControl;
 import NG.InputHandling.MouseTool.AbstractMouseTool;
 import NG.Network.NetworkNode;
+import NG.Network.ReservationTable;
 import NG.Network.RailNode;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Rendering.Shaders.MaterialShader;
@@ -32,8 +33,6 @@ public abstract class TrackPiece extends TrackElement {
     private final Asset<AABBf> hitbox;
 
     protected final boolean isModifiable;
-    private boolean doRenderClickBox = false;
-    private boolean isOccupied = false;
 
     // if any of these is occupied, this is occupied as well (needs no restoring)
     private List<TrackPiece> entangledTracks = new ArrayList<>();
@@ -62,10 +61,17 @@ public abstract class TrackPiece extends TrackElement {
 
     @Override
     public void update() {
-        double gameTime = game.timer().getGameTime();
-        this.doRenderClickBox = game.keyControl().isAltPressed();
+    }
+
+    @Override
+    public void despawn(double gameTime) {
+        super.despawn(gameTime);
 
-        entangledTracks.removeIf(t -> t.isDespawnedAt(gameTime));
+        // a removed track no longer shares its occupation
+        for (TrackPiece other : entangledTracks) {
+            other.entangledTracks.remove(this);
+        }
+        entangledTracks.clear();
     }
 
     @Override
@@ -76,7 +82,7 @@ public abstract class TrackPiece extends TrackElement {
             type.setMaterial((MaterialShader) shader, this, coloring.getColor());
         }
 
-        boolean renderClickBox = doRenderClickBox || shader instanceof ClickShader;
+        boolean renderClickBox = game.keyControl().isAltPressed() || shader instanceof ClickShader;
         draw(gl, renderClickBox);
 
         if (game.settings().RENDER_COLLISION_BOX) {
@@ -109,9 +115,29 @@ public abstract class TrackPiece extends TrackElement {
 
     public abstract float getFractionOfClosest(Vector3fc origin, Vector3fc direction);
 
-    public abstract Vector3f getPositionFromFraction(float fraction);
+    public Vector3f getPositionFromFraction(float fraction) {
+        return getPositionFromFraction(fraction, new Vector3f());
+    }
 
-    public abstract Vector3f getDirectionFromFraction(float fraction);
+    /**
+     * computes the position on the given fraction of this track
+     * @param fraction the fraction of the length of this track, from the start node
+     * @param dest     the vector to store the result in
+     * @return dest
+     */
+    public abstract Vector3f getPositionFromFraction(float fraction, Vector3f dest);
+
+    public Vector3f getDirectionFromFraction(float fraction) {
+        return getDirectionFromFraction(fraction, new Vector3f());
+    }
+
+    /**
+     * computes the direction of this track on the given fraction, towards the end node
+     * @param fraction the fraction of the length of this track, from the start node
+     * @param dest     the vector to store the result in
+     * @return dest
+     */
+    public abstract Vector3f getDirectionFromFraction(float fraction, Vector3f dest);
 
     public abstract float getLength();
 
@@ -128,23 +154,23 @@ public abstract class TrackPiece extends TrackElement {
         return true;
     }
 
-    public void setOccupied(boolean occupied) {
-        this.isOccupied = occupied;
-        if (occupied) {
+    /** is called by the {@link ReservationTable} when this track is reserved or released */
+    public void onReservationChange(boolean isReserved) {
+        if (isReserved) {
             coloring.addMark(OCCUPIED_COLOR, Coloring.Priority.OCCUPIED_TRACK);
         } else {
             coloring.removeMark(Coloring.Priority.OCCUPIED_TRACK);
         }
     }
 
+    /** @return true iff this track, or a track entangled with it, is reserved in the {@link ReservationTable} */
     public boolean isOccupied() {
-        if (isOccupied) return true;
-
-        for (TrackPiece other : entangledTracks) {
-            if (other.isOccupied) return true;
-        }
+        return game.state().reservations().isReserved(this);
+    }
 
-        return false;
+    /** @return the tracks that are occupied whenever this track is occupied */
+    public List<TrackPiece> getEntangledTracks() {
+        return entangledTracks;
     }
 
     public abstract float getMaximumSpeed();
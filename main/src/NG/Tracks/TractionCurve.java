@@ -0,0 +1,81 @@
+package NG.Tracks;
+
+/**
+ * Closed-form solution of the speed of a train under full traction: {@code dv/dt = (force - r1 * v - r2 * v * v) *
+ * invMass}. The speed approaches the terminal speed where the resistance equals the force. This replaces integrating
+ * the same equation in small time steps.
+ */
+final class TractionCurve {
+    private final double invMass;
+    private final double r1;
+    private final double r2;
+    private final double terminalSpeed;
+    private final double otherRoot;
+    private final double rate;
+    private final double v0;
+    private final double c0;
+
+    /**
+     * @param v0      the speed at time 0, at least 0
+     * @param force   the tractive effort, larger than 0
+     * @param r1      linear resistance factor, at least 0
+     * @param r2      quadratic resistance factor, at least 0
+     * @param invMass 1 / mass
+     */
+    TractionCurve(double v0, double force, double r1, double r2, double invMass) {
+        assert force > 0 && v0 >= 0 && r1 >= 0 && r2 >= 0;
+        this.v0 = v0;
+        this.invMass = invMass;
+        this.r1 = r1;
+        this.r2 = r2;
+
+        if (r2 > 0) {
+            // r2 v^2 + r1 v - force has one positive and one negative root
+            double sqrtD = Math.sqrt(r1 * r1 + 4 * r2 * force);
+            this.terminalSpeed = (-r1 + sqrtD) / (2 * r2);
+            this.otherRoot = (-r1 - sqrtD) / (2 * r2);
+            this.rate = sqrtD * invMass;
+            this.c0 = (v0 - terminalSpeed) / (v0 - otherRoot);
+
+        } else if (r1 > 0) {
+            this.terminalSpeed = force / r1;
+            this.otherRoot = 0;
+            this.rate = r1 * invMass;
+            this.c0 = 0;
+
+        } else { // constant acceleration
+            this.terminalSpeed = Double.POSITIVE_INFINITY;
+            this.otherRoot = 0;
+            this.rate = force * invMass; // acceleration
+            this.c0 = 0;
+        }
+    }
+
+    /** @return the speed after the given time */
+    double getSpeed(double time) {
+        if (r2 > 0) {
+            double c = c0 * Math.exp(-rate * time);
+            return (terminalSpeed - otherRoot * c) / (1 - c);
+
+        } else if (r1 > 0) {
+            return terminalSpeed + (v0 - terminalSpeed) * Math.exp(-rate * time);
+
+        } else {
+            return v0 + rate * time;
+        }
+    }
+
+    /** @return the distance travelled after the given time */
+    double getDistance(double time) {
+        if (r2 > 0) {
+            double c = c0 * Math.exp(-rate * time);
+            return terminalSpeed * time + Math.log((1 - c) / (1 - c0)) / (r2 * invMass);
+
+        } else if (r1 > 0) {
+            return terminalSpeed * time + (v0 - terminalSpeed) * -Math.expm1(-rate * time) / rate;
+
+        } else {
+            return v0 * time + 0.5 * rate * time * time;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package NG.Core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameTimerTest {
+    private static final float TICK_DURATION = 0.05f;
+
+    @Test
+    public void gameTimeAdvancesInFixedSteps() {
+        GameTimer timer = new GameTimer(0.1f, TICK_DURATION);
+        for (int i = 0; i < 100; i++) {
+            timer.updateGameTime();
+            assertEquals(TICK_DURATION, timer.getGameTimeDifference(), 1e-6);
+        }
+        assertEquals(100 * TICK_DURATION, timer.getGameTime(), 1e-6);
+    }
+
+    @Test
+    public void scaledClockAccumulatesTicks() throws InterruptedException {
+        GameTimer timer = new GameTimer(0.1f, TICK_DURATION);
+        timer.setTimeScale(1000);
+        Thread.sleep(20);
+
+        // at least 20 seconds of game time have passed on the clock
+        int pending = timer.getNrOfPendingTicks();
+        assertTrue(String.valueOf(pending), pending >= 20 / TICK_DURATION);
+
+        for (int i = 0; i < pending; i++) {
+            timer.updateGameTime();
+        }
+        timer.updateRenderTime();
+        assertTrue(timer.getRenderTime() <= timer.getGameTime());
+
+        // slow down first, as the fast clock may pass a tick between the two calls
+        timer.setTimeScale(1);
+        timer.dropBacklog();
+        assertEquals(0, timer.getNrOfPendingTicks());
+    }
+
+    @Test
+    public void infiniteScaleIsAlwaysPending() {
+        GameTimer timer = new GameTimer(0.1f, TICK_DURATION);
+        timer.setTimeScale(Double.POSITIVE_INFINITY);
+        assertEquals(Integer.MAX_VALUE, timer.getNrOfPendingTicks());
+
+        for (int i = 0; i < 1000; i++) {
+            timer.updateGameTime();
+        }
+        timer.updateRenderTime();
+        assertEquals(1000 * TICK_DURATION - 0.1f, timer.getRenderTime(), 1e-3);
+
+        // switching back does not simulate the time passed at infinite speed twice
+        timer.setTimeScale(1);
+        assertEquals(0, timer.getNrOfPendingTicks());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroScaleIsRejected() {
+        new GameTimer(0.1f, TICK_DURATION).setTimeScale(0);
+    }
+}
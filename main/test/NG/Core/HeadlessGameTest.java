@@ -0,0 +1,82 @@
+package NG.Core;
+
+import NG.Content.Scenario.Scenario;
+import NG.Mods.Mod;
+import NG.Network.NetworkNode;
+import NG.Settings.Settings;
+import NG.Tools.TestTracksMod;
+import NG.Tracks.RailTools;
+import NG.Tracks.TrackPiece;
+import org.joml.Vector3f;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HeadlessGameTest {
+    private static final int TPS = 20;
+    private HeadlessGame game;
+
+    @Before
+    public void setUp() {
+        game = new HeadlessGame(List.of(new TestTracksMod()), TPS);
+    }
+
+    @Test
+    public void emptyScenarioRunsFixedTicks() throws Exception {
+        game.apply(new Scenario.Empty(game));
+        game.runFor(30);
+
+        assertEquals(30 * TPS, game.getNrOfTicks());
+        assertEquals(30, game.timer().getGameTime(), 1e-3);
+        assertEquals(30, game.timer().getRenderTime(), 1e-3);
+    }
+
+    @Test
+    public void trackScenarioRuns() throws Exception {
+        game.apply(new LineScenario(game));
+        game.runFor(10);
+
+        long nrOfTracks = game.state().stream().filter(e -> e instanceof TrackPiece).count();
+        assertTrue("No tracks were added", nrOfTracks > 0);
+    }
+
+    @Test
+    public void commitsOutsideTicksAreDeferred() throws Exception {
+        game.apply(new Scenario.Empty(game));
+        boolean[] isExecuted = {false};
+
+        game.state().commit(() -> isExecuted[0] = true);
+        assertFalse(isExecuted[0]);
+
+        game.tick();
+        assertTrue(isExecuted[0]);
+    }
+
+    private static class LineScenario extends Scenario {
+        LineScenario(ModLoader modLoader) {
+            super(modLoader);
+        }
+
+        @Override
+        protected List<Mod> getMods(ModLoader modLoader) {
+            return modLoader.allMods();
+        }
+
+        @Override
+        protected void setEntities(Game game, Settings settings) {
+            Vector3f aPosition = getGroundPos(game, new Vector3f(10, 10, 0), new Vector3f());
+            Vector3f bPosition = getGroundPos(game, new Vector3f(40, 10, 0), new Vector3f());
+
+            List<TrackPiece> tracks = RailTools.createNew(game, TestTracksMod.TEST_TRACK, aPosition, bPosition, 10f);
+            for (TrackPiece track : tracks) {
+                NetworkNode.addConnection(track);
+                game.state().addEntity(track);
+            }
+        }
+    }
+}
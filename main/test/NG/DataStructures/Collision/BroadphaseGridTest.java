@@ -0,0 +1,53 @@
+package NG.DataStructures.Collision;
+
+import NG.Tools.BoxEntity;
+import org.joml.AABBf;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class BroadphaseGridTest {
+    private static final float CELL_SIZE = 4f;
+
+    @Test
+    public void queryEqualsBruteForce() {
+        Random random = new Random(1);
+        BroadphaseGrid grid = new BroadphaseGrid(CELL_SIZE);
+        List<BoxEntity> entities = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++) {
+            BoxEntity entity = new BoxEntity(randomBox(random));
+            entities.add(entity);
+            grid.add(entity);
+        }
+
+        // remove some to exercise removal
+        for (int i = 0; i < 100; i++) {
+            grid.remove(entities.remove(random.nextInt(entities.size())));
+        }
+        assertEquals(entities.size(), grid.size());
+
+        for (int i = 0; i < 200; i++) {
+            AABBf query = randomBox(random);
+
+            Set<ColliderEntity> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (BoxEntity entity : entities) {
+                if (query.testAABB(entity.box)) expected.add(entity);
+            }
+
+            List<ColliderEntity> actual = grid.query(query);
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected, new HashSet<>(actual));
+        }
+    }
+
+    private static AABBf randomBox(Random random) {
+        float x = random.nextFloat() * 200 - 100;
+        float y = random.nextFloat() * 200 - 100;
+        float z = random.nextFloat() * 10;
+        float size = random.nextFloat() * 20;
+        return new AABBf(x, y, z, x + size, y + random.nextFloat() * 20, z + 1);
+    }
+}
@@ -0,0 +1,61 @@
+package NG.DataStructures.Generic;
+
+import NG.DataStructures.Interpolation.LongInterpolator;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BlockingTimedArrayQueueTest {
+
+    @Test
+    public void lookupsAfterWrapping() {
+        BlockingTimedArrayQueue<Integer> queue = new BlockingTimedArrayQueue<>(0);
+        // wrap the ring a few times, keeping at most 5 elements
+        for (int i = 0; i < 100; i++) {
+            queue.add(i, i * 10);
+            queue.removeUntil((i - 4) * 10);
+        }
+
+        assertEquals(5, queue.size());
+        assertEquals(95, (int) queue.getPrevious(960));
+        assertEquals(96, (int) queue.getPrevious(961));
+        assertEquals(97, (int) queue.getNext(960));
+        assertNull(queue.getPrevious(950));
+        assertNull(queue.getNext(990));
+
+        assertEquals(970, queue.timeOfNext(970), 0);
+        assertEquals(980, queue.timeOfNext(971), 0);
+        assertEquals(Double.POSITIVE_INFINITY, queue.timeOfNext(991), 0);
+
+        assertEquals(List.of(96, 97, 98), queue.getRange(965, 980));
+        assertEquals(List.of(98, 99), queue.getRange(985, 2000));
+    }
+
+    @Test
+    public void addingEarlierReplacesLater() {
+        BlockingTimedArrayQueue<Integer> queue = new BlockingTimedArrayQueue<>(0);
+        for (int i = 0; i < 20; i++) {
+            queue.add(i, i);
+        }
+
+        queue.add(-1, 10.5);
+        assertEquals(12, queue.size());
+        assertEquals(-1, (int) queue.getPrevious(100));
+    }
+
+    @Test
+    public void longInterpolation() {
+        LongInterpolator interpolator = new LongInterpolator(0, 0, 0);
+        for (int i = 1; i <= 100; i++) {
+            interpolator.add(i * 1000L, i);
+        }
+        interpolator.removeUntil(90);
+
+        assertEquals(95_500, interpolator.getInterpolated(95.5));
+        assertEquals(1000, interpolator.getDerivative(95.5));
+        // extrapolates beyond the last value
+        assertEquals(101_000, interpolator.getInterpolated(101));
+    }
+}
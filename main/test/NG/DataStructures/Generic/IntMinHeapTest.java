@@ -0,0 +1,37 @@
+package NG.DataStructures.Generic;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IntMinHeapTest {
+
+    @Test
+    public void removesInKeyOrder() {
+        Random random = new Random(1);
+        IntMinHeap heap = new IntMinHeap(1);
+        float[] keys = new float[1000];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextFloat() * 100;
+            heap.add(i, keys[i]);
+        }
+        assertEquals(keys.length, heap.size());
+
+        float[] removed = new float[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            float key = heap.peekKey();
+            int element = heap.remove();
+            assertEquals(keys[element], key, 0);
+            removed[i] = key;
+        }
+
+        assertTrue(heap.isEmpty());
+        Arrays.sort(keys);
+        assertTrue(Arrays.equals(keys, removed));
+    }
+}
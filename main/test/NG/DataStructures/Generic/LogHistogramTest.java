@@ -0,0 +1,49 @@
+package NG.DataStructures.Generic;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LogHistogramTest {
+
+    @Test
+    public void percentilesAreWithinFactorTwo() {
+        Random random = new Random(1);
+        LogHistogram histogram = new LogHistogram();
+        long[] values = new long[10_000];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double fraction : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.ceil(fraction * values.length) - 1];
+            long estimate = histogram.getPercentile(fraction);
+            assertTrue(exact + " vs " + estimate, estimate >= exact && estimate <= 2 * exact);
+        }
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[values.length - 1], histogram.getPercentile(1));
+    }
+
+    @Test
+    public void zeroAndEmpty() {
+        LogHistogram histogram = new LogHistogram();
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(0, histogram.getMean(), 0);
+
+        histogram.add(0);
+        histogram.add(-5);
+        histogram.add(8);
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(8, histogram.getPercentile(1));
+        assertEquals(8 / 3.0, histogram.getMean(), 1e-9);
+    }
+}
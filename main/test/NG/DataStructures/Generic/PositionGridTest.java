@@ -0,0 +1,51 @@
+package NG.DataStructures.Generic;
+
+import org.joml.Vector3f;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class PositionGridTest {
+    private static final float CELL_SIZE = 16f;
+
+    @Test
+    public void queryEqualsBruteForce() {
+        Random random = new Random(1);
+        PositionGrid<Vector3f> grid = new PositionGrid<>(CELL_SIZE);
+        List<Vector3f> points = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            Vector3f point = randomPoint(random);
+            points.add(point);
+            grid.add(point, point);
+        }
+
+        // remove some to exercise removal
+        for (int i = 0; i < 500; i++) {
+            grid.remove(points.remove(random.nextInt(points.size())));
+        }
+        assertEquals(points.size(), grid.size());
+
+        for (int i = 0; i < 200; i++) {
+            Vector3f center = randomPoint(random);
+            float radius = random.nextFloat() * 40;
+
+            Set<Vector3f> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Vector3f point : points) {
+                if (point.distance(center) < radius) expected.add(point);
+            }
+
+            List<Vector3f> actual = grid.query(center, radius);
+            assertEquals(expected.size(), actual.size());
+            Set<Vector3f> actualSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            actualSet.addAll(actual);
+            assertEquals(expected, actualSet);
+        }
+    }
+
+    private static Vector3f randomPoint(Random random) {
+        return new Vector3f(random.nextFloat() * 400 - 200, random.nextFloat() * 400 - 200, random.nextFloat() * 5);
+    }
+}
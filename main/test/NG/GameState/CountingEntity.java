@@ -0,0 +1,50 @@
+package NG.GameState;
+
+import NG.Core.Coloring;
+import NG.Core.Game;
+import NG.Entities.Entity;
+import NG.InputHandling.KeyControl;
+import NG.InputHandling.MouseTool.AbstractMouseTool;
+import NG.Rendering.MatrixStack.SGL;
+
+/**
+ * an entity that counts its updates
+ */
+class CountingEntity implements Entity {
+    private final UpdateFrequency frequency;
+    int nrOfUpdates = 0;
+
+    CountingEntity(UpdateFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    @Override
+    public void update() {
+        nrOfUpdates++;
+    }
+
+    @Override
+    public UpdateFrequency getUpdateFrequency() {
+        return frequency;
+    }
+
+    @Override
+    public void draw(SGL gl) {
+    }
+
+    @Override
+    public void reactMouse(AbstractMouseTool.MouseAction action, KeyControl keys) {
+    }
+
+    @Override
+    public void setMarking(Coloring.Marking mark) {
+    }
+
+    @Override
+    public void despawn(double gameTime) {
+    }
+
+    @Override
+    public void restore(Game game) {
+    }
+}
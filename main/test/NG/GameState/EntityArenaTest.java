@@ -0,0 +1,122 @@
+package NG.GameState;
+
+import NG.Entities.Entity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class EntityArenaTest {
+    private EntityArena arena;
+
+    @Before
+    public void setUp() {
+        arena = new EntityArena(OtherEntity.class);
+    }
+
+    @Test
+    public void removalKeepsOtherEntities() {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Entity entity = new CountingEntity(Entity.UpdateFrequency.EVERY_TICK);
+            entities.add(entity);
+            arena.add(entity);
+        }
+        assertEquals(arena.getHandle(entities.get(0)), arena.add(entities.get(0)));
+
+        for (int i = 0; i < 200; i += 2) {
+            assertTrue(arena.remove(entities.get(i)));
+        }
+        assertFalse(arena.remove(entities.get(0)));
+
+        assertEquals(100, arena.size());
+        Set<Entity> remaining = new HashSet<>();
+        arena.forEach(remaining::add);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 2 == 1, remaining.contains(entities.get(i)));
+        }
+    }
+
+    @Test
+    public void handlesSurviveRemovalOfOthers() {
+        List<Entity> entities = new ArrayList<>();
+        List<Long> handles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Entity entity = new CountingEntity(Entity.UpdateFrequency.EVERY_TICK);
+            entities.add(entity);
+            handles.add(arena.add(entity));
+        }
+
+        for (int i = 0; i < 200; i += 2) {
+            assertTrue(arena.remove(handles.get(i)));
+        }
+
+        assertEquals(100, arena.size());
+        for (int i = 0; i < 200; i++) {
+            Entity expected = (i % 2 == 0) ? null : entities.get(i);
+            assertSame(expected, arena.get(handles.get(i)));
+        }
+    }
+
+    @Test
+    public void staleHandleDoesNotReferToNewEntity() {
+        long handle = arena.add(new CountingEntity(Entity.UpdateFrequency.EVERY_TICK));
+        arena.remove(handle);
+
+        // reuses the slot of the removed entity
+        Entity newEntity = new CountingEntity(Entity.UpdateFrequency.EVERY_TICK);
+        long newHandle = arena.add(newEntity);
+
+        assertFalse(arena.isValid(handle));
+        assertNull(arena.get(handle));
+        assertSame(newEntity, arena.get(newHandle));
+    }
+
+    @Test
+    public void snapshotOnlyChangesOnPublish() {
+        arena.add(new CountingEntity(Entity.UpdateFrequency.EVERY_TICK));
+        assertEquals(0, arena.snapshot().size());
+
+        arena.publish();
+        List<Entity> snapshot = arena.snapshot();
+        assertEquals(1, snapshot.size());
+
+        arena.removeIf(e -> true);
+        assertEquals(1, snapshot.size());
+        arena.publish();
+        assertEquals(0, arena.snapshot().size());
+    }
+
+    @Test
+    public void partitionContainsOnlyType() {
+        for (int i = 0; i < 10; i++) {
+            arena.add(new CountingEntity(Entity.UpdateFrequency.EVERY_TICK));
+            arena.add(new OtherEntity());
+        }
+        arena.publish();
+        assertEquals(10, arena.snapshotOf(OtherEntity.class).size());
+
+        OtherEntity added = new OtherEntity();
+        arena.add(added);
+        arena.removeIf(e -> e instanceof OtherEntity && e != added);
+        arena.add(new CountingEntity(Entity.UpdateFrequency.EVERY_TICK));
+        arena.publish();
+
+        List<OtherEntity> others = arena.snapshotOf(OtherEntity.class);
+        assertEquals(List.of(added), others);
+        // not a partition, but filtered from the snapshot
+        assertEquals(12, arena.snapshotOf(CountingEntity.class).size());
+        assertEquals(12, new HashSet<>(arena.snapshot()).size());
+    }
+
+    private static class OtherEntity extends CountingEntity {
+        OtherEntity() {
+            super(UpdateFrequency.NEVER);
+        }
+    }
+}
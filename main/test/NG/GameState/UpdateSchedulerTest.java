@@ -0,0 +1,127 @@
+package NG.GameState;
+
+import NG.Entities.Entity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class UpdateSchedulerTest {
+    private static final int TPS = 20;
+
+    @Test
+    public void frequenciesAreHonored() {
+        EntityArena arena = new EntityArena();
+        UpdateScheduler scheduler = new UpdateScheduler(arena, TPS);
+        CountingEntity everyTick = new CountingEntity(Entity.UpdateFrequency.EVERY_TICK);
+        CountingEntity perSecond = new CountingEntity(Entity.UpdateFrequency.ONCE_PER_SECOND);
+        CountingEntity uponATime = new CountingEntity(Entity.UpdateFrequency.ONCE_UPON_A_TIME);
+        CountingEntity never = new CountingEntity(Entity.UpdateFrequency.NEVER);
+
+        arena.add(everyTick);
+        scheduler.add(everyTick);
+        arena.add(perSecond);
+        scheduler.add(perSecond);
+        arena.add(uponATime);
+        scheduler.add(uponATime);
+        arena.add(never);
+        scheduler.add(never);
+        assertEquals(3, scheduler.size());
+
+        int seconds = 2 * UpdateScheduler.UPON_A_TIME_SECONDS;
+        for (int i = 0; i < seconds * TPS; i++) {
+            scheduler.update();
+        }
+
+        assertEquals(seconds * TPS, everyTick.nrOfUpdates);
+        assertEquals(seconds, perSecond.nrOfUpdates);
+        assertEquals(2, uponATime.nrOfUpdates);
+        assertEquals(0, never.nrOfUpdates);
+    }
+
+    @Test
+    public void perSecondIsSpreadOverTicks() {
+        EntityArena arena = new EntityArena();
+        UpdateScheduler scheduler = new UpdateScheduler(arena, TPS);
+        List<CountingEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 4 * TPS; i++) {
+            CountingEntity entity = new CountingEntity(Entity.UpdateFrequency.ONCE_PER_SECOND);
+            entities.add(entity);
+            arena.add(entity);
+            scheduler.add(entity);
+        }
+
+        for (int i = 0; i < TPS; i++) {
+            int before = sumOfUpdates(entities);
+            scheduler.update();
+            assertEquals(4, sumOfUpdates(entities) - before);
+        }
+    }
+
+    @Test
+    public void removedEntitiesAreNotUpdated() {
+        EntityArena arena = new EntityArena();
+        UpdateScheduler scheduler = new UpdateScheduler(arena, TPS);
+        CountingEntity entity = new CountingEntity(Entity.UpdateFrequency.EVERY_TICK);
+        arena.add(entity);
+        scheduler.add(entity);
+
+        scheduler.update();
+        arena.remove(entity);
+        scheduler.update();
+
+        assertEquals(1, entity.nrOfUpdates);
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void parallelCommitsAreOrdered() {
+        EntityArena arena = new EntityArena();
+        UpdateScheduler scheduler = new UpdateScheduler(arena, TPS);
+        List<Integer> committed = new ArrayList<>();
+        int nrOfEntities = 1000;
+
+        for (int i = 0; i < nrOfEntities; i++) {
+            CommittingEntity entity = new CommittingEntity(scheduler, committed, i);
+            arena.add(entity);
+            scheduler.add(entity);
+        }
+
+        scheduler.update();
+
+        assertEquals(nrOfEntities, committed.size());
+        for (int i = 0; i < nrOfEntities; i++) {
+            assertEquals(i, (int) committed.get(i));
+        }
+    }
+
+    private static int sumOfUpdates(List<CountingEntity> entities) {
+        return entities.stream().mapToInt(e -> e.nrOfUpdates).sum();
+    }
+
+    private static class CommittingEntity extends CountingEntity {
+        private final UpdateScheduler scheduler;
+        private final List<Integer> target;
+        private final int id;
+
+        CommittingEntity(UpdateScheduler scheduler, List<Integer> target, int id) {
+            super(UpdateFrequency.EVERY_TICK);
+            this.scheduler = scheduler;
+            this.target = target;
+            this.id = id;
+        }
+
+        @Override
+        public void update() {
+            super.update();
+            scheduler.commit(() -> target.add(id));
+        }
+
+        @Override
+        public boolean canUpdateInParallel() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package NG.Network;
+
+import NG.Content.Scenario.Scenario;
+import NG.Core.HeadlessGame;
+import NG.Tools.NetworkPathFinder;
+import NG.Tools.TestNetworks;
+import NG.Tools.TestTracksMod;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class NetworkGraphTest {
+    private static final int NR_OF_DIAMONDS = 5;
+    private HeadlessGame game;
+    private List<RailNode> junctions;
+
+    @Before
+    public void setUp() {
+        game = new HeadlessGame(List.of(new TestTracksMod()), 20);
+        game.apply(new Scenario.Empty(game));
+
+        // a chain of diamonds, where each detour is longer than the straight
+        junctions = TestNetworks.createDiamondChain(game, NR_OF_DIAMONDS);
+    }
+
+    @Test
+    public void compilesJunctionsOnly() {
+        NetworkGraph graph = NetworkGraph.of(junctions.get(0).getNetworkNode());
+
+        // the detours are straight, hence only the junctions are part of the network
+        assertEquals(junctions.size(), graph.getNrOfNodes());
+        // both directions of both branches of each diamond
+        assertEquals(4 * NR_OF_DIAMONDS, graph.getNrOfEdges());
+        assertSame(graph, NetworkGraph.of(junctions.get(NR_OF_DIAMONDS).getNetworkNode()));
+    }
+
+    @Test
+    public void cleanupDropsGraphs() {
+        NetworkNode start = junctions.get(0).getNetworkNode();
+        NetworkGraph graph = NetworkGraph.of(start);
+        assertSame(graph, NetworkGraph.of(start));
+
+        game.state().cleanup();
+        assertNotSame(graph, NetworkGraph.of(start));
+    }
+
+    @Test
+    public void findsStraightPath() {
+        for (NetworkGraph.Heuristic heuristic : NetworkGraph.Heuristic.values()) {
+            NetworkNode start = junctions.get(1).getNetworkNode();
+            NetworkNode end = junctions.get(NR_OF_DIAMONDS).getNetworkNode();
+            NetworkGraph graph = NetworkGraph.of(start);
+
+            NetworkNode predecessor = junctions.get(0).getNetworkNode();
+            NetworkPathFinder.Path path = graph.findPath(graph.getPort(start, predecessor), Set.of(end), heuristic);
+
+            assertNotNull(heuristic.toString(), path);
+            List<NetworkNode> expected = new ArrayList<>();
+            for (int i = 2; i <= NR_OF_DIAMONDS; i++) {
+                expected.add(junctions.get(i).getNetworkNode());
+            }
+            assertEquals(heuristic.toString(), expected, new ArrayList<>(path));
+            assertEquals(heuristic.toString(), (NR_OF_DIAMONDS - 1) * 40, path.getPathLength(), 1e-3);
+
+            // backwards, the start of the chain is reachable but the end is not
+            int backwards = graph.getPort(start, junctions.get(2).getNetworkNode());
+            assertNull(heuristic.toString(), graph.findPath(backwards, Set.of(end), heuristic));
+            assertNotNull(heuristic.toString(), graph.findPath(backwards, Set.of(predecessor), heuristic));
+        }
+    }
+
+    @Test
+    public void heuristicsExpandLess() {
+        NetworkNode start = junctions.get(0).getNetworkNode();
+        NetworkNode middle = junctions.get(NR_OF_DIAMONDS / 2).getNetworkNode();
+        NetworkNode second = junctions.get(1).getNetworkNode();
+        NetworkGraph graph = NetworkGraph.of(start);
+
+        // along the chain, with the detours as the only alternative routes
+        int forward = graph.getPort(second, start);
+
+        graph.findPath(forward, Set.of(middle), NetworkGraph.Heuristic.NONE);
+        int dijkstraExpansions = graph.getNrOfExpansions();
+
+        for (NetworkGraph.Heuristic heuristic : NetworkGraph.Heuristic.values()) {
+            graph.findPath(forward, Set.of(middle), heuristic);
+            assertTrue(heuristic.toString(), graph.getNrOfExpansions() <= dijkstraExpansions);
+        }
+
+        // away from the chain the target is unreachable, which the landmarks recognize without searching
+        int outward = graph.getPort(start, second);
+        assertNull(graph.findPath(outward, Set.of(middle), NetworkGraph.Heuristic.NONE));
+        dijkstraExpansions = graph.getNrOfExpansions();
+        assertNull(graph.findPath(outward, Set.of(middle), NetworkGraph.Heuristic.LANDMARKS));
+        assertTrue(graph.getNrOfExpansions() <= dijkstraExpansions);
+    }
+
+    @Test
+    public void distancesToMatchSearch() {
+        NetworkNode target = junctions.get(NR_OF_DIAMONDS / 2).getNetworkNode();
+        NetworkGraph graph = NetworkGraph.of(target);
+        float[] distances = graph.getDistancesTo(Set.of(target));
+
+        for (int i = 0; i < junctions.size(); i++) {
+            NetworkNode node = junctions.get(i).getNetworkNode();
+
+            for (int j : new int[]{i - 1, i + 1}) {
+                if (j < 0 || j >= junctions.size()) continue;
+
+                int port = graph.getPort(node, junctions.get(j).getNetworkNode());
+                NetworkPathFinder.Path path = graph.findPath(port, Set.of(target), NetworkGraph.Heuristic.NONE);
+                float expected = (path == null) ? Float.POSITIVE_INFINITY : path.getPathLength();
+                assertEquals(expected, distances[port], 1e-3);
+            }
+        }
+    }
+
+    @Test
+    public void regionsFindSamePaths() {
+        // lengthen the chain such that it spans multiple regions
+        TestNetworks.extendDiamondChain(game, junctions, 3 * NR_OF_DIAMONDS);
+
+        NetworkGraph graph = NetworkGraph.of(junctions.get(0).getNetworkNode());
+        List<NetworkNode> targets = List.of(
+                junctions.get(0).getNetworkNode(),
+                junctions.get(junctions.size() / 2).getNetworkNode(),
+                junctions.get(junctions.size() - 1).getNetworkNode()
+        );
+
+        for (int regionSize : new int[]{1, 2, 3, 5}) {
+            for (int i = 0; i < junctions.size(); i++) {
+                NetworkNode node = junctions.get(i).getNetworkNode();
+
+                for (int j : new int[]{i - 1, i + 1}) {
+                    if (j < 0 || j >= junctions.size()) continue;
+                    int port = graph.getPort(node, junctions.get(j).getNetworkNode());
+
+                    for (NetworkNode target : targets) {
+                        NetworkPathFinder.Path expected = graph.findPath(port, Set.of(target), NetworkGraph.Heuristic.NONE);
+                        NetworkPathFinder.Path actual = graph.findPath(port, Set.of(target), NetworkGraph.Heuristic.NONE, regionSize);
+
+                        if (expected == null) {
+                            assertNull(actual);
+                        } else {
+                            assertNotNull(actual);
+                            assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+                            assertEquals(expected.getPathLength(), actual.getPathLength(), 1e-3);
+                        }
+                    }
+                }
+            }
+        }
+
+        // crossing regions in one step expands less than searching them
+        int start = graph.getPort(junctions.get(1).getNetworkNode(), junctions.get(0).getNetworkNode());
+        Set<NetworkNode> end = Set.of(junctions.get(junctions.size() - 1).getNetworkNode());
+        graph.findPath(start, end, NetworkGraph.Heuristic.NONE);
+        int flatExpansions = graph.getNrOfExpansions();
+        graph.findPath(start, end, NetworkGraph.Heuristic.NONE, 5);
+        assertTrue(graph.getNrOfExpansions() < flatExpansions);
+    }
+}
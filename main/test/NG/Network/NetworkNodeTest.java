@@ -0,0 +1,122 @@
+package NG.Network;
+
+import NG.Content.Scenario.Scenario;
+import NG.Core.HeadlessGame;
+import NG.Tools.TestNetworks;
+import NG.Tools.TestTracksMod;
+import NG.Tracks.RailTools;
+import NG.Tracks.TrackPiece;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NetworkNodeTest {
+    private HeadlessGame game;
+    private final List<NetworkNode.Segment> changes = new ArrayList<>();
+    private final NetworkNode.TopologyListener listener = changes::addAll;
+
+    @Before
+    public void setUp() {
+        game = new HeadlessGame(List.of(new TestTracksMod()), 20);
+        game.apply(new Scenario.Empty(game));
+        NetworkNode.addTopologyListener(listener);
+    }
+
+    @After
+    public void tearDown() {
+        NetworkNode.removeTopologyListener(listener);
+    }
+
+    @Test
+    public void lineIsOneSegment() {
+        RailNode[] nodes = {node(0), node(20), node(40), node(60)};
+        List<TrackPiece> tracks = new ArrayList<>();
+        for (int i = 0; i < nodes.length - 1; i++) {
+            tracks.addAll(RailTools.createConnection(game, nodes[i], nodes[i + 1], Float.POSITIVE_INFINITY));
+        }
+
+        NetworkNode.addConnections(tracks);
+
+        assertEquals(1, changes.size());
+        NetworkNode.Segment segment = changes.get(0);
+        assertEquals(60, segment.getLength(), 1e-3);
+        assertEquals(tracks.size(), segment.getTracks().size());
+        assertEnds(segment, nodes[0], nodes[3]);
+
+        NetworkNode middle = nodes[1].getNetworkNode();
+        for (NetworkNode.Direction direction : middle.getAllEntries()) {
+            assertSame(segment, direction.getSegment());
+            boolean towardsEnd = direction.network == nodes[3].getNetworkNode();
+            assertEquals(towardsEnd ? 40 : 20, direction.distanceToNetworkNode, 1e-3);
+        }
+    }
+
+    @Test
+    public void removalSplitsSegment() {
+        RailNode a = node(0);
+        RailNode b = node(20);
+        RailNode c = node(40);
+        RailNode d = node(60);
+        connect(a, b);
+        connect(b, c);
+        connect(c, d);
+        changes.clear();
+
+        NetworkNode.removeConnection(b.getNetworkNode(), c.getNetworkNode());
+
+        assertEquals(2, changes.size());
+        for (NetworkNode.Segment segment : changes) {
+            assertEquals(20, segment.getLength(), 1e-3);
+        }
+
+        NetworkNode.Direction fromA = a.getNetworkNode().getAllEntries().iterator().next();
+        assertSame(b.getNetworkNode(), fromA.network);
+        assertEquals(20, fromA.distanceToNetworkNode, 1e-3);
+    }
+
+    @Test
+    public void branchEndsSegmentsAtSwitch() {
+        RailNode a = node(0);
+        RailNode b = node(20);
+        RailNode c = node(40);
+        connect(a, b);
+        connect(b, c);
+
+        // a branch from b makes b a switch
+        RailNode e = TestNetworks.node(game, 40, 20);
+        changes.clear();
+        connect(b, e);
+
+        assertTrue(b.getNetworkNode().isSwitch());
+        // the segments to a, to c and to e
+        assertEquals(3, changes.size());
+        for (NetworkNode.Direction direction : b.getNetworkNode().getAllEntries()) {
+            assertEnds(direction.getSegment(), b.getNetworkNode(), direction.network);
+            assertTrue(direction.network.isEnd());
+        }
+    }
+
+    private static void assertEnds(NetworkNode.Segment segment, RailNode one, RailNode two) {
+        assertEnds(segment, one.getNetworkNode(), two.getNetworkNode());
+    }
+
+    private static void assertEnds(NetworkNode.Segment segment, NetworkNode one, NetworkNode two) {
+        Collection<NetworkNode> ends = List.of(segment.getStart(), segment.getEnd());
+        assertTrue(ends.contains(one));
+        assertTrue(ends.contains(two));
+    }
+
+    private RailNode node(float x) {
+        return TestNetworks.node(game, x, 0);
+    }
+
+    private void connect(RailNode aNode, RailNode bNode) {
+        TestNetworks.connect(game, aNode, bNode);
+    }
+}
@@ -0,0 +1,92 @@
+package NG.Network;
+
+import NG.Content.Scenario.Scenario;
+import NG.Core.HeadlessGame;
+import NG.Tools.TestNetworks;
+import NG.Tools.TestTracksMod;
+import NG.Tracks.TrackPiece;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReservationTableTest {
+    private HeadlessGame game;
+    private ReservationTable table;
+    private TrackPiece first;
+    private TrackPiece crossing;
+    private TrackPiece other;
+
+    @Before
+    public void setUp() {
+        game = new HeadlessGame(List.of(new TestTracksMod()), 20);
+        game.apply(new Scenario.Empty(game));
+        table = game.state().reservations();
+
+        first = connect(node(0, 0), node(20, 0));
+        crossing = connect(node(0, 10), node(20, 10));
+        other = connect(node(0, 20), node(20, 20));
+        TrackPiece.entangleTrackOccupation(first, crossing);
+    }
+
+    @Test
+    public void entangledTracksAreReserved() {
+        Object train = new Object();
+        assertTrue(table.reserve(train, List.of(first)));
+
+        assertTrue(first.isOccupied());
+        assertTrue(crossing.isOccupied());
+        assertFalse(other.isOccupied());
+        assertSame(train, table.getHolder(first));
+        assertNull(table.getHolder(crossing));
+        assertTrue(table.canReserve(train, first));
+        assertFalse(table.canReserve(new Object(), first));
+        assertFalse(table.canReserve(new Object(), crossing));
+
+        table.release(train, first);
+        assertFalse(crossing.isOccupied());
+    }
+
+    @Test
+    public void reservationIsAtomic() {
+        Object train = new Object();
+        Object competitor = new Object();
+        assertTrue(table.reserve(train, List.of(first)));
+
+        assertFalse(table.reserve(competitor, List.of(other, crossing)));
+        assertFalse(other.isOccupied());
+        assertEquals(1, table.getNrOfConflicts());
+
+        // the holder may reserve its own tracks again
+        assertTrue(table.reserve(train, List.of(first, other)));
+        assertEquals(2, table.getTracksOf(train).size());
+
+        // releasing tracks of another holder has no effect
+        table.release(competitor, first);
+        assertTrue(first.isOccupied());
+
+        table.releaseAll(train);
+        assertFalse(first.isOccupied());
+        assertFalse(other.isOccupied());
+        assertTrue(table.reserve(competitor, List.of(other, crossing)));
+    }
+
+    @Test
+    public void despawnedTracksAreNotEntangled() {
+        crossing.despawn(game.timer().getGameTime());
+        assertTrue(first.getEntangledTracks().isEmpty());
+
+        assertTrue(table.reserve(new Object(), List.of(first)));
+        assertFalse(crossing.isOccupied());
+    }
+
+    private RailNode node(float x, float y) {
+        return TestNetworks.node(game, x, y);
+    }
+
+    private TrackPiece connect(RailNode aNode, RailNode bNode) {
+        return TestNetworks.connect(game, aNode, bNode).get(0);
+    }
+}
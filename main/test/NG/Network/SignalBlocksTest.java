@@ -0,0 +1,64 @@
+package NG.Network;
+
+import NG.Content.Scenario.Scenario;
+import NG.Core.HeadlessGame;
+import NG.Tools.TestNetworks;
+import NG.Tools.TestTracksMod;
+import NG.Tracks.TrackPiece;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SignalBlocksTest {
+    private HeadlessGame game;
+
+    @Before
+    public void setUp() {
+        game = new HeadlessGame(List.of(new TestTracksMod()), 20);
+        game.apply(new Scenario.Empty(game));
+    }
+
+    @Test
+    public void blockIsRebuiltAfterExtension() {
+        RailNode a = node(0);
+        RailNode b = node(20);
+        RailNode c = node(40);
+        TrackPiece first = connect(a, b).get(0);
+        connect(b, c);
+
+        SignalBlocks.Block block = SignalBlocks.get(b, first, false);
+        assertSame(block, SignalBlocks.get(b, first, false));
+        assertSame(c, getSignalRoute(block).signal.getNode());
+
+        // the end of the line moves from c to d
+        RailNode d = node(60);
+        connect(c, d);
+
+        SignalBlocks.Block newBlock = SignalBlocks.get(b, first, false);
+        assertNotSame(block, newBlock);
+        SignalBlocks.Route route = getSignalRoute(newBlock);
+        assertSame(d, route.signal.getNode());
+        assertEquals(40, route.length, 1e-3);
+
+        // a signal on c ends the block there again
+        c.addSignal(game, true);
+        assertSame(c, getSignalRoute(SignalBlocks.get(b, first, false)).signal.getNode());
+    }
+
+    private static SignalBlocks.Route getSignalRoute(SignalBlocks.Block block) {
+        List<SignalBlocks.Route> routes = block.routes.stream().filter(r -> r.signal != null).toList();
+        assertEquals(1, routes.size());
+        return routes.get(0);
+    }
+
+    private RailNode node(float x) {
+        return TestNetworks.node(game, x, 0);
+    }
+
+    private List<TrackPiece> connect(RailNode aNode, RailNode bNode) {
+        return TestNetworks.connect(game, aNode, bNode);
+    }
+}
@@ -0,0 +1,132 @@
+package NG.Rendering;
+
+import NG.Core.Coloring;
+import NG.Core.Game;
+import NG.Entities.Entity;
+import NG.InputHandling.KeyControl;
+import NG.InputHandling.MouseTool.AbstractMouseTool;
+import NG.Rendering.MatrixStack.SGL;
+import NG.Tools.BoxEntity;
+import org.joml.AABBf;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CullingGridTest {
+    private CullingGrid grid;
+    private FrustumIntersection frustum;
+
+    @Before
+    public void setUp() {
+        grid = new CullingGrid(64f);
+
+        // a camera at (0, 0, 50) looking at (100, 100, 0)
+        Matrix4f viewProjection = new Matrix4f()
+                .perspective((float) Math.toRadians(60), 16f / 9f, 0.1f, 300f)
+                .lookAt(0, 0, 50, 100, 100, 0, 0, 0, 1);
+        frustum = new FrustumIntersection(viewProjection, false);
+    }
+
+    @Test
+    public void cullEqualsPerEntityTest() {
+        Random random = new Random(1);
+        List<BoxEntity> entities = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            float x = random.nextFloat() * 1000 - 500;
+            float y = random.nextFloat() * 1000 - 500;
+            BoxEntity entity = new BoxEntity(new AABBf(x, y, 0, x + random.nextFloat() * 10, y + random.nextFloat() * 10, 2));
+            entities.add(entity);
+            grid.add(entity);
+        }
+
+        // remove some to exercise the recalculation of region bounds
+        for (int i = 0; i < 500; i++) {
+            grid.remove(entities.remove(random.nextInt(entities.size())));
+        }
+
+        Set<Entity> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BoxEntity entity : entities) {
+            AABBf box = entity.box;
+            if (frustum.testAab(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ)) {
+                expected.add(entity);
+            }
+        }
+
+        List<Entity> visible = new ArrayList<>();
+        grid.collectVisible(frustum, visible);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), visible.size());
+        assertEquals(expected, new HashSet<>(visible));
+        assertEquals(visible.size(), grid.getNrOfVisible());
+        assertEquals(entities.size() - visible.size(), grid.getNrOfCulled());
+    }
+
+    @Test
+    public void entitiesWithoutHitboxAreNeverCulled() {
+        Entity behindCamera = new BoxEntity(new AABBf(-100, -100, 0, -90, -90, 2));
+        Entity unbounded = new PlainEntity();
+        grid.add(behindCamera);
+        grid.add(unbounded);
+
+        List<Entity> visible = new ArrayList<>();
+        grid.collectVisible(frustum, visible);
+        assertEquals(List.of(unbounded), visible);
+        assertEquals(1, grid.getNrOfCulled());
+
+        visible.clear();
+        grid.collectVisible(null, visible);
+        assertEquals(2, visible.size());
+        assertEquals(0, grid.getNrOfCulled());
+    }
+
+    @Test
+    public void orthographicProjectionIsCulled() {
+        // an isometric view on (0, 0, 0) that spans 40 units
+        Matrix4f viewProjection = new Matrix4f()
+                .ortho(-20, 20, -20, 20, -100, 100)
+                .lookAt(10, 10, 10, 0, 0, 0, 0, 0, 1);
+        assertTrue(viewProjection.isAffine());
+
+        Entity inView = new BoxEntity(new AABBf(-1, -1, 0, 1, 1, 2));
+        Entity outOfView = new BoxEntity(new AABBf(200, -200, 0, 202, -198, 2));
+        grid.add(inView);
+        grid.add(outOfView);
+
+        List<Entity> visible = new ArrayList<>();
+        grid.collectVisible(new FrustumIntersection(viewProjection, false), visible);
+        assertEquals(List.of(inView), visible);
+    }
+
+    private static class PlainEntity implements Entity {
+        @Override
+        public void update() {
+        }
+
+        @Override
+        public void draw(SGL gl) {
+        }
+
+        @Override
+        public void reactMouse(AbstractMouseTool.MouseAction action, KeyControl keys) {
+        }
+
+        @Override
+        public void setMarking(Coloring.Marking mark) {
+        }
+
+        @Override
+        public void despawn(double gameTime) {
+        }
+
+        @Override
+        public void restore(Game game) {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package NG.Tools;
+
+import NG.Core.Coloring;
+import NG.Core.Game;
+import NG.DataStructures.Collision.ColliderEntity;
+import NG.DataStructures.Generic.PairList;
+import NG.InputHandling.KeyControl;
+import NG.InputHandling.MouseTool.AbstractMouseTool;
+import NG.Rendering.MatrixStack.SGL;
+import NG.Rendering.Shapes.Shape;
+import org.joml.AABBf;
+import org.joml.Matrix4fc;
+
+/**
+ * a collider entity with only a fixed hitbox
+ */
+public class BoxEntity implements ColliderEntity {
+    public final AABBf box;
+
+    public BoxEntity(AABBf box) {
+        this.box = box;
+    }
+
+    @Override
+    public AABBf getHitbox() {
+        return box;
+    }
+
+    @Override
+    public PairList<Shape, Matrix4fc> getConvexCollisionShapes() {
+        return new PairList<>();
+    }
+
+    @Override
+    public void update() {
+    }
+
+    @Override
+    public void draw(SGL gl) {
+    }
+
+    @Override
+    public void reactMouse(AbstractMouseTool.MouseAction action, KeyControl keys) {
+    }
+
+    @Override
+    public void setMarking(Coloring.Marking mark) {
+    }
+
+    @Override
+    public void despawn(double gameTime) {
+    }
+
+    @Override
+    public void restore(Game game) {
+    }
+}
@@ -0,0 +1,54 @@
+package NG.Tools;
+
+import NG.Content.Scenario.Scenario;
+import NG.Core.HeadlessGame;
+import NG.Network.NetworkNode;
+import NG.Network.NetworkPosition;
+import NG.Network.RailNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DistanceFieldsTest {
+    private HeadlessGame game;
+    private List<RailNode> junctions;
+    private List<RailNode> otherJunctions;
+    private NetworkPosition target;
+
+    @Before
+    public void setUp() {
+        game = new HeadlessGame(List.of(new TestTracksMod()), 20);
+        game.apply(new Scenario.Empty(game));
+
+        junctions = TestNetworks.createDiamondChain(game, 2);
+        target = new TestNetworks.NodeTarget(junctions.get(2));
+
+        // a second component, from which the target is unreachable
+        otherJunctions = List.of(TestNetworks.node(game, 0, 100), TestNetworks.node(game, 40, 100));
+        TestNetworks.connect(game, otherJunctions.get(0), otherJunctions.get(1));
+    }
+
+    @Test
+    public void componentsHaveSeparateFields() {
+        int[] nrOfTasks = {0};
+        DistanceFields fields = new DistanceFields(task -> {
+            nrOfTasks[0]++;
+            task.run();
+        });
+
+        NetworkNode start = junctions.get(1).getNetworkNode();
+        NetworkNode otherStart = otherJunctions.get(0).getNetworkNode();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(40, fields.getDistance(start, true, target), 1e-3);
+            assertEquals(Float.POSITIVE_INFINITY, fields.getDistance(otherStart, false, target), 0);
+        }
+
+        // one field per component, which are computed once
+        assertEquals(2, nrOfTasks[0]);
+        assertEquals(6, fields.getNrOfHits());
+    }
+}
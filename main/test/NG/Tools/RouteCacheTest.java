@@ -0,0 +1,91 @@
+package NG.Tools;
+
+import NG.Content.Scenario.Scenario;
+import NG.Core.HeadlessGame;
+import NG.Network.NetworkNode;
+import NG.Network.NetworkPosition;
+import NG.Network.RailNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RouteCacheTest {
+    private HeadlessGame game;
+    private List<RailNode> junctions;
+    private NetworkPosition target;
+
+    @Before
+    public void setUp() {
+        game = new HeadlessGame(List.of(new TestTracksMod()), 20);
+        game.apply(new Scenario.Empty(game));
+
+        junctions = TestNetworks.createDiamondChain(game, 2);
+        target = new TestNetworks.NodeTarget(junctions.get(2));
+    }
+
+    @Test
+    public void repeatedQueryIsHit() {
+        RouteCache cache = NetworkPathFinder.getRouteCache();
+        NetworkNode start = junctions.get(1).getNetworkNode();
+
+        long misses = cache.getNrOfMisses();
+        NetworkPathFinder.Path first = new NetworkPathFinder(start, true, target).call();
+        assertEquals(misses + 1, cache.getNrOfMisses());
+
+        long hits = cache.getNrOfHits();
+        NetworkPathFinder.Path second = new NetworkPathFinder(start, true, target).call();
+        assertEquals(hits + 1, cache.getNrOfHits());
+
+        assertNotSame(first, second);
+        assertEquals(new ArrayList<>(first), new ArrayList<>(second));
+        assertEquals(first.getPathLength(), second.getPathLength(), 0);
+
+        // modifying a result does not modify the cache
+        first.clear();
+        NetworkPathFinder.Path third = new NetworkPathFinder(start, true, target).call();
+        assertEquals(new ArrayList<>(second), new ArrayList<>(third));
+    }
+
+    @Test
+    public void topologyChangeIsMiss() {
+        RouteCache cache = NetworkPathFinder.getRouteCache();
+        NetworkNode start = junctions.get(1).getNetworkNode();
+        new NetworkPathFinder(start, true, target).call();
+
+        long version = NetworkNode.getTopologyVersion();
+        TestNetworks.connect(game, junctions.get(2), TestNetworks.node(game, 120, 0));
+        assertNotEquals(version, NetworkNode.getTopologyVersion());
+
+        long misses = cache.getNrOfMisses();
+        NetworkPathFinder.Path path = new NetworkPathFinder(start, true, target).call();
+        assertEquals(misses + 1, cache.getNrOfMisses());
+        assertNotNull(path);
+        assertEquals(junctions.get(2).getNetworkNode(), path.getLast());
+    }
+
+    @Test
+    public void requestIsComputedOnExecutor() {
+        NetworkPathFinder.getRouteCache().clear();
+        NetworkNode start = junctions.get(1).getNetworkNode();
+        Deque<Runnable> tasks = new ArrayDeque<>();
+        int[] nrOfCallbacks = {0};
+
+        NetworkPathFinder.Path pending = new NetworkPathFinder(start, true, target)
+                .request(tasks::add, () -> nrOfCallbacks[0]++);
+        assertSame(NetworkPathFinder.PENDING, pending);
+
+        // a second request of the same route is not computed again
+        new NetworkPathFinder(start, true, target).request(tasks::add, () -> nrOfCallbacks[0]++);
+        assertEquals(1, tasks.size());
+
+        tasks.remove().run();
+        assertEquals(2, nrOfCallbacks[0]);
+
+        NetworkPathFinder.Path path = new NetworkPathFinder(start, true, target).request(tasks::add, () -> {});
+        assertTrue(tasks.isEmpty());
+        assertEquals(new ArrayList<>(new NetworkPathFinder(start, true, target).call()), new ArrayList<>(path));
+    }
+}
@@ -0,0 +1,110 @@
+package NG.Tools;
+
+import NG.Core.Game;
+import NG.DataStructures.Generic.Pair;
+import NG.Network.NetworkNode;
+import NG.Network.NetworkPosition;
+import NG.Network.RailNode;
+import NG.Tracks.RailTools;
+import NG.Tracks.TrackPiece;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds track networks of {@link TestTracksMod#TEST_TRACK} in a game without rendering. Used by the tests and the
+ * benchmarks.
+ */
+public final class TestNetworks {
+    /** the height of all tracks */
+    public static final float TRACK_HEIGHT = 1f;
+    /** the horizontal length of one diamond of a diamond chain */
+    public static final float DIAMOND_LENGTH = 40f;
+    /** the distance between the two branches of a diamond */
+    public static final float DIAMOND_WIDTH = 10f;
+
+    private TestNetworks() {
+    }
+
+    /** @return a new rail node at the given position, facing along the x-axis */
+    public static RailNode node(Game game, float x, float y) {
+        return node(game, x, y, Vectors.X);
+    }
+
+    /** @return a new rail node at the given position, facing in the given direction */
+    public static RailNode node(Game game, float x, float y, Vector3fc direction) {
+        return new RailNode(game, new Vector3f(x, y, TRACK_HEIGHT), TestTracksMod.TEST_TRACK, direction);
+    }
+
+    /**
+     * connects the two nodes with new tracks, and adds these tracks to the network and the game state
+     * @return the new tracks, from aNode to bNode
+     */
+    public static List<TrackPiece> connect(Game game, RailNode aNode, RailNode bNode) {
+        List<TrackPiece> tracks = RailTools.createConnection(game, aNode, bNode, Float.POSITIVE_INFINITY);
+        NetworkNode.addConnections(tracks);
+        for (TrackPiece track : tracks) {
+            game.state().addEntity(track);
+        }
+        return tracks;
+    }
+
+    /**
+     * creates a chain of diamonds along the x-axis. Each diamond consists of a straight track and a longer, curved
+     * detour between two junctions.
+     * @param game         the game to add the tracks to
+     * @param nrOfDiamonds the number of diamonds
+     * @return the junctions of the chain, in order
+     */
+    public static List<RailNode> createDiamondChain(Game game, int nrOfDiamonds) {
+        List<RailNode> junctions = new ArrayList<>(nrOfDiamonds + 1);
+        junctions.add(node(game, 0, 0));
+        extendDiamondChain(game, junctions, nrOfDiamonds);
+        return junctions;
+    }
+
+    /**
+     * adds diamonds to the end of a chain created with {@link #createDiamondChain(Game, int)}
+     * @param junctions    the junctions of the chain, to which the new junctions are appended
+     * @param nrOfDiamonds the number of diamonds to add
+     */
+    public static void extendDiamondChain(Game game, List<RailNode> junctions, int nrOfDiamonds) {
+        RailNode previous = junctions.get(junctions.size() - 1);
+
+        for (int i = 0; i < nrOfDiamonds; i++) {
+            float x = (junctions.size() - 1) * DIAMOND_LENGTH;
+            RailNode detour = node(game, x + DIAMOND_LENGTH / 2, DIAMOND_WIDTH);
+            RailNode next = node(game, x + DIAMOND_LENGTH, 0);
+
+            connect(game, previous, next);
+            connect(game, previous, detour);
+            connect(game, detour, next);
+
+            junctions.add(next);
+            previous = next;
+        }
+    }
+
+    /** a network position consisting of a single network node, accepting traffic from both sides */
+    public static class NodeTarget implements NetworkPosition {
+        private final List<Pair<NetworkNode, Boolean>> nodes;
+
+        public NodeTarget(RailNode node) {
+            NetworkNode networkNode = node.getNetworkNode();
+            this.nodes = List.of(new Pair<>(networkNode, true), new Pair<>(networkNode, false));
+        }
+
+        @Override
+        public List<Pair<NetworkNode, Boolean>> getNodes() {
+            return nodes;
+        }
+
+        @Override
+        public List<TrackPiece> getTracks() {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package NG.Tools;
+
+import NG.Core.Game;
+import NG.Core.Version;
+import NG.DataStructures.Generic.Color4f;
+import NG.DataStructures.Valuta;
+import NG.Mods.Mod;
+import NG.Rendering.MeshLoading.Mesh;
+import NG.Rendering.Shaders.MaterialShader;
+import NG.Tracks.TrackElement;
+import NG.Tracks.TrackType;
+import org.joml.Vector3fc;
+
+/**
+ * a mod that installs a single track type without meshes, for use in a game without rendering
+ */
+public class TestTracksMod implements Mod {
+    public static final TrackType TEST_TRACK = new TrackType() {
+        @Override
+        public String toString() {
+            return "Test Tracks";
+        }
+
+        @Override
+        public Mesh generateCircle(float radius, float angle, float endHeight) {
+            return Mesh.EMPTY_MESH;
+        }
+
+        @Override
+        public Mesh generateStraight(Vector3fc displacement) {
+            return Mesh.EMPTY_MESH;
+        }
+
+        @Override
+        public Mesh generateSupport(float height) {
+            return Mesh.EMPTY_MESH;
+        }
+
+        @Override
+        public void setMaterial(MaterialShader shader, TrackElement track, Color4f color) {
+        }
+
+        @Override
+        public float getMaximumSpeed() {
+            return 10;
+        }
+
+        @Override
+        public Valuta getCostPerMeter() {
+            return Valuta.ofUnitValue(1);
+        }
+
+        @Override
+        public float getMaxSupportLength() {
+            return 2.0f;
+        }
+    };
+
+    @Override
+    public void init(Game game) {
+        game.objectTypes().trackTypes.add(TEST_TRACK);
+    }
+
+    @Override
+    public void cleanup() {
+    }
+
+    @Override
+    public Version getVersionNumber() {
+        return new Version(0, 0);
+    }
+}
@@ -0,0 +1,92 @@
+package NG.Tracks;
+
+import NG.Content.Scenario.Scenario;
+import NG.Core.HeadlessGame;
+import NG.Entities.Train;
+import NG.Network.NetworkNode;
+import NG.Network.RailNode;
+import NG.Tools.TestNetworks;
+import NG.Tools.TestTracksMod;
+import NG.Tools.Vectors;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RailMovementTest {
+    /** the length of the train, which must fit on the first track */
+    private static final float TRAIN_LENGTH = 15;
+    private HeadlessGame game;
+    private RailMovement movement;
+    private double time;
+
+    @Before
+    public void setUp() throws Exception {
+        game = new HeadlessGame(List.of(new TestTracksMod()), 20);
+        game.apply(new Scenario.Empty(game));
+
+        List<TrackPiece> tracks = new ArrayList<>();
+        RailNode previous = node(0, 0, Vectors.X);
+        for (int i = 1; i <= 4; i++) {
+            RailNode next = node(i * 20, 0, Vectors.X);
+            tracks.addAll(RailTools.createConnection(game, previous, next, Float.POSITIVE_INFINITY));
+            previous = next;
+        }
+        // a curve, followed by a straight
+        RailNode curveEnd = node(120, 40, Vectors.Y);
+        tracks.addAll(RailTools.createConnection(game, previous, curveEnd, Float.POSITIVE_INFINITY));
+        tracks.addAll(RailTools.createConnection(game, curveEnd, node(120, 200, Vectors.Y), Float.POSITIVE_INFINITY));
+
+        NetworkNode.addConnections(tracks);
+        for (TrackPiece track : tracks) {
+            game.state().addEntity(track);
+        }
+
+        // the train only acts as a controller without schedule
+        Train controller = new Train(game, 0, 0, tracks.get(tracks.size() - 1));
+        movement = new RailMovement(game, controller, 0, tracks.get(0), true);
+        movement.setProperties(500, 100, 0.5f, 0.01f, 5, TRAIN_LENGTH, 20);
+        movement.start();
+        game.tick();
+
+        time = 0;
+    }
+
+    @Test
+    public void posesEqualSeparateSamples() {
+        float[] displacements = {0, 2.5f, 6, 9.5f, 12, TRAIN_LENGTH};
+        float[] poses = new float[displacements.length * RailMovement.POSE_SIZE];
+        int nrOfCurvedSamples = 0;
+
+        for (int k = 0; k < 100; k++) {
+            time += 0.1;
+            movement.getPoses(time, displacements, displacements.length, poses);
+
+            for (int i = 0; i < displacements.length; i++) {
+                int offset = i * RailMovement.POSE_SIZE;
+                Vector3fc expectedPosition = movement.getPosition(time, -displacements[i]);
+                Vector3f position = new Vector3f(poses[offset], poses[offset + 1], poses[offset + 2]);
+                assertEquals(expectedPosition.distance(position), 0, 1e-3);
+
+                Quaternionf expectedRotation = movement.getRotation(time, -displacements[i]);
+                Quaternionf rotation = new Quaternionf(poses[offset + 3], poses[offset + 4], poses[offset + 5], poses[offset + 6]);
+                assertEquals(1, Math.abs(expectedRotation.dot(rotation)), 1e-4);
+
+                if (position.x > 80 && position.y > 0.1f && position.y < 40) nrOfCurvedSamples++;
+            }
+        }
+
+        assertTrue("Train did not drive through the curve", nrOfCurvedSamples > 0);
+    }
+
+    private RailNode node(float x, float y, Vector3fc direction) {
+        return TestNetworks.node(game, x, y, direction);
+    }
+}
@@ -0,0 +1,68 @@
+package NG.Tracks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpeedProfileTest {
+    /** a deceleration of 5 m/s^2, expressed in millimeters */
+    private static final float BRAKE_FACTOR = 1000 / (2 * 5f);
+    private SpeedProfile profile;
+
+    @Before
+    public void setUp() {
+        profile = new SpeedProfile();
+        profile.setBrakeFactor(BRAKE_FACTOR);
+    }
+
+    @Test
+    public void nextIsTargetWithFirstBrakePoint() {
+        // braking from 20 to 10 takes 30 m, braking from 20 to 0 takes 40 m
+        profile.add(100_000, 200_000, 10, RailMovement.ALWAYS);
+        SpeedProfile.SpeedTarget stop = profile.add(105_000, 105_000, 0, RailMovement.ALWAYS);
+
+        assertSame(stop, profile.getNext());
+        assertEquals(65_000, profile.getBrakePointMillis(20), 2);
+        assertEquals(100_000, profile.getFirstStartMillis());
+
+        // passing the slow target makes it active, and it no longer is a future target
+        profile.advance(100_001, 80_000);
+        assertSame(stop, profile.getNext());
+        assertEquals(10, profile.getActiveMaxSpeed(), 0);
+        assertEquals(105_000, profile.getFirstStartMillis());
+
+        // the active target ends when the tail leaves it, a passed stop is not active
+        profile.advance(210_000, 200_001);
+        assertEquals(Float.POSITIVE_INFINITY, profile.getActiveMaxSpeed(), 0);
+        assertNull(profile.getNext());
+    }
+
+    @Test
+    public void conditionsAreOnlyEvaluatedWhenReevaluated() {
+        int[] nrOfEvaluations = {0};
+        boolean[] isValid = {true};
+        SpeedProfile.SpeedTarget station = profile.add(50_000, 50_000, 0, () -> {
+            nrOfEvaluations[0]++;
+            return isValid[0];
+        });
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(station, profile.getNext());
+        }
+        assertEquals(1, nrOfEvaluations[0]);
+
+        isValid[0] = false;
+        assertSame(station, profile.getNext());
+
+        profile.reevaluateConditions();
+        assertNull(profile.getNext());
+        assertEquals(2, nrOfEvaluations[0]);
+
+        // a dropped target stays dropped
+        isValid[0] = true;
+        profile.reevaluateConditions();
+        assertNull(profile.getNext());
+        assertEquals(Long.MAX_VALUE, profile.getFirstStartMillis());
+    }
+}
@@ -0,0 +1,45 @@
+package NG.Tracks;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TractionCurveTest {
+    private static final double DT = 1e-5;
+
+    @Test
+    public void quadraticResistance() {
+        testAgainstIntegration(0, 5, 0.2, 0.1, 1);
+        testAgainstIntegration(3, 5, 0.2, 0.1, 0.5);
+        // starting above the terminal speed
+        testAgainstIntegration(10, 5, 0.2, 0.1, 1);
+    }
+
+    @Test
+    public void linearResistance() {
+        testAgainstIntegration(1, 5, 0.5, 0, 1);
+    }
+
+    @Test
+    public void noResistance() {
+        testAgainstIntegration(2, 5, 0, 0, 0.25);
+    }
+
+    private static void testAgainstIntegration(double v0, double force, double r1, double r2, double invMass) {
+        TractionCurve curve = new TractionCurve(v0, force, r1, r2, invMass);
+        double speed = v0;
+        double distance = 0;
+
+        for (int i = 1; i <= 500_000; i++) {
+            double midSpeed = speed + (force - r1 * speed - r2 * speed * speed) * invMass * DT / 2;
+            distance += midSpeed * DT;
+            speed += (force - r1 * midSpeed - r2 * midSpeed * midSpeed) * invMass * DT;
+
+            if (i % 100_000 == 0) {
+                double time = i * DT;
+                assertEquals(speed, curve.getSpeed(time), 1e-4);
+                assertEquals(distance, curve.getDistance(time), 1e-3);
+            }
+        }
+    }
+}